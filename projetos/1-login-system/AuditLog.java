@@ -0,0 +1,345 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Log de auditoria assíncrono
+ *
+ * Quem registra um evento só coloca a linha numa fila circular limitada e
+ * sem locks (CAS na posição de escrita); uma thread de fundo esvazia a
+ * fila em lotes, junta as linhas num buffer e grava tudo com uma única
+ * escrita num FileChannel aberto uma vez só.
+ *
+ * - FsyncPolicy: quando forçar os dados para o disco (nunca, a cada lote
+ *   ou no máximo a cada N ms)
+ * - OverflowPolicy: com a fila cheia, esperar a thread de fundo
+ *   (backpressure) ou descartar a linha e contar em getDropped()
+ *
+ * close() grava o que estiver na fila, força para o disco e fecha o arquivo;
+ * linhas enfileiradas durante o close() contam como descartadas.
+ */
+public class AuditLog implements AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 8192;
+    public static final long DEFAULT_FSYNC_INTERVAL_MS = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long BACKPRESSURE_PARK_NANOS = 50_000;
+    private static final long IDLE_PARK_NANOS = 100_000_000;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final RingBuffer queue;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final Thread writer;
+
+    private volatile boolean waiting;
+    private volatile boolean closed;
+
+    // Métricas
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder backpressureWaits = new LongAdder();
+    private volatile long written;
+    private volatile long batches;
+    private volatile long fsyncs;
+    private volatile long errors;
+
+    /**
+     * Fila de DEFAULT_CAPACITY linhas, fsync a cada segundo e backpressure
+     */
+    public AuditLog(Path file) throws IOException {
+        this(file, DEFAULT_CAPACITY, FsyncPolicy.INTERVAL, DEFAULT_FSYNC_INTERVAL_MS, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * @param capacity linhas na fila (arredondado para potência de 2)
+     * @param fsyncIntervalMillis intervalo máximo entre fsyncs na política INTERVAL
+     */
+    public AuditLog(Path file, int capacity, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis,
+                    OverflowPolicy overflowPolicy) throws IOException {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacidade inválida: " + capacity);
+        }
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.queue = new RingBuffer(Integer.highestOneBit(capacity - 1) << 1);
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = fsyncIntervalMillis * 1_000_000L;
+        this.overflowPolicy = overflowPolicy;
+        this.writer = new Thread(this::run, "audit-log");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Enfileira uma linha (sem a quebra de linha)
+     * @return false se a linha foi descartada (fila cheia com DROP ou log fechado)
+     */
+    public boolean append(String line) {
+        if (closed) {
+            dropped.increment();
+            return false;
+        }
+        while (!queue.offer(line)) {
+            if (overflowPolicy == OverflowPolicy.DROP || closed) {
+                dropped.increment();
+                return false;
+            }
+            backpressureWaits.increment();
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(BACKPRESSURE_PARK_NANOS);
+        }
+        if (waiting) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    /**
+     * Laço da thread de fundo: esvazia a fila em lotes até o close()
+     */
+    private void run() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        long lastFsync = System.nanoTime();
+        boolean dirty = false;
+        while (true) {
+            int lines = drain(buffer);
+            if (lines > 0) {
+                batches++;
+                dirty = true;
+            }
+
+            long now = System.nanoTime();
+            if (dirty && (fsyncPolicy == FsyncPolicy.EVERY_BATCH
+                    || (fsyncPolicy == FsyncPolicy.INTERVAL && now - lastFsync >= fsyncIntervalNanos))) {
+                force();
+                lastFsync = now;
+                dirty = false;
+            }
+            if (lines > 0) {
+                continue;
+            }
+            if (closed && queue.isEmpty()) {
+                break;
+            }
+
+            // Fila vazia: dorme até o próximo append (ou até o prazo do fsync)
+            waiting = true;
+            if (queue.isEmpty() && !closed) {
+                LockSupport.parkNanos(this, dirty && fsyncPolicy == FsyncPolicy.INTERVAL
+                    ? Math.max(1, fsyncIntervalNanos - (now - lastFsync))
+                    : IDLE_PARK_NANOS);
+            }
+            waiting = false;
+        }
+        if (fsyncPolicy != FsyncPolicy.NEVER) {
+            force();
+        }
+    }
+
+    /**
+     * Move até uma fila cheia de linhas para o buffer, gravando sempre que
+     * ele enche (o limite garante o fsync por intervalo sob carga contínua)
+     * @return linhas gravadas
+     */
+    private int drain(ByteBuffer buffer) {
+        int lines = 0;
+        String line;
+        while (lines < queue.capacity() && (line = queue.poll()) != null) {
+            byte[] bytes = (line + '\n').getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > buffer.remaining()) {
+                flush(buffer);
+                if (bytes.length > buffer.capacity()) {
+                    write(ByteBuffer.wrap(bytes));
+                    lines++;
+                    continue;
+                }
+            }
+            buffer.put(bytes);
+            lines++;
+        }
+        flush(buffer);
+        written += lines;
+        return lines;
+    }
+
+    private void flush(ByteBuffer buffer) {
+        buffer.flip();
+        write(buffer);
+        buffer.clear();
+    }
+
+    private void write(ByteBuffer buffer) {
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            reportError(e);
+        }
+    }
+
+    private void force() {
+        try {
+            channel.force(false);
+            fsyncs++;
+        } catch (IOException e) {
+            reportError(e);
+        }
+    }
+
+    private void reportError(IOException e) {
+        if (errors++ == 0) {
+            System.err.println("Erro ao escrever no log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Grava as linhas pendentes, força para o disco e fecha o arquivo
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            channel.close();
+        }
+        // Linhas enfileiradas junto com o close() não chegam ao arquivo
+        while (queue.poll() != null) {
+            dropped.increment();
+        }
+    }
+
+    // Métricas
+    public Path getFile() {
+        return file;
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getBackpressureWaits() {
+        return backpressureWaits.sum();
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public long getFsyncs() {
+        return fsyncs;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public int getPending() {
+        return queue.size();
+    }
+
+    /**
+     * Quando forçar os dados gravados para o disco
+     */
+    public enum FsyncPolicy {
+        NEVER,       // o sistema operacional decide
+        EVERY_BATCH, // cada lote gravado é durável antes do próximo
+        INTERVAL     // no máximo fsyncIntervalMillis de eventos perdidos numa queda
+    }
+
+    /**
+     * O que fazer quando a fila está cheia
+     */
+    public enum OverflowPolicy {
+        BLOCK, // quem registra espera a thread de fundo liberar espaço
+        DROP   // a linha é descartada e contada em getDropped()
+    }
+
+    /**
+     * Fila circular limitada com vários produtores e um consumidor
+     * Cada posição tem um número de sequência: o produtor reserva a posição
+     * com CAS no tail e a publica gravando a sequência; o consumidor só lê
+     * posições já publicadas. Nenhum lado bloqueia.
+     */
+    private static final class RingBuffer {
+        private final String[] items;
+        private final AtomicLongArray sequences;
+        private final int mask;
+        private final AtomicLong tail = new AtomicLong();
+        private volatile long head; // escrito só pelo consumidor
+
+        RingBuffer(int capacity) {
+            this.items = new String[capacity];
+            this.sequences = new AtomicLongArray(capacity);
+            this.mask = capacity - 1;
+            for (int i = 0; i < capacity; i++) {
+                sequences.set(i, i);
+            }
+        }
+
+        boolean offer(String item) {
+            long position = tail.get();
+            while (true) {
+                int index = (int) (position & mask);
+                long diff = sequences.get(index) - position;
+                if (diff == 0) {
+                    if (tail.compareAndSet(position, position + 1)) {
+                        items[index] = item;
+                        sequences.set(index, position + 1); // publica
+                        return true;
+                    }
+                    position = tail.get();
+                } else if (diff < 0) {
+                    return false; // cheia
+                } else {
+                    position = tail.get();
+                }
+            }
+        }
+
+        String poll() {
+            long position = head;
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                return null;
+            }
+            String item = items[index];
+            items[index] = null;
+            sequences.set(index, position + mask + 1); // libera para a próxima volta
+            head = position + 1;
+            return item;
+        }
+
+        boolean isEmpty() {
+            return sequences.get((int) (head & mask)) != head + 1;
+        }
+
+        int size() {
+            return (int) Math.max(0, tail.get() - head);
+        }
+
+        int capacity() {
+            return mask + 1;
+        }
+    }
+}
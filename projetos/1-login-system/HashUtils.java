@@ -0,0 +1,194 @@
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Hash SHA-256 sem alocações desnecessárias
+ * (o mesmo arquivo está em 1-login-system e 3-password-manager, já que cada
+ * projeto compila sozinho com javac *.java)
+ *
+ * - Um MessageDigest por thread, reaproveitado, em vez de um getInstance
+ *   por chamada
+ * - Texto codificado em UTF-8 explícito num buffer da thread, sem o byte[]
+ *   temporário do getBytes() e sem depender do charset da plataforma
+ * - Hexadecimal e Base64 por tabela, também num buffer da thread
+ * - Comparação em tempo constante sobre bytes, não String.equals
+ *
+ * sha256Hex/sha256Base64 só alocam a String do resultado.
+ */
+public final class HashUtils {
+    public static final int SHA256_LENGTH = 32;
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BASE64 =
+        "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes(StandardCharsets.US_ASCII);
+
+    private static final ThreadLocal<Workspace> WORKSPACE = ThreadLocal.withInitial(Workspace::new);
+
+    private HashUtils() {
+    }
+
+    /**
+     * SHA-256 de sal + texto em UTF-8
+     * @param salt bytes antes do texto, ou null
+     */
+    public static byte[] sha256(byte[] salt, String text) {
+        Workspace workspace = WORKSPACE.get();
+        digest(workspace, salt, text);
+        return Arrays.copyOf(workspace.digest, SHA256_LENGTH);
+    }
+
+    /**
+     * SHA-256 do texto em hexadecimal minúsculo
+     */
+    public static String sha256Hex(String text) {
+        Workspace workspace = WORKSPACE.get();
+        digest(workspace, null, text);
+        return hex(workspace, workspace.digest, SHA256_LENGTH);
+    }
+
+    /**
+     * SHA-256 do texto em Base64
+     */
+    public static String sha256Base64(String text) {
+        Workspace workspace = WORKSPACE.get();
+        digest(workspace, null, text);
+        return base64(workspace, workspace.digest, SHA256_LENGTH);
+    }
+
+    /**
+     * Igualdade em tempo constante: o tempo não revela quantos bytes batem
+     * (só o tamanho, que não é segredo)
+     */
+    public static boolean constantTimeEquals(byte[] a, byte[] b) {
+        if (a.length != b.length) {
+            return false;
+        }
+        int diff = 0;
+        for (int i = 0; i < a.length; i++) {
+            diff |= a[i] ^ b[i];
+        }
+        return diff == 0;
+    }
+
+    public static String toHex(byte[] bytes) {
+        return hex(WORKSPACE.get(), bytes, bytes.length);
+    }
+
+    /**
+     * Calcula o SHA-256 em workspace.digest e apaga o texto do buffer
+     */
+    private static void digest(Workspace workspace, byte[] salt, String text) {
+        int length = encodeUtf8(workspace, text);
+        MessageDigest sha256 = workspace.sha256;
+        if (salt != null) {
+            sha256.update(salt);
+        }
+        sha256.update(workspace.input, 0, length);
+        try {
+            sha256.digest(workspace.digest, 0, SHA256_LENGTH);
+        } catch (DigestException e) {
+            throw new IllegalStateException("Erro ao fazer hash", e);
+        } finally {
+            Arrays.fill(workspace.input, 0, length, (byte) 0); // a senha não fica no buffer
+        }
+    }
+
+    /**
+     * UTF-8 (pares substitutos viram 4 bytes, substitutos soltos viram '?',
+     * como no getBytes) direto em workspace.input
+     * @return bytes escritos
+     */
+    private static int encodeUtf8(Workspace workspace, String text) {
+        int length = text.length();
+        byte[] out = workspace.input(length * 3);
+        int n = 0;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                out[n++] = (byte) c;
+            } else if (c < 0x800) {
+                out[n++] = (byte) (0xC0 | c >> 6);
+                out[n++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                out[n++] = (byte) (0xF0 | codePoint >> 18);
+                out[n++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                out[n++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                out[n++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                out[n++] = '?';
+            } else {
+                out[n++] = (byte) (0xE0 | c >> 12);
+                out[n++] = (byte) (0x80 | c >> 6 & 0x3F);
+                out[n++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        return n;
+    }
+
+    private static String hex(Workspace workspace, byte[] bytes, int length) {
+        byte[] out = workspace.text(length * 2);
+        for (int i = 0; i < length; i++) {
+            out[2 * i] = HEX[(bytes[i] >> 4) & 0xF];
+            out[2 * i + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(out, 0, length * 2, StandardCharsets.ISO_8859_1);
+    }
+
+    private static String base64(Workspace workspace, byte[] bytes, int length) {
+        byte[] out = workspace.text((length + 2) / 3 * 4);
+        int n = 0;
+        int i = 0;
+        for (; i + 2 < length; i += 3) {
+            int bits = (bytes[i] & 0xFF) << 16 | (bytes[i + 1] & 0xFF) << 8 | bytes[i + 2] & 0xFF;
+            out[n++] = BASE64[bits >>> 18];
+            out[n++] = BASE64[bits >>> 12 & 0x3F];
+            out[n++] = BASE64[bits >>> 6 & 0x3F];
+            out[n++] = BASE64[bits & 0x3F];
+        }
+        if (i < length) {
+            int bits = (bytes[i] & 0xFF) << 16 | (i + 1 < length ? (bytes[i + 1] & 0xFF) << 8 : 0);
+            out[n++] = BASE64[bits >>> 18];
+            out[n++] = BASE64[bits >>> 12 & 0x3F];
+            out[n++] = i + 1 < length ? BASE64[bits >>> 6 & 0x3F] : (byte) '=';
+            out[n++] = '=';
+        }
+        return new String(out, 0, n, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Estado reaproveitado por thread
+     */
+    private static final class Workspace {
+        private final MessageDigest sha256;
+        private final byte[] digest = new byte[SHA256_LENGTH];
+        private byte[] input = new byte[128];
+        private byte[] text = new byte[128];
+
+        Workspace() {
+            try {
+                sha256 = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("JDK sem SHA-256", e);
+            }
+        }
+
+        byte[] input(int size) {
+            if (input.length < size) {
+                input = new byte[Math.max(size, input.length * 2)];
+            }
+            return input;
+        }
+
+        byte[] text(int size) {
+            if (text.length < size) {
+                text = new byte[Math.max(size, text.length * 2)];
+            }
+            return text;
+        }
+    }
+}
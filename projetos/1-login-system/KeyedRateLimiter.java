@@ -0,0 +1,127 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token buckets por chave (IP, usuário) numa tabela de tamanho fixo
+ *
+ * Cada balde é um único long: 22 bits de impressão digital da chave e
+ * 42 bits de TAT em milissegundos (GCRA, ver TokenBucket). A chave cai num
+ * par de posições vizinhas da tabela (associatividade 2); se não estiver
+ * em nenhuma das duas, ocupa a que está mais recarregada (menor TAT).
+ * Um balde que já recarregou por completo some sem perda nenhuma, e só
+ * baldes ainda ativos contam em getEvictions().
+ *
+ * - Memória fixa, qualquer que seja o número de IPs/usuários (spray,
+ *   botnets): capacity longs
+ * - Sem locks: cada pedido é um CAS na posição do balde
+ * - Pedido recusado: um hash e duas leituras, sem escrita
+ *
+ * Como o TAT é guardado em milissegundos, a taxa por chave vai até 1000/s.
+ * Chaves diferentes com a mesma posição e impressão digital dividem o
+ * balde (ficam mais restritas, nunca menos).
+ */
+public class KeyedRateLimiter {
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private static final int TAT_BITS = 42;
+    private static final long TAT_MASK = (1L << TAT_BITS) - 1;
+    private static final long FINGERPRINT_MASK = (1L << (64 - TAT_BITS)) - 1;
+
+    private final AtomicLongArray table;
+    private final int mask;
+    private final long intervalMillis;
+    private final long toleranceMillis;
+    private final long origin;
+    private final LongAdder evictions;
+
+    public KeyedRateLimiter(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param permitsPerSecond taxa sustentada por chave (até 1000/s)
+     * @param burst pedidos aceitos de uma vez com o balde cheio
+     * @param capacity baldes na tabela (arredondado para potência de 2)
+     */
+    public KeyedRateLimiter(double permitsPerSecond, int burst, int capacity) {
+        if (permitsPerSecond <= 0 || burst < 1 || capacity < 2) {
+            throw new IllegalArgumentException("Taxa, rajada e capacidade devem ser positivas");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.table = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.intervalMillis = Math.max(1, Math.round(1000 / permitsPerSecond));
+        this.toleranceMillis = intervalMillis * (burst - 1);
+        this.origin = System.nanoTime();
+        this.evictions = new LongAdder();
+    }
+
+    public boolean tryAcquire(String key) {
+        long hash = hash(key);
+        int first = (int) (hash >>> 40) & mask & ~1;
+        long fingerprint = (hash & FINGERPRINT_MASK) | 1; // nunca zero (posição vazia)
+        long now = (System.nanoTime() - origin) / 1_000_000 + 1;
+
+        while (true) {
+            long a = table.get(first);
+            long b = table.get(first + 1);
+            int index;
+            long slot;
+            if (a >>> TAT_BITS == fingerprint) {
+                index = first;
+                slot = a;
+            } else if (b >>> TAT_BITS == fingerprint) {
+                index = first + 1;
+                slot = b;
+            } else if ((a & TAT_MASK) <= (b & TAT_MASK)) {
+                index = first;
+                slot = a;
+            } else {
+                index = first + 1;
+                slot = b;
+            }
+
+            boolean resident = slot >>> TAT_BITS == fingerprint;
+            long tat = resident ? Math.max(slot & TAT_MASK, now) : now;
+            if (tat - now > toleranceMillis) {
+                return false;
+            }
+            if (table.compareAndSet(index, slot, (fingerprint << TAT_BITS) | (tat + intervalMillis))) {
+                if (!resident && (slot & TAT_MASK) > now) {
+                    evictions.increment();
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Hash de 64 bits da chave (FNV-1a sobre os chars + mistura final)
+     */
+    private static long hash(String key) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * Baldes ainda ativos descartados para dar lugar a outra chave
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    public long getMemoryBytes() {
+        return (mask + 1) * 8L;
+    }
+}
@@ -0,0 +1,241 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Gerador de carga em malha fechada para o LoginServer
+ *
+ * Cada cliente manda um login, espera a resposta e já manda o próximo
+ * (malha fechada): a vazão medida é a que o servidor aguenta com esse
+ * número de clientes. Antes da medição os usuários são cadastrados e há
+ * WARMUP_SECONDS de aquecimento descartado. UNKNOWN_SHARE dos logins usa
+ * um nome inexistente (spray de enumeração).
+ *
+ * As latências de cada cliente ficam num array próprio (sem disputa) e
+ * são ordenadas no fim para p50/p99/p999. Como numa malha fechada o
+ * cliente não manda nada enquanto espera, uma pausa longa do servidor
+ * aparece como uma única requisição lenta (coordinated omission): os
+ * percentis altos são um limite inferior.
+ *
+ * Sem URL, sobe um LoginServer local na mesma JVM (porta livre, PBKDF2 com
+ * LOCAL_ITERATIONS, sem limites de taxa e sem gravar usuários).
+ *
+ * Como executar:
+ * javac *.java
+ * java LoadGenerator [url|local] [clientes] [segundos] [usuários]
+ * (contra outro processo: java LoginServer 8080 1000 --sem-limites)
+ */
+public class LoadGenerator {
+    private static final int WARMUP_SECONDS = 2;
+    private static final double UNKNOWN_SHARE = 0.1;
+    private static final int LOCAL_ITERATIONS = 1000;
+    private static final String PASSWORD = "senha-de-carga-123";
+
+    public static void main(String[] args) throws Exception {
+        String target = args.length > 0 ? args[0] : "local";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int users = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+
+        LoginManager localManager = null;
+        LoginServer localServer = null;
+        Path localLog = null;
+        if (target.equals("local")) {
+            localLog = Files.createTempFile("load-generator", ".log");
+            localManager = new LoginManager(new AuditLog(localLog), false);
+            localManager.setPasswordHasher(new Pbkdf2Hasher(LOCAL_ITERATIONS));
+            localManager.enableVerificationCache();
+            localServer = new LoginServer(localManager, 0);
+            localServer.start();
+            target = "http://localhost:" + localServer.getPort();
+        }
+
+        ExecutorService executor = LoginServer.newPerTaskExecutor();
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(executor)
+            .build();
+        try {
+            URI base = URI.create(target);
+            System.out.printf("🚀 %s: %d clientes, %d usuários, %d s (+%d s de aquecimento), %s\n",
+                target, clients, users, seconds, WARMUP_SECONDS,
+                LoginServer.hasVirtualThreads() ? "threads virtuais" : "pool de threads");
+            registerUsers(client, base, users, clients);
+
+            long warmupEnd = System.nanoTime() + WARMUP_SECONDS * 1_000_000_000L;
+            long end = warmupEnd + seconds * 1_000_000_000L;
+            List<Future<Worker>> futures = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                Worker worker = new Worker(client, base, users, warmupEnd, end);
+                futures.add(executor.submit(() -> {
+                    worker.run();
+                    return worker;
+                }));
+            }
+            List<Worker> workers = new ArrayList<>();
+            for (Future<Worker> future : futures) {
+                workers.add(future.get());
+            }
+            report(workers, seconds);
+            System.out.println("📊 " + client.send(HttpRequest.newBuilder(base.resolve("/status")).build(),
+                HttpResponse.BodyHandlers.ofString()).body());
+        } finally {
+            executor.shutdownNow();
+            if (localServer != null) {
+                localServer.close();
+                localManager.close();
+                Files.deleteIfExists(localLog);
+            }
+        }
+    }
+
+    /**
+     * Cadastra os usuários de carga em paralelo (quem já existe responde
+     * 400 e continua valendo, desde que a senha seja a mesma)
+     */
+    private static void registerUsers(HttpClient client, URI base, int users, int clients) throws Exception {
+        long start = System.nanoTime();
+        ExecutorService executor = LoginServer.newPerTaskExecutor();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                int first = c;
+                futures.add(executor.submit(() -> {
+                    for (int u = first; u < users; u += clients) {
+                        post(client, base.resolve("/register"),
+                            "username=carga" + u + "&email=carga" + u + "%40exemplo.com&password=" + PASSWORD);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        System.out.printf("📝 %d usuários cadastrados em %.2f s\n", users, (System.nanoTime() - start) / 1e9);
+    }
+
+    private static int post(HttpClient client, URI uri, String form) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString(form))
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static void report(List<Worker> workers, int seconds) {
+        int total = 0;
+        int errors = 0;
+        int[] statuses = new int[600];
+        for (Worker worker : workers) {
+            total += worker.count;
+            errors += worker.errors;
+            for (int s = 0; s < statuses.length; s++) {
+                statuses[s] += worker.statuses[s];
+            }
+        }
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (Worker worker : workers) {
+            System.arraycopy(worker.latencies, 0, latencies, offset, worker.count);
+            offset += worker.count;
+        }
+        Arrays.sort(latencies);
+
+        System.out.printf("⚡ %d requisições em %d s: %.0f req/s\n", total, seconds, (double) total / seconds);
+        if (total > 0) {
+            System.out.printf("⏱️  p50 %.2f ms, p99 %.2f ms, p999 %.2f ms, máx %.2f ms\n",
+                percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999),
+                latencies[total - 1] / 1e6);
+        }
+        StringBuilder codes = new StringBuilder("📬 Respostas:");
+        for (int s = 0; s < statuses.length; s++) {
+            if (statuses[s] > 0) {
+                codes.append(' ').append(s).append('=').append(statuses[s]);
+            }
+        }
+        if (errors > 0) {
+            codes.append(" erros de conexão=").append(errors);
+        }
+        System.out.println(codes);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+
+    /**
+     * Um cliente da malha fechada: só grava o que termina depois do aquecimento
+     */
+    private static final class Worker {
+        private final HttpClient client;
+        private final URI login;
+        private final int users;
+        private final long warmupEnd;
+        private final long end;
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+        private final int[] statuses = new int[600];
+
+        Worker(HttpClient client, URI base, int users, long warmupEnd, long end) {
+            this.client = client;
+            this.login = base.resolve("/login");
+            this.users = users;
+            this.warmupEnd = warmupEnd;
+            this.end = end;
+        }
+
+        void run() throws InterruptedException {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long now = System.nanoTime();
+            while (now < end) {
+                String username = random.nextDouble() < UNKNOWN_SHARE
+                    ? "fantasma" + random.nextInt(Integer.MAX_VALUE)
+                    : "carga" + random.nextInt(users);
+                String form = "username=" + URLEncoder.encode(username, StandardCharsets.UTF_8)
+                    + "&password=" + PASSWORD;
+                int status;
+                try {
+                    status = post(client, login, form);
+                } catch (IOException e) {
+                    status = -1;
+                }
+                long done = System.nanoTime();
+                if (now >= warmupEnd && done <= end) {
+                    if (status < 0) {
+                        errors++;
+                    } else {
+                        record(done - now);
+                        statuses[status]++;
+                    }
+                }
+                now = done;
+            }
+        }
+
+        private void record(long latency) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+        }
+    }
+}
@@ -1,7 +1,21 @@
-import java.io.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Gerenciador de login com controle de tentativas e brute force
@@ -10,22 +24,208 @@ import java.util.*;
  * - Bloqueio temporário de 2 minutos
  * - Registro de logs
  * - Armazenamento de usuários
+ *
+ * Seguro para uso concorrente (ex.: atrás de um servidor): os usuários
+ * ficam num ConcurrentHashMap e as tentativas/bloqueios são divididos em
+ * STRIPES partições pelo hash do nome, cada uma com seu próprio lock.
+ * Logins de usuários diferentes quase nunca disputam o mesmo lock, e o
+ * hash da senha é calculado fora dele.
+ *
+ * O log vai para um AuditLog assíncrono: registrar um evento só enfileira
+ * a linha, e close() grava o que faltar.
+ *
+ * Bloqueios e contadores de falha expiram por conta própria: em cada
+ * partição os mapas ficam em ordem de inserção, que é a ordem de expiração
+ * (o prazo é fixo: LOCKOUT_TIME para bloqueios, FAILURE_TTL sem falha nova
+ * para contadores). Uma thread de varredura tira do início de cada mapa
+ * só o que venceu, e um limite por partição descarta o registro mais antigo
+ * quando um ataque espalha nomes de usuário aleatórios.
+ *
+ * Limites de taxa (setRateLimits, desligados por padrão): token buckets
+ * sem locks por IP, por usuário e global, conferidos antes de qualquer
+ * outro trabalho. Um pedido recusado não calcula hash, não toca nas
+ * partições e não gera linha de log, só incrementa um contador.
+ *
+ * Hash de senha: um PasswordHasher plugável (PBKDF2 por padrão), lento de
+ * propósito. Os hashes rodam num pool próprio de tamanho fixo com fila
+ * limitada, então no máximo verifierThreads núcleos ficam ocupados com eles;
+ * com a fila cheia o login é recusado na hora (SOBRECARGA) em vez de
+ * acumular. Subir o custo (setPasswordHasher) vale para senhas antigas no
+ * próximo login bem-sucedido de cada usuário.
+ *
+ * Usuário inexistente segue o mesmo caminho de uma senha errada: hash de
+ * fachada no pool (mesmo tempo de resposta), contador de falhas, bloqueio
+ * e linha de log. Pela resposta não dá para saber quais nomes existem.
+ *
+ * Atalho (desligado por padrão): um VerificationCache
+ * (enableVerificationCache) evita repetir o hash de uma senha que acabou de
+ * ser conferida. Não há atalho para nomes inexistentes: qualquer trabalho
+ * poupado neles apareceria no tempo de resposta.
+ *
+ * Persistência (setUserStore, opcional): cadastros e rehashes são gravados
+ * num UserStore antes de o método retornar, e os usuários gravados são
+ * carregados de volta ao abrir.
  */
-public class LoginManager {
+public class LoginManager implements AutoCloseable {
     private static final int MAX_ATTEMPTS = 3;
     private static final long LOCKOUT_TIME = 2 * 60 * 1000; // 2 minutos em ms
+    private static final long FAILURE_TTL = 15 * 60 * 1000; // contador esquecido após 15 min sem falha
+    private static final int MAX_TRACKED_USERS = 1 << 20; // por mapa, somando as partições
+    private static final long SWEEP_INTERVAL = 1000;
+    private static final int VERIFIER_QUEUE = 1024;
+    private static final int MAX_USERNAME_LENGTH = 256;
+    private static final int MAX_EMAIL_LENGTH = 320;
+
+    // Limites de taxa padrão (enableRateLimits)
+    public static final double DEFAULT_IP_RATE = 20;
+    public static final int DEFAULT_IP_BURST = 40;
+    public static final double DEFAULT_USER_RATE = 10;
+    public static final int DEFAULT_USER_BURST = 20;
+    public static final double DEFAULT_GLOBAL_RATE = 50_000;
+    public static final int DEFAULT_GLOBAL_BURST = 5_000;
     private static final String LOG_FILE = "login_logs.txt";
+    private static final int STRIPES = 64; // potência de 2
+
+    // Resultado de recordAttempt além do número de tentativas
+    private static final int ATTEMPT_OK = 0;
+    private static final int ATTEMPT_BLOCKED = -1;
+
+    private final Map<String, User> users;
+    private final Set<String> registering; // nomes com cadastro em andamento
+    private final Stripe[] stripes;
+    private final DateTimeFormatter dateFormatter;
+    private final AuditLog auditLog;
+    private final boolean consoleEcho;
+    private final long lockoutMillis;
+    private final long failureTtlMillis;
+    private final int maxTrackedPerStripe;
+    private final ScheduledExecutorService sweeper;
+    private final ThreadPoolExecutor verifier;
+    private volatile PasswordHasher passwordHasher;
+    private volatile UserStore userStore;
+
+    private volatile KeyedRateLimiter ipLimiter;
+    private volatile KeyedRateLimiter userLimiter;
+    private volatile TokenBucket globalLimiter;
 
-    private Map<String, User> users;
-    private Map<String, Integer> failedAttempts;
-    private Map<String, Long> lockoutTimes;
-    private DateTimeFormatter dateFormatter;
+    private volatile VerificationCache verificationCache;
+    private volatile User decoyUser; // hash de fachada para nomes inexistentes
+
+    // Contadores globais (LongAdder não disputa a mesma linha de cache)
+    private final LongAdder failedLogins;
+    private final LongAdder blockedLogins;
+    private final LongAdder lockouts;
+    private final LongAdder limitedByIp;
+    private final LongAdder limitedByUser;
+    private final LongAdder limitedGlobal;
+    private final LongAdder unknownUsers;
+
+    // Métricas de expiração
+    private final LongAdder expiredLockouts;
+    private final LongAdder expiredFailureCounters;
+    private final LongAdder evictedEntries;
+    private final LongAdder sweeps;
+
+    // Métricas do pool de verificação
+    private final LongAdder verifications;
+    private final LongAdder rejectedVerifications;
+    private final LongAdder rehashes;
+    private final LongAccumulator peakQueueDepth;
 
     public LoginManager() {
-        this.users = new HashMap<>();
-        this.failedAttempts = new HashMap<>();
-        this.lockoutTimes = new HashMap<>();
+        this(LOG_FILE);
+    }
+
+    /**
+     * @param logFile arquivo de log (o padrão é login_logs.txt no diretório atual)
+     */
+    public LoginManager(String logFile) {
+        this(openAuditLog(logFile), true);
+    }
+
+    /**
+     * @param auditLog log de auditoria (fechado junto com o LoginManager)
+     * @param consoleEcho repete cada linha do log e as mensagens de login no console (modo interativo)
+     */
+    public LoginManager(AuditLog auditLog, boolean consoleEcho) {
+        this(auditLog, consoleEcho, LOCKOUT_TIME, FAILURE_TTL, MAX_TRACKED_USERS);
+    }
+
+    /**
+     * @param lockoutMillis duração do bloqueio
+     * @param failureTtlMillis tempo sem falha nova após o qual o contador é esquecido
+     * @param maxTrackedUsers limite de contadores (e de bloqueios) guardados
+     */
+    public LoginManager(AuditLog auditLog, boolean consoleEcho, long lockoutMillis,
+                        long failureTtlMillis, int maxTrackedUsers) {
+        this(auditLog, consoleEcho, lockoutMillis, failureTtlMillis, maxTrackedUsers,
+            Runtime.getRuntime().availableProcessors(), VERIFIER_QUEUE);
+    }
+
+    /**
+     * @param verifierThreads threads que calculam hashes de senha
+     * @param verifierQueue verificações que podem esperar por uma thread
+     */
+    public LoginManager(AuditLog auditLog, boolean consoleEcho, long lockoutMillis,
+                        long failureTtlMillis, int maxTrackedUsers, int verifierThreads, int verifierQueue) {
+        if (lockoutMillis <= 0 || failureTtlMillis <= 0 || maxTrackedUsers <= 0) {
+            throw new IllegalArgumentException("Prazos e limite devem ser positivos");
+        }
+        if (verifierThreads <= 0 || verifierQueue <= 0) {
+            throw new IllegalArgumentException("Pool de verificação deve ter threads e fila");
+        }
+        this.users = new ConcurrentHashMap<>();
+        this.registering = ConcurrentHashMap.newKeySet();
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
         this.dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        this.auditLog = auditLog;
+        this.consoleEcho = consoleEcho;
+        this.lockoutMillis = lockoutMillis;
+        this.failureTtlMillis = failureTtlMillis;
+        this.maxTrackedPerStripe = Math.max(1, (maxTrackedUsers + STRIPES - 1) / STRIPES);
+        this.failedLogins = new LongAdder();
+        this.blockedLogins = new LongAdder();
+        this.lockouts = new LongAdder();
+        this.limitedByIp = new LongAdder();
+        this.limitedByUser = new LongAdder();
+        this.limitedGlobal = new LongAdder();
+        this.unknownUsers = new LongAdder();
+        this.expiredLockouts = new LongAdder();
+        this.expiredFailureCounters = new LongAdder();
+        this.evictedEntries = new LongAdder();
+        this.sweeps = new LongAdder();
+
+        long interval = Math.max(10, Math.min(SWEEP_INTERVAL, Math.min(lockoutMillis, failureTtlMillis) / 4));
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "lockout-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sweeper.scheduleAtFixedRate(this::sweep, interval, interval, TimeUnit.MILLISECONDS);
+
+        this.passwordHasher = new Pbkdf2Hasher();
+        this.verifications = new LongAdder();
+        this.rejectedVerifications = new LongAdder();
+        this.rehashes = new LongAdder();
+        this.peakQueueDepth = new LongAccumulator(Math::max, 0);
+        AtomicInteger verifierCount = new AtomicInteger();
+        this.verifier = new ThreadPoolExecutor(verifierThreads, verifierThreads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(verifierQueue), task -> {
+                Thread thread = new Thread(task, "password-verifier-" + verifierCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    private static AuditLog openAuditLog(String logFile) {
+        try {
+            return new AuditLog(Paths.get(logFile));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao abrir o log " + logFile, e);
+        }
     }
 
     /**
@@ -41,6 +241,11 @@ public class LoginManager {
             log("ERRO", "Tentativa de cadastro com usuário vazio");
             return false;
         }
+        if (username.length() > MAX_USERNAME_LENGTH
+                || (email != null && email.length() > MAX_EMAIL_LENGTH)) {
+            log("ERRO", "Tentativa de cadastro com usuário ou email longo demais");
+            return false;
+        }
         if (users.containsKey(username)) {
             log("ERRO", "Tentativa de cadastro com usuário duplicado: " + username);
             return false;
@@ -50,8 +255,38 @@ public class LoginManager {
             return false;
         }
 
-        User newUser = new User(username, email, password);
-        users.put(username, newUser);
+        // O hash roda no pool de verificação, como nos logins
+        User newUser;
+        try {
+            PasswordHasher hasher = passwordHasher;
+            newUser = CompletableFuture.supplyAsync(() -> new User(username, email, password, hasher), verifier)
+                .join();
+        } catch (RejectedExecutionException e) {
+            rejectedVerifications.increment();
+            log("ERRO", "Cadastro recusado por sobrecarga: " + username);
+            return false;
+        }
+
+        // O nome fica reservado durante a gravação: de dois cadastros
+        // simultâneos só um chega ao disco. Quem reserva depois de o
+        // vencedor liberar já o encontra no mapa.
+        if (!registering.add(username)) {
+            log("ERRO", "Tentativa de cadastro com usuário duplicado: " + username);
+            return false;
+        }
+        try {
+            if (users.containsKey(username)) {
+                log("ERRO", "Tentativa de cadastro com usuário duplicado: " + username);
+                return false;
+            }
+            // Gravado e só então publicado, sob o lock do store (ver UserStore)
+            if (!persist(newUser, () -> users.put(username, newUser))) {
+                log("ERRO", "Falha ao gravar cadastro: " + username);
+                return false;
+            }
+        } finally {
+            registering.remove(username);
+        }
         log("SUCESSO", "Novo usuário cadastrado: " + username);
         return true;
     }
@@ -63,90 +298,467 @@ public class LoginManager {
      * @return true se login bem-sucedido
      */
     public boolean login(String username, String password) {
-        // Verificar se está bloqueado
-        if (isLockedOut(username)) {
-            log("BLOQUEADO", "Tentativa de acesso a usuário bloqueado: " + username);
-            System.out.println("⛔ Usuário bloqueado. Tente novamente em 2 minutos.");
-            return false;
+        return authenticate(username, password, null) == Result.SUCESSO;
+    }
+
+    /**
+     * Tenta fazer login a partir de um IP (sujeito ao limite por IP)
+     */
+    public boolean login(String username, String password, String ip) {
+        return authenticate(username, password, ip) == Result.SUCESSO;
+    }
+
+    /**
+     * Tenta fazer login e diz por que falhou
+     * @param ip IP do cliente, ou null fora de um servidor (sem limite por IP)
+     */
+    public Result authenticate(String username, String password, String ip) {
+        return authenticateAsync(username, password, ip).join();
+    }
+
+    /**
+     * Tenta fazer login sem prender a thread que chama durante o hash
+     * Limites e bloqueio respondem na hora; a verificação da senha (ou o
+     * hash de fachada de um nome inexistente) e o resto do login rodam no
+     * pool de verificação.
+     */
+    public CompletableFuture<Result> authenticateAsync(String username, String password, String ip) {
+        // Limites de taxa primeiro: recusar custa quase nada
+        if (!acquirePermits(username, ip)) {
+            echo("⏳ Muitas tentativas em pouco tempo. Aguarde um instante.");
+            return CompletableFuture.completedFuture(Result.LIMITADO);
         }
 
-        // Verificar se usuário existe
-        if (!users.containsKey(username)) {
-            incrementFailedAttempts(username);
-            log("FALHA", "Tentativa de login com usuário inexistente: " + username);
-            return false;
+        // Verificar se está bloqueado (antes do hash, que é o passo caro);
+        // vale também para nomes inexistentes
+        if (isLockedOut(username)) {
+            reportBlocked(username, ip);
+            return CompletableFuture.completedFuture(Result.BLOQUEADO);
         }
 
         User user = users.get(username);
+        if (user == null) {
+            unknownUsers.increment();
+        }
+        // Senha conferida há pouco: responde aqui mesmo, sem hash e sem fila
+        VerificationCache cache = verificationCache;
+        if (user != null && cache != null && cache.matches(user, password)) {
+            return CompletableFuture.completedFuture(finishLogin(username, user, true, password, ip));
+        }
+        try {
+            CompletableFuture<Result> result = CompletableFuture.supplyAsync(() -> finishLogin(username, user,
+                user != null ? verifyPassword(user, password, cache) : verifyDecoy(password), password, ip), verifier);
+            peakQueueDepth.accumulate(verifier.getQueue().size());
+            return result;
+        } catch (RejectedExecutionException e) {
+            rejectedVerifications.increment();
+            echo("⏳ Sistema ocupado. Tente novamente em instantes.");
+            return CompletableFuture.completedFuture(Result.SOBRECARGA);
+        }
+    }
 
-        // Verificar senha
-        if (user.verifyPassword(password)) {
-            // Reset de tentativas
-            failedAttempts.remove(username);
-            log("SUCESSO", "Login bem-sucedido: " + username);
-            System.out.println("✅ Login realizado com sucesso!");
-            return true;
-        } else {
-            incrementFailedAttempts(username);
-            log("FALHA", "Senha incorreta para: " + username);
-            return false;
+    /**
+     * Hash completo da senha (fora do lock); um acerto vai para o cache
+     */
+    private boolean verifyPassword(User user, String password, VerificationCache cache) {
+        boolean valid = user.verifyPassword(password);
+        verifications.increment();
+        if (valid && cache != null) {
+            cache.remember(user, password);
         }
+        return valid;
     }
 
     /**
-     * Incrementa contador de tentativas falhadas
-     * Se atingir limite, bloqueia o usuário
+     * Hash de fachada para nome inexistente: mesmo algoritmo e custo de um
+     * usuário de verdade, então a resposta leva o mesmo tempo
+     * @return sempre false
      */
-    private void incrementFailedAttempts(String username) {
-        int attempts = failedAttempts.getOrDefault(username, 0) + 1;
-        failedAttempts.put(username, attempts);
+    private boolean verifyDecoy(String password) {
+        PasswordHasher current = passwordHasher;
+        User decoy = decoyUser;
+        if (decoy == null || !decoy.getHashAlgorithm().equals(current.getAlgorithm())
+                || decoy.getHashCost() != current.getCost()) {
+            byte[] secret = new byte[16];
+            new SecureRandom().nextBytes(secret);
+            decoy = new User("decoy", null, HashUtils.toHex(secret), current);
+            decoyUser = decoy;
+        }
+        decoy.verifyPassword(password);
+        verifications.increment();
+        return false;
+    }
 
-        System.out.println("❌ Falha no login. Tentativas: " + attempts + "/" + MAX_ATTEMPTS);
+    /**
+     * Registra o resultado da verificação
+     */
+    private Result finishLogin(String username, User user, boolean valid, String password, String ip) {
+        // Registrar o resultado; o bloqueio é conferido de novo, pois outra
+        // thread pode ter bloqueado o usuário durante a verificação
+        int attempts = recordAttempt(username, valid);
+        if (attempts == ATTEMPT_BLOCKED) {
+            reportBlocked(username, ip);
+            return Result.BLOQUEADO;
+        }
+        if (attempts == ATTEMPT_OK) {
+            log("SUCESSO", "Login bem-sucedido: " + username + origin(ip));
+            echo("✅ Login realizado com sucesso!");
+            upgradeHash(user, password);
+            return Result.SUCESSO;
+        }
 
-        if (attempts >= MAX_ATTEMPTS) {
-            lockoutTimes.put(username, System.currentTimeMillis());
+        failedLogins.increment();
+        echo("❌ Falha no login. Tentativas: " + attempts + "/" + MAX_ATTEMPTS);
+        if (user == null) {
+            log("FALHA", "Tentativa de login com usuário inexistente: " + username + origin(ip));
+        } else {
+            log("FALHA", "Senha incorreta para: " + username + origin(ip));
+        }
+        if (attempts == MAX_ATTEMPTS) {
+            lockouts.increment();
             log("BLOQUEIO", "Usuário bloqueado por excesso de tentativas: " + username);
-            System.out.println("⛔ Muitas tentativas. Acesso bloqueado por 2 minutos!");
+            echo("⛔ Muitas tentativas. Acesso bloqueado por 2 minutos!");
         }
+        return Result.FALHA;
+    }
+
+    private void reportBlocked(String username, String ip) {
+        blockedLogins.increment();
+        log("BLOQUEADO", "Tentativa de acesso a usuário bloqueado: " + username + origin(ip));
+        echo("⛔ Usuário bloqueado. Tente novamente em 2 minutos.");
     }
 
     /**
-     * Verifica se um usuário está bloqueado
+     * Refaz o hash de quem ainda está com algoritmo ou custo antigo
+     * (só aqui a senha em texto plano está disponível)
+     */
+    private void upgradeHash(User user, String password) {
+        PasswordHasher current = passwordHasher;
+        if (user.needsRehash(current) && user.rehash(password, current)) {
+            rehashes.increment();
+            log("REHASH", "Hash de senha atualizado para " + current.getAlgorithm()
+                + " (custo " + current.getCost() + "): " + user.getUsername());
+            if (!persist(user, null)) {
+                // O hash antigo continua gravado e válido para a mesma senha
+                log("ERRO", "Falha ao gravar rehash: " + user.getUsername());
+            }
+        }
+    }
+
+    /**
+     * Grava o usuário no UserStore, se houver, e executa publish se deu certo
+     * @param publish ação rápida a executar depois de gravado, ou null
+     * @return false se a gravação falhou
      */
-    private boolean isLockedOut(String username) {
-        if (!lockoutTimes.containsKey(username)) {
+    private boolean persist(User user, Runnable publish) {
+        UserStore store = userStore;
+        if (store == null) {
+            if (publish != null) {
+                publish.run();
+            }
+            return true;
+        }
+        try {
+            store.append(user, publish);
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Erro ao gravar usuário: " + e.getMessage());
             return false;
         }
+    }
 
-        long lockoutTime = lockoutTimes.get(username);
-        long currentTime = System.currentTimeMillis();
+    /**
+     * Passa a guardar os usuários no store: carrega os já gravados e grava
+     * cada cadastro e rehash daqui em diante (chamar antes de cadastrar)
+     * @return usuários carregados
+     */
+    public int setUserStore(UserStore store) throws IOException {
+        int loaded = store.attach(users);
+        this.userStore = store;
+        return loaded;
+    }
+
+    public UserStore getUserStore() {
+        return userStore;
+    }
+
+    /**
+     * Troca o algoritmo (ou o custo) usado em novos cadastros e nos rehashes
+     */
+    public void setPasswordHasher(PasswordHasher hasher) {
+        this.passwordHasher = Objects.requireNonNull(hasher);
+    }
+
+    public PasswordHasher getPasswordHasher() {
+        return passwordHasher;
+    }
 
-        if (currentTime - lockoutTime > LOCKOUT_TIME) {
-            // Desbloqueio após timeout
-            lockoutTimes.remove(username);
-            failedAttempts.remove(username);
+    private static String origin(String ip) {
+        return ip == null ? "" : " (IP " + ip + ")";
+    }
+
+    /**
+     * Consome uma ficha de cada limite ligado: IP (o mais provável de
+     * recusar um ataque), usuário e global
+     */
+    private boolean acquirePermits(String username, String ip) {
+        KeyedRateLimiter perIp = ipLimiter;
+        if (perIp != null && ip != null && !perIp.tryAcquire(ip)) {
+            limitedByIp.increment();
+            return false;
+        }
+        KeyedRateLimiter perUser = userLimiter;
+        if (perUser != null && username != null && !perUser.tryAcquire(username)) {
+            limitedByUser.increment();
+            return false;
+        }
+        TokenBucket global = globalLimiter;
+        if (global != null && !global.tryAcquire()) {
+            limitedGlobal.increment();
             return false;
         }
         return true;
     }
 
+    /**
+     * Liga (ou troca) os limites de taxa; null desliga cada um
+     */
+    public void setRateLimits(KeyedRateLimiter perIp, KeyedRateLimiter perUser, TokenBucket global) {
+        this.ipLimiter = perIp;
+        this.userLimiter = perUser;
+        this.globalLimiter = global;
+    }
+
+    /**
+     * Limites padrão: DEFAULT_IP_RATE por IP, DEFAULT_USER_RATE por usuário
+     * e DEFAULT_GLOBAL_RATE no total
+     */
+    public void enableRateLimits() {
+        setRateLimits(new KeyedRateLimiter(DEFAULT_IP_RATE, DEFAULT_IP_BURST),
+            new KeyedRateLimiter(DEFAULT_USER_RATE, DEFAULT_USER_BURST),
+            new TokenBucket(DEFAULT_GLOBAL_RATE, DEFAULT_GLOBAL_BURST));
+    }
+
+    /**
+     * Liga (ou troca) o cache de verificações; null desliga
+     */
+    public void setVerificationCache(VerificationCache cache) {
+        this.verificationCache = cache;
+    }
+
+    public void enableVerificationCache() {
+        setVerificationCache(new VerificationCache());
+    }
+
+    public VerificationCache getVerificationCache() {
+        return verificationCache;
+    }
+
+    /**
+     * Atualiza tentativas e bloqueio numa única seção crítica da partição
+     * Sucesso zera o contador; falha incrementa e, ao atingir o limite,
+     * bloqueia o usuário (exatamente uma vez por bloqueio).
+     * @return ATTEMPT_OK, ATTEMPT_BLOCKED ou o número de tentativas falhas
+     */
+    private int recordAttempt(String username, boolean success) {
+        Stripe stripe = stripeFor(username);
+        synchronized (stripe) {
+            long now = System.currentTimeMillis();
+            if (stripe.isLockedOut(username, now)) {
+                return ATTEMPT_BLOCKED;
+            }
+            if (success) {
+                stripe.failedAttempts.remove(username);
+                return ATTEMPT_OK;
+            }
+            return stripe.recordFailure(username, now);
+        }
+    }
+
+    /**
+     * Varredura periódica: tira de cada partição os bloqueios e contadores
+     * vencidos (só o início dos mapas é examinado)
+     */
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.sweep(now);
+            }
+        }
+        sweeps.increment();
+    }
+
+    /**
+     * Verifica se um usuário está bloqueado
+     */
+    public boolean isLockedOut(String username) {
+        Stripe stripe = stripeFor(username);
+        synchronized (stripe) {
+            return stripe.isLockedOut(username, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Tentativas falhas acumuladas (zeradas no sucesso, ao fim do bloqueio
+     * e após FAILURE_TTL sem falha nova)
+     */
+    public int getFailedAttempts(String username) {
+        Stripe stripe = stripeFor(username);
+        synchronized (stripe) {
+            long now = System.currentTimeMillis();
+            if (stripe.isLockedOut(username, now)) {
+                return MAX_ATTEMPTS;
+            }
+            Failures failures = stripe.failedAttempts.get(username);
+            return failures == null || now - failures.last > failureTtlMillis ? 0 : failures.count;
+        }
+    }
+
+    private Stripe stripeFor(String username) {
+        int h = username.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    /**
+     * Resultado de uma tentativa de login (mesmos tipos do log)
+     */
+    public enum Result {
+        SUCESSO,
+        FALHA,
+        BLOQUEADO,
+        LIMITADO,
+        SOBRECARGA // fila de verificação cheia
+    }
+
+    /**
+     * Partição das tentativas: os mapas só são acessados com o lock dela
+     * Cada mapa está em ordem de expiração: um contador volta para o fim a
+     * cada falha, e um usuário sai de failedAttempts para lockoutTimes
+     * quando é bloqueado.
+     */
+    private final class Stripe {
+        private final LinkedHashMap<String, Failures> failedAttempts = new LinkedHashMap<>();
+        private final LinkedHashMap<String, Long> lockoutTimes = new LinkedHashMap<>();
+
+        boolean isLockedOut(String username, long now) {
+            Long lockoutTime = lockoutTimes.get(username);
+            if (lockoutTime == null) {
+                return false;
+            }
+            if (now - lockoutTime > lockoutMillis) {
+                // Desbloqueio após timeout (antes da varredura passar)
+                lockoutTimes.remove(username);
+                expiredLockouts.increment();
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * @return tentativas falhas contando esta; ao atingir MAX_ATTEMPTS o
+         *         usuário é bloqueado
+         */
+        int recordFailure(String username, long now) {
+            Failures failures = failedAttempts.remove(username);
+            if (failures != null && now - failures.last > failureTtlMillis) {
+                expiredFailureCounters.increment();
+                failures = null;
+            }
+            if (failures == null) {
+                failures = new Failures();
+            }
+            failures.count++;
+            failures.last = now;
+            if (failures.count >= MAX_ATTEMPTS) {
+                lockoutTimes.put(username, now);
+                evictIfFull(lockoutTimes);
+            } else {
+                failedAttempts.put(username, failures);
+                evictIfFull(failedAttempts);
+            }
+            return failures.count;
+        }
+
+        private void evictIfFull(LinkedHashMap<String, ?> map) {
+            if (map.size() > maxTrackedPerStripe) {
+                Iterator<String> eldest = map.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+                evictedEntries.increment();
+            }
+        }
+
+        void sweep(long now) {
+            Iterator<Long> locks = lockoutTimes.values().iterator();
+            while (locks.hasNext() && now - locks.next() > lockoutMillis) {
+                locks.remove();
+                expiredLockouts.increment();
+            }
+            Iterator<Failures> counters = failedAttempts.values().iterator();
+            while (counters.hasNext() && now - counters.next().last > failureTtlMillis) {
+                counters.remove();
+                expiredFailureCounters.increment();
+            }
+        }
+
+        int size() {
+            return failedAttempts.size() + lockoutTimes.size();
+        }
+    }
+
+    /**
+     * Contador de falhas de um usuário e o horário da última
+     */
+    private static final class Failures {
+        private int count;
+        private long last;
+    }
+
+    /**
+     * Mensagem para quem está no console (só no modo interativo)
+     */
+    private void echo(String message) {
+        if (consoleEcho) {
+            System.out.println(message);
+        }
+    }
+
     /**
      * Registra eventos no log
      */
     private void log(String tipo, String mensagem) {
         String timestamp = LocalDateTime.now().format(dateFormatter);
-        String logEntry = String.format("[%s] %s - %s", timestamp, tipo, mensagem);
+        String logEntry = "[" + timestamp + "] " + tipo + " - " + mensagem;
 
         // Imprimir no console
-        System.out.println(logEntry);
+        if (consoleEcho) {
+            System.out.println(logEntry);
+        }
 
-        // Salvar em arquivo
-        try (FileWriter fw = new FileWriter(LOG_FILE, true);
-             BufferedWriter bw = new BufferedWriter(fw)) {
-            bw.write(logEntry);
-            bw.newLine();
-        } catch (IOException e) {
-            System.err.println("Erro ao escrever no log: " + e.getMessage());
+        // Salvar em arquivo (assíncrono, em lotes)
+        auditLog.append(logEntry);
+    }
+
+    /**
+     * Grava as linhas de log pendentes, fecha o arquivo e o UserStore
+     */
+    @Override
+    public void close() throws IOException {
+        sweeper.shutdownNow();
+        verifier.shutdown();
+        try {
+            verifier.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            UserStore store = userStore;
+            if (store != null) {
+                store.close();
+            }
+        } finally {
+            auditLog.close();
         }
     }
 
@@ -154,8 +766,9 @@ public class LoginManager {
      * Exibe informações da conta
      */
     public void showUserInfo(String username) {
-        if (users.containsKey(username)) {
-            System.out.println("📋 " + users.get(username));
+        User user = users.get(username);
+        if (user != null) {
+            System.out.println("📋 " + user);
         } else {
             System.out.println("Usuário não encontrado");
         }
@@ -167,4 +780,102 @@ public class LoginManager {
     public int getUserCount() {
         return users.size();
     }
+
+    // Contadores desde a criação
+    public long getFailedLoginCount() {
+        return failedLogins.sum();
+    }
+
+    public long getBlockedLoginCount() {
+        return blockedLogins.sum();
+    }
+
+    public long getLockoutCount() {
+        return lockouts.sum();
+    }
+
+    // Pedidos recusados pelos limites de taxa
+    public long getLimitedByIp() {
+        return limitedByIp.sum();
+    }
+
+    public long getLimitedByUser() {
+        return limitedByUser.sum();
+    }
+
+    public long getLimitedGlobal() {
+        return limitedGlobal.sum();
+    }
+
+    /**
+     * Logins com nome inexistente (respondidos com o hash de fachada)
+     */
+    public long getUnknownUsers() {
+        return unknownUsers.sum();
+    }
+
+    // Métricas de expiração
+    public long getExpiredLockouts() {
+        return expiredLockouts.sum();
+    }
+
+    public long getExpiredFailureCounters() {
+        return expiredFailureCounters.sum();
+    }
+
+    /**
+     * Registros descartados pelo limite antes de expirar (ataque de spray)
+     */
+    public long getEvictedEntries() {
+        return evictedEntries.sum();
+    }
+
+    public long getSweeps() {
+        return sweeps.sum();
+    }
+
+    // Pool de verificação de senhas
+    public long getVerifications() {
+        return verifications.sum();
+    }
+
+    /**
+     * Logins e cadastros recusados com a fila de verificação cheia
+     */
+    public long getRejectedVerifications() {
+        return rejectedVerifications.sum();
+    }
+
+    public long getRehashes() {
+        return rehashes.sum();
+    }
+
+    public int getVerificationQueueDepth() {
+        return verifier.getQueue().size();
+    }
+
+    public long getPeakVerificationQueueDepth() {
+        return peakQueueDepth.get();
+    }
+
+    public int getVerifierThreads() {
+        return verifier.getMaximumPoolSize();
+    }
+
+    /**
+     * Contadores de falha e bloqueios guardados no momento
+     */
+    public int getTrackedEntries() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                total += stripe.size();
+            }
+        }
+        return total;
+    }
+
+    public AuditLog getAuditLog() {
+        return auditLog;
+    }
 }
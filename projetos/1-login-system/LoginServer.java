@@ -0,0 +1,287 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Servidor HTTP do sistema de login (com.sun.net.httpserver, sem dependências)
+ *
+ * Rotas:
+ * - POST /register  username, email, password (formulário) → 201 ou 400
+ * - POST /login     username, password (formulário)        → 200, 401, 423, 429 ou 503
+ * - GET  /status    métricas do LoginManager em JSON
+ *
+ * Cada requisição roda numa thread virtual (Java 21+; no Java 17 cai para
+ * um pool de threads comuns). Uma thread virtual parada esperando o hash
+ * no pool de verificação não prende nenhuma thread do sistema, então o
+ * número de conexões simultâneas não é limitado pelo número de threads:
+ * quem limita é a fila de verificação (503 quando cheia).
+ *
+ * Como executar:
+ * javac *.java
+ * java LoginServer [porta] [iterações PBKDF2] [--sem-limites]
+ */
+public class LoginServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 8080;
+
+    private static final String DATA_DIR = "login_data";
+    private static final String LOG_FILE = "login_logs.txt";
+    private static final int MAX_BODY = 4096;
+    private static final String JSON = "application/json; charset=utf-8";
+
+    private final LoginManager loginManager;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final LongAdder requests;
+    private final LongAdder badRequests;
+
+    /**
+     * @param loginManager gerenciador usado pelas rotas (não é fechado junto)
+     * @param port porta local (0 escolhe uma livre)
+     */
+    public LoginServer(LoginManager loginManager, int port) throws IOException {
+        this.loginManager = loginManager;
+        this.requests = new LongAdder();
+        this.badRequests = new LongAdder();
+        this.executor = newPerTaskExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(executor);
+        server.createContext("/register", this::handleRegister);
+        server.createContext("/login", this::handleLogin);
+        server.createContext("/status", this::handleStatus);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        int iterations = 0;
+        boolean rateLimits = true;
+        int positional = 0;
+        for (String arg : args) {
+            if (arg.equals("--sem-limites")) {
+                rateLimits = false;
+            } else if (positional++ == 0) {
+                port = Integer.parseInt(arg);
+            } else {
+                iterations = Integer.parseInt(arg);
+            }
+        }
+
+        LoginManager manager = new LoginManager(new AuditLog(Paths.get(LOG_FILE)), false);
+        if (iterations > 0) {
+            manager.setPasswordHasher(new Pbkdf2Hasher(iterations));
+        }
+        if (rateLimits) {
+            manager.enableRateLimits();
+        }
+        int loaded = manager.setUserStore(new UserStore(Paths.get(DATA_DIR)));
+        manager.enableVerificationCache();
+
+        LoginServer server = new LoginServer(manager, port);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            try {
+                manager.close();
+            } catch (IOException e) {
+                System.err.println("Erro ao fechar: " + e.getMessage());
+            }
+        }));
+        System.out.println("🌐 Servidor de login em http://localhost:" + server.getPort()
+            + " (" + loaded + " usuário(s) carregado(s), " + (hasVirtualThreads() ? "threads virtuais" : "pool de threads")
+            + ", limites de taxa " + (rateLimits ? "ligados" : "desligados") + ")");
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    /**
+     * Para de aceitar conexões e espera até 1 s pelas requisições em andamento
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handleRegister(HttpExchange exchange) throws IOException {
+        Map<String, String> form = readForm(exchange);
+        if (form == null) {
+            return;
+        }
+        String username = form.get("username");
+        String password = form.get("password");
+        if (username == null || password == null) {
+            badRequest(exchange, "username e password são obrigatórios");
+            return;
+        }
+        boolean created = loginManager.register(username.trim(), form.get("email"), password);
+        send(exchange, created ? 201 : 400, "{\"cadastrado\":" + created + "}");
+    }
+
+    private void handleLogin(HttpExchange exchange) throws IOException {
+        Map<String, String> form = readForm(exchange);
+        if (form == null) {
+            return;
+        }
+        String username = form.get("username");
+        String password = form.get("password");
+        if (username == null || password == null) {
+            badRequest(exchange, "username e password são obrigatórios");
+            return;
+        }
+        String ip = exchange.getRemoteAddress().getAddress().getHostAddress();
+        // Bloqueia só esta thread virtual enquanto o hash roda no pool de verificação
+        LoginManager.Result result = loginManager.authenticate(username.trim(), password, ip);
+        send(exchange, statusFor(result), "{\"resultado\":\"" + result + "\"}");
+    }
+
+    private void handleStatus(HttpExchange exchange) throws IOException {
+        requests.increment();
+        if (!exchange.getRequestMethod().equals("GET")) {
+            methodNotAllowed(exchange, "GET");
+            return;
+        }
+        // Sem o contador de nomes inexistentes: comparado antes e depois de
+        // um login, diria se o nome existe
+        LoginManager m = loginManager;
+        StringBuilder json = new StringBuilder(512).append('{');
+        field(json, "usuarios", m.getUserCount());
+        field(json, "falhas", m.getFailedLoginCount());
+        field(json, "bloqueados", m.getBlockedLoginCount());
+        field(json, "bloqueios", m.getLockoutCount());
+        field(json, "limitados", m.getLimitedByIp() + m.getLimitedByUser() + m.getLimitedGlobal());
+        field(json, "verificacoes", m.getVerifications());
+        field(json, "filaDeVerificacao", m.getVerificationQueueDepth());
+        field(json, "picoDaFila", m.getPeakVerificationQueueDepth());
+        field(json, "sobrecarga", m.getRejectedVerifications());
+        VerificationCache cache = m.getVerificationCache();
+        if (cache != null) {
+            field(json, "cacheAcertos", cache.getHits());
+            field(json, "cacheFaltas", cache.getMisses());
+        }
+        field(json, "requisicoes", requests.sum());
+        field(json, "requisicoesInvalidas", badRequests.sum());
+        json.setLength(json.length() - 1);
+        send(exchange, 200, json.append('}').toString());
+    }
+
+    private static void field(StringBuilder json, String name, long value) {
+        json.append('"').append(name).append("\":").append(value).append(',');
+    }
+
+    /**
+     * Mesmos códigos que uma API de login costuma usar para cada resultado
+     */
+    private static int statusFor(LoginManager.Result result) {
+        switch (result) {
+            case SUCESSO:
+                return 200;
+            case BLOQUEADO:
+                return 423;
+            case LIMITADO:
+                return 429;
+            case SOBRECARGA:
+                return 503;
+            default:
+                return 401;
+        }
+    }
+
+    /**
+     * Lê o corpo application/x-www-form-urlencoded de um POST
+     * @return null se a requisição já foi respondida com erro
+     */
+    private Map<String, String> readForm(HttpExchange exchange) throws IOException {
+        requests.increment();
+        if (!exchange.getRequestMethod().equals("POST")) {
+            methodNotAllowed(exchange, "POST");
+            return null;
+        }
+        byte[] body = exchange.getRequestBody().readNBytes(MAX_BODY + 1);
+        if (body.length > MAX_BODY) {
+            badRequests.increment();
+            send(exchange, 413, "{\"erro\":\"corpo maior que " + MAX_BODY + " bytes\"}");
+            return null;
+        }
+        Map<String, String> form = new HashMap<>();
+        try {
+            for (String pair : new String(body, StandardCharsets.UTF_8).split("&")) {
+                int equals = pair.indexOf('=');
+                if (equals > 0) {
+                    form.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            badRequest(exchange, "formulário inválido");
+            return null;
+        }
+        return form;
+    }
+
+    private void badRequest(HttpExchange exchange, String message) throws IOException {
+        badRequests.increment();
+        send(exchange, 400, "{\"erro\":\"" + message + "\"}");
+    }
+
+    private void methodNotAllowed(HttpExchange exchange, String allowed) throws IOException {
+        badRequests.increment();
+        exchange.getResponseHeaders().set("Allow", allowed);
+        send(exchange, 405, "{\"erro\":\"use " + allowed + "\"}");
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Uma thread virtual por tarefa no Java 21+, ou um pool de threads comuns
+     * no Java 17 (o projeto ainda compila com release 17)
+     */
+    static ExecutorService newPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    static boolean hasVirtualThreads() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,486 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Teste de estresse do LoginManager sob concorrência
+ *
+ * Várias threads disparam logins ao mesmo tempo sobre poucos usuários
+ * (muita disputa por usuário) e no fim as contagens precisam bater
+ * exatamente, sem incrementos perdidos:
+ * - cadastro simultâneo do mesmo nome: um único vencedor por nome
+ * - cada usuário bloqueado exatamente uma vez, com MAX_ATTEMPTS falhas
+ * - falhas + bloqueados = total de tentativas
+ * - senha correta nunca entra num usuário bloqueado
+ * - o log de auditoria tem exatamente uma linha por evento, e com fila
+ *   pequena e descarte, gravadas + descartadas = enfileiradas
+ * - spray de nomes aleatórios: memória limitada durante o ataque, tudo
+ *   expirado depois, e cada nome expirado ou descartado exatamente uma vez
+ * - limites de taxa: um IP (e o total) nunca passa da rajada + taxa × tempo,
+ *   cada recusa é contada, e IPs além da capacidade não aumentam a memória
+ * - hash de senha: cada senha antiga refeita exatamente uma vez no login
+ *   (troca de algoritmo e aumento de custo), e com o pool de verificação
+ *   cheio cada recusa é contada sem passar do limite da fila
+ * - nomes inexistentes: mesma resposta, contador, bloqueio e linha de log
+ *   de uma senha errada, com o mesmo tempo de resposta
+ * - cache de verificações: senha repetida não refaz o hash, senha errada
+ *   e credencial trocada (rehash) nunca acertam, tamanho limitado
+ *
+ * Como executar:
+ * javac *.java
+ * java LoginStressTest [threads] [tentativas por thread]
+ */
+public class LoginStressTest {
+    private static final int MAX_ATTEMPTS = 3;
+    private static final int USERS = 200;
+    private static final String PASSWORD = "senha-forte-123";
+
+    // Prazos curtos para a fase de expiração
+    private static final long LOCKOUT_MS = 300;
+    private static final long FAILURE_TTL_MS = 500;
+    private static final int MAX_TRACKED = 6400;
+
+    // Limites da fase de taxa
+    private static final double IP_RATE = 100;
+    private static final int IP_BURST = 50;
+    private static final int IP_CAPACITY = 1024;
+    private static final double GLOBAL_RATE = 1000;
+    private static final int GLOBAL_BURST = 100;
+
+    // PBKDF2 barato para o teste (o padrão leva centenas de ms por hash)
+    private static final int TEST_ITERATIONS = 1000;
+    private static final int SMALL_QUEUE = 4;
+    private static final int BURST_PER_THREAD = 50;
+
+    // Cache de verificações pequeno e curto para descarte e expiração
+    private static final long CACHE_TTL_MS = 100;
+    private static final int CACHE_CAPACITY = 64;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int attemptsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+        Path logFile = Files.createTempFile("login-stress", ".log");
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        List<String> failures = new ArrayList<>();
+        long total;
+        double seconds;
+        long dropped;
+        long sprayed;
+        int peakTracked;
+        double rejectionsPerSecond;
+        long ipEvictions;
+        long ipMemory;
+        long rehashed;
+        long overloaded;
+        long peakQueue;
+        long unknownCounted;
+        double sprayPerSecond;
+        double unknownToWrongRatio;
+        double missesPerSecond;
+        double hitsPerSecond;
+        try {
+            LoginManager manager = new LoginManager(logFile.toString());
+            manager.setPasswordHasher(new Pbkdf2Hasher(TEST_ITERATIONS));
+            long registrations = (long) threads * USERS;
+
+            // 1. Cadastro concorrente: todas as threads tentam todos os nomes
+            AtomicInteger registered = new AtomicInteger();
+            runConcurrently(threads, thread -> {
+                for (int u = 0; u < USERS; u++) {
+                    if (manager.register("user" + u, "user" + u + "@exemplo.com", PASSWORD)) {
+                        registered.incrementAndGet();
+                    }
+                }
+            });
+            check(failures, "cadastros vencedores", USERS, registered.get());
+            check(failures, "usuários cadastrados", USERS, manager.getUserCount());
+
+            // 2. Senhas erradas de todas as threads nos mesmos usuários,
+            // intercaladas com senhas corretas que não podem passar
+            AtomicInteger logins = new AtomicInteger();
+            AtomicInteger lockedSuccesses = new AtomicInteger();
+            long start = System.nanoTime();
+            runConcurrently(threads, thread -> {
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    String username = "user" + ((i + thread) % USERS);
+                    if ((i / USERS) % 10 == 9) {
+                        // Uma volta em cada dez usa a senha correta, só em usuário já
+                        // bloqueado (senão o acerto zeraria o contador)
+                        if (manager.isLockedOut(username)) {
+                            logins.incrementAndGet();
+                            if (manager.login(username, PASSWORD)) {
+                                lockedSuccesses.incrementAndGet();
+                            }
+                        }
+                    } else {
+                        logins.incrementAndGet();
+                        manager.login(username, "errada" + i);
+                    }
+                }
+            });
+            seconds = (System.nanoTime() - start) / 1e9;
+            total = logins.get();
+
+            check(failures, "bloqueios", USERS, manager.getLockoutCount());
+            check(failures, "falhas contadas", (long) USERS * MAX_ATTEMPTS, manager.getFailedLoginCount());
+            check(failures, "falhas + bloqueados", total,
+                manager.getFailedLoginCount() + manager.getBlockedLoginCount());
+            check(failures, "logins em usuário bloqueado", 0, lockedSuccesses.get());
+            int wrongCounters = 0;
+            int unlocked = 0;
+            for (int u = 0; u < USERS; u++) {
+                if (manager.getFailedAttempts("user" + u) != MAX_ATTEMPTS) {
+                    wrongCounters++;
+                }
+                if (!manager.isLockedOut("user" + u)) {
+                    unlocked++;
+                }
+            }
+            check(failures, "usuários com contador diferente de " + MAX_ATTEMPTS, 0, wrongCounters);
+            check(failures, "usuários não bloqueados", 0, unlocked);
+
+            // Uma linha por cadastro, por tentativa e por bloqueio aplicado
+            manager.close();
+            check(failures, "linhas descartadas no log", 0, manager.getAuditLog().getDropped());
+            check(failures, "linhas no log", registrations + total + manager.getLockoutCount(),
+                Files.lines(logFile).count());
+
+            // 3. Fila pequena com descarte: nada some sem ser contado
+            AuditLog dropping = new AuditLog(logFile, 16, AuditLog.FsyncPolicy.NEVER, 0,
+                AuditLog.OverflowPolicy.DROP);
+            runConcurrently(threads, thread -> {
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    dropping.append("linha " + thread + " " + i);
+                }
+            });
+            dropping.close();
+            dropped = dropping.getDropped();
+
+            // 4. Spray de nomes aleatórios com prazos curtos
+            LoginManager expiring = new LoginManager(new AuditLog(logFile), false,
+                LOCKOUT_MS, FAILURE_TTL_MS, MAX_TRACKED);
+            // SHA-256: cada nome do spray também paga o hash de fachada
+            expiring.setPasswordHasher(new Sha256Hasher());
+            expiring.register("alvo", "alvo@exemplo.com", PASSWORD);
+            for (int i = 0; i < MAX_ATTEMPTS; i++) {
+                expiring.login("alvo", "errada");
+            }
+            check(failures, "alvo bloqueado", 1, expiring.isLockedOut("alvo") ? 1 : 0);
+
+            AtomicInteger peak = new AtomicInteger();
+            runConcurrently(threads, thread -> {
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    expiring.login("spray-" + thread + "-" + i, "x");
+                    if (i % 1000 == 0) {
+                        peak.accumulateAndGet(expiring.getTrackedEntries(), Math::max);
+                    }
+                }
+            });
+            sprayed = (long) threads * attemptsPerThread;
+            peakTracked = peak.get();
+            // Cada mapa guarda no máximo MAX_TRACKED (arredondado por partição)
+            check(failures, "pico de registros acima do limite", 0,
+                peakTracked > 2 * (MAX_TRACKED + 64) ? 1 : 0);
+
+            Thread.sleep(FAILURE_TTL_MS * 2 + 200);
+            check(failures, "registros após expirar", 0, expiring.getTrackedEntries());
+            check(failures, "nomes expirados ou descartados", sprayed,
+                expiring.getExpiredFailureCounters() + expiring.getEvictedEntries());
+            check(failures, "bloqueios expirados", 1, expiring.getExpiredLockouts());
+            check(failures, "login após o bloqueio expirar", 1, expiring.login("alvo", PASSWORD) ? 1 : 0);
+            expiring.close();
+            check(failures, "gravadas + descartadas", (long) threads * attemptsPerThread,
+                dropping.getWritten() + dropping.getDropped());
+
+            // 5. Limites de taxa: um único IP espalhando nomes
+            LoginManager limited = new LoginManager(new AuditLog(logFile), false);
+            limited.setPasswordHasher(new Sha256Hasher());
+            KeyedRateLimiter perIp = new KeyedRateLimiter(IP_RATE, IP_BURST, IP_CAPACITY);
+            limited.setRateLimits(perIp, null, null);
+            AtomicInteger allowed = new AtomicInteger();
+            long limitStart = System.nanoTime();
+            runConcurrently(threads, thread -> {
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    if (limited.authenticate("ip-spray-" + thread + "-" + i, "x", "10.0.0.1")
+                            != LoginManager.Result.LIMITADO) {
+                        allowed.incrementAndGet();
+                    }
+                }
+            });
+            double limitSeconds = (System.nanoTime() - limitStart) / 1e9;
+            check(failures, "IP acima da taxa", 0,
+                allowed.get() > IP_BURST + IP_RATE * limitSeconds + 1 ? 1 : 0);
+            check(failures, "IP abaixo da rajada", 0, allowed.get() < IP_BURST ? 1 : 0);
+            check(failures, "recusas por IP", (long) threads * attemptsPerThread - allowed.get(),
+                limited.getLimitedByIp());
+
+            // Custo de uma recusa: o IP já estourou, nada além do limitador roda
+            long rejectStart = System.nanoTime();
+            runConcurrently(threads, thread -> {
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    limited.authenticate("alvo", PASSWORD, "10.0.0.1");
+                }
+            });
+            rejectionsPerSecond = (long) threads * attemptsPerThread / ((System.nanoTime() - rejectStart) / 1e9);
+
+            // Limite global: IPs distintos, mas o total respeita a taxa
+            limited.setRateLimits(null, null, new TokenBucket(GLOBAL_RATE, GLOBAL_BURST));
+            allowed.set(0);
+            long globalStart = System.nanoTime();
+            runConcurrently(threads, thread -> {
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    if (limited.authenticate("global-" + thread + "-" + i, "x", "10.1." + thread + "." + i)
+                            != LoginManager.Result.LIMITADO) {
+                        allowed.incrementAndGet();
+                    }
+                }
+            });
+            double globalSeconds = (System.nanoTime() - globalStart) / 1e9;
+            check(failures, "total acima da taxa", 0,
+                allowed.get() > GLOBAL_BURST + GLOBAL_RATE * globalSeconds + 1 ? 1 : 0);
+            check(failures, "recusas globais", (long) threads * attemptsPerThread - allowed.get(),
+                limited.getLimitedGlobal());
+
+            // IPs muito além da capacidade: baldes ativos são descartados,
+            // a tabela não cresce
+            limited.setRateLimits(perIp, null, null);
+            runConcurrently(threads, thread -> {
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    perIp.tryAcquire("10.2." + thread + "." + i);
+                }
+            });
+            ipEvictions = perIp.getEvictions();
+            ipMemory = perIp.getMemoryBytes();
+            check(failures, "baldes descartados", 0, ipEvictions == 0 ? 1 : 0);
+            check(failures, "memória dos baldes", IP_CAPACITY * 8L, ipMemory);
+            limited.close();
+
+            // 6. Senhas gravadas com SHA-256 migram para PBKDF2 no login, e de
+            // novo quando o custo sobe; cada usuário entra por duas threads
+            LoginManager hashing = new LoginManager(new AuditLog(logFile), false);
+            hashing.setPasswordHasher(new Sha256Hasher());
+            for (int u = 0; u < USERS; u++) {
+                hashing.register("hash" + u, "hash" + u + "@exemplo.com", PASSWORD);
+            }
+            AtomicInteger successes = new AtomicInteger();
+            for (int cost : new int[] {TEST_ITERATIONS, TEST_ITERATIONS * 2}) {
+                hashing.setPasswordHasher(new Pbkdf2Hasher(cost));
+                runConcurrently(threads, thread -> {
+                    for (int u = 0; u < USERS; u++) {
+                        if ((u + thread) % threads < 2 && hashing.login("hash" + u, PASSWORD)) {
+                            successes.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            rehashed = hashing.getRehashes();
+            check(failures, "senhas refeitas", 2L * USERS, rehashed);
+            check(failures, "logins com senha migrada", 2L * USERS * Math.min(threads, 2), successes.get());
+            hashing.close();
+
+            // Pool de uma thread com fila pequena: o excesso volta na hora
+            LoginManager tiny = new LoginManager(new AuditLog(logFile), false,
+                LOCKOUT_MS, FAILURE_TTL_MS, MAX_TRACKED, 1, SMALL_QUEUE);
+            tiny.setPasswordHasher(new Pbkdf2Hasher(TEST_ITERATIONS));
+            tiny.register("alvo", "alvo@exemplo.com", PASSWORD);
+            AtomicInteger accepted = new AtomicInteger();
+            AtomicInteger busy = new AtomicInteger();
+            runConcurrently(threads, thread -> {
+                List<CompletableFuture<LoginManager.Result>> pending = new ArrayList<>();
+                for (int i = 0; i < BURST_PER_THREAD; i++) {
+                    pending.add(tiny.authenticateAsync("alvo", PASSWORD, null));
+                }
+                for (CompletableFuture<LoginManager.Result> future : pending) {
+                    LoginManager.Result result = future.join();
+                    if (result == LoginManager.Result.SUCESSO) {
+                        accepted.incrementAndGet();
+                    } else if (result == LoginManager.Result.SOBRECARGA) {
+                        busy.incrementAndGet();
+                    }
+                }
+            });
+            overloaded = busy.get();
+            peakQueue = tiny.getPeakVerificationQueueDepth();
+            check(failures, "aceitos + recusados", (long) threads * BURST_PER_THREAD,
+                accepted.get() + busy.get());
+            check(failures, "recusas por sobrecarga", busy.get(), tiny.getRejectedVerifications());
+            check(failures, "verificações", accepted.get(), tiny.getVerifications());
+            check(failures, "fila acima do limite", 0, peakQueue > SMALL_QUEUE ? 1 : 0);
+            check(failures, "fila cheia sem recusa", 0, overloaded == 0 ? 1 : 0);
+            tiny.close();
+
+            // 7. Nomes inexistentes: spray e enumeração
+            LoginManager enumeration = new LoginManager(new AuditLog(logFile), false);
+            enumeration.setPasswordHasher(new Sha256Hasher());
+            for (int u = 0; u < USERS; u++) {
+                enumeration.register("real" + u, "real" + u + "@exemplo.com", PASSWORD);
+            }
+            AtomicInteger unknownFailures = new AtomicInteger();
+            start = System.nanoTime();
+            runConcurrently(threads, thread -> {
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    if (!enumeration.login("fantasma-" + thread + "-" + i, PASSWORD)) {
+                        unknownFailures.incrementAndGet();
+                    }
+                }
+            });
+            sprayPerSecond = (double) threads * attemptsPerThread / ((System.nanoTime() - start) / 1e9);
+            unknownCounted = enumeration.getUnknownUsers();
+            check(failures, "nomes inexistentes recusados", (long) threads * attemptsPerThread, unknownFailures.get());
+            check(failures, "nomes inexistentes contados", (long) threads * attemptsPerThread, unknownCounted);
+            // Cada nome inexistente é contado e registrado como uma senha errada
+            check(failures, "contadores dos nomes inexistentes", (long) threads * attemptsPerThread,
+                enumeration.getTrackedEntries());
+            check(failures, "hashes de fachada", (long) threads * attemptsPerThread, enumeration.getVerifications());
+
+            // O login de cada usuário refaz o hash com o PBKDF2, o mesmo do hash de fachada
+            enumeration.setPasswordHasher(new Pbkdf2Hasher(TEST_ITERATIONS));
+            int admitted = 0;
+            for (int u = 0; u < USERS; u++) {
+                admitted += enumeration.login("real" + u, PASSWORD) ? 1 : 0;
+            }
+            check(failures, "cadastrados aceitos", USERS, admitted);
+
+            // Mesma sequência de respostas para nome inexistente e senha errada
+            List<LoginManager.Result> unknown = new ArrayList<>();
+            List<LoginManager.Result> wrong = new ArrayList<>();
+            for (int i = 0; i <= MAX_ATTEMPTS; i++) {
+                unknown.add(enumeration.authenticate("fantasma", PASSWORD, null));
+                wrong.add(enumeration.authenticate("real0", "senha-errada", null));
+            }
+            check(failures, "respostas diferentes para nome inexistente", 0, unknown.equals(wrong) ? 0 : 1);
+            check(failures, "nome inexistente bloqueado", 1, enumeration.isLockedOut("fantasma") ? 1 : 0);
+            long unknownNanos = 0;
+            long wrongNanos = 0;
+            for (int u = 1; u < USERS; u++) {
+                long t0 = System.nanoTime();
+                enumeration.authenticate("outro-fantasma-" + u, PASSWORD, null);
+                long t1 = System.nanoTime();
+                enumeration.authenticate("real" + u, "senha-errada", null);
+                unknownNanos += t1 - t0;
+                wrongNanos += System.nanoTime() - t1;
+            }
+            unknownToWrongRatio = (double) unknownNanos / wrongNanos;
+            check(failures, "tempo de nome inexistente x senha errada", 0,
+                unknownToWrongRatio < 0.5 || unknownToWrongRatio > 2 ? 1 : 0);
+            enumeration.close();
+            check(failures, "linhas de log do spray", (long) threads * attemptsPerThread,
+                Files.lines(logFile).filter(line -> line.contains("usuário inexistente: fantasma-")).count());
+
+            // Cache de verificações: o primeiro login de cada usuário faz o
+            // hash, os seguintes (em todas as threads) não
+            LoginManager cached = new LoginManager(new AuditLog(logFile), false);
+            cached.setPasswordHasher(new Pbkdf2Hasher(TEST_ITERATIONS));
+            VerificationCache cache = new VerificationCache();
+            cached.setVerificationCache(cache);
+            for (int u = 0; u < USERS; u++) {
+                cached.register("cache" + u, "cache" + u + "@exemplo.com", PASSWORD);
+            }
+            start = System.nanoTime();
+            loginAll(cached, PASSWORD);
+            missesPerSecond = USERS / ((System.nanoTime() - start) / 1e9);
+            start = System.nanoTime();
+            runConcurrently(threads, thread -> loginAll(cached, PASSWORD));
+            hitsPerSecond = (double) threads * USERS / ((System.nanoTime() - start) / 1e9);
+            check(failures, "acertos do cache", (long) threads * USERS, cache.getHits());
+            check(failures, "hashes com cache", USERS, cached.getVerifications());
+            loginAll(cached, "senha-errada");
+            check(failures, "senha errada no cache", (long) threads * USERS, cache.getHits());
+            check(failures, "hashes de senhas erradas", 2L * USERS, cached.getVerifications());
+
+            // Rehash troca a credencial: a entrada antiga não vale mais
+            cached.setPasswordHasher(new Pbkdf2Hasher(TEST_ITERATIONS * 2));
+            loginAll(cached, PASSWORD);
+            check(failures, "rehashes com cache", USERS, cached.getRehashes());
+            loginAll(cached, PASSWORD);
+            check(failures, "hashes após rehash", 3L * USERS, cached.getVerifications());
+
+            // Cache pequeno e curto: descarta o excesso e expira o resto
+            VerificationCache small = new VerificationCache(CACHE_TTL_MS, CACHE_CAPACITY);
+            cached.setVerificationCache(small);
+            loginAll(cached, PASSWORD);
+            check(failures, "cache acima do limite", 0, small.size() > CACHE_CAPACITY ? 1 : 0);
+            check(failures, "guardados + descartados + expirados", USERS,
+                small.size() + small.getEvictions() + small.getExpirations());
+            Thread.sleep(CACHE_TTL_MS * 2);
+            loginAll(cached, PASSWORD);
+            check(failures, "acertos após expirar", 0, small.getHits());
+            check(failures, "hashes após expirar", 5L * USERS, cached.getVerifications());
+            cached.close();
+        } finally {
+            System.setOut(console);
+            Files.deleteIfExists(logFile);
+        }
+
+        System.out.printf("🔐 %d threads, %d logins em %.2f s (%.0f logins/s)\n",
+            threads, total, seconds, total / seconds);
+        System.out.printf("📝 Fila de 16 linhas com descarte: %d de %d linhas descartadas\n",
+            dropped, (long) threads * attemptsPerThread);
+        System.out.printf("🧹 Spray de %d nomes: pico de %d registros (limite %d por mapa)\n",
+            sprayed, peakTracked, MAX_TRACKED);
+        System.out.printf("⏳ Limite por IP: %.0f recusas/s, %d baldes ativos descartados em %d bytes fixos\n",
+            rejectionsPerSecond, ipEvictions, ipMemory);
+        System.out.printf("🔑 %d senhas refeitas no login; fila de %d: %d de %d logins recusados (pico %d)\n",
+            rehashed, SMALL_QUEUE, overloaded, (long) threads * BURST_PER_THREAD, peakQueue);
+        System.out.printf("👻 %d nomes inexistentes (%.0f/s), tempo de resposta %.2f× o de uma senha errada\n",
+            unknownCounted, sprayPerSecond, unknownToWrongRatio);
+        System.out.printf("⚡ Cache de verificações: %.0f logins/s com hash, %.0f logins/s com acerto\n",
+            missesPerSecond, hitsPerSecond);
+        if (failures.isEmpty()) {
+            System.out.println("✅ Contagens exatas sob concorrência");
+        } else {
+            failures.forEach(failure -> System.out.println("❌ " + failure));
+            System.exit(1);
+        }
+    }
+
+    private static void check(List<String> failures, String what, long expected, long actual) {
+        if (expected != actual) {
+            failures.add(what + ": esperado " + expected + ", obtido " + actual);
+        }
+    }
+
+    /**
+     * Um login de cada usuário do cache, em ordem
+     */
+    private static void loginAll(LoginManager manager, String password) {
+        for (int u = 0; u < USERS; u++) {
+            manager.login("cache" + u, password);
+        }
+    }
+
+    /**
+     * Roda a tarefa em todas as threads, liberadas juntas por uma barreira
+     */
+    private static void runConcurrently(int threads, ThreadTask task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> {
+                    barrier.await();
+                    task.run(thread);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private interface ThreadTask {
+        void run(int thread);
+    }
+}
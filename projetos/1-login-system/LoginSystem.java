@@ -1,3 +1,5 @@
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
 /**
@@ -9,20 +11,34 @@ import java.util.Scanner;
  * ✓ Login com validação
  * ✓ Limite de 3 tentativas
  * ✓ Bloqueio temporário (2 minutos)
+ * ✓ Limite de tentativas por segundo (por usuário e global)
  * ✓ Registro de logs em arquivo
- * ✓ Hash SHA-256 para senhas
+ * ✓ Usuários gravados em disco (pasta login_data)
+ * ✓ Hash PBKDF2 com sal por usuário (custo ajustável)
  *
  * Como executar:
- * javac User.java LoginManager.java LoginSystem.java
+ * javac *.java
  * java LoginSystem
  */
 public class LoginSystem {
+    private static final String DATA_DIR = "login_data";
+
     private static LoginManager loginManager;
     private static Scanner scanner;
     private static boolean running;
 
     public static void main(String[] args) {
         loginManager = new LoginManager();
+        loginManager.enableRateLimits();
+        try {
+            int loaded = loginManager.setUserStore(new UserStore(Paths.get(DATA_DIR)));
+            if (loaded > 0) {
+                System.out.println("💾 " + loaded + " usuário(s) carregado(s) de " + DATA_DIR);
+            }
+        } catch (IOException e) {
+            System.err.println("Erro ao abrir os usuários gravados: " + e.getMessage());
+        }
+        loginManager.enableVerificationCache();
         scanner = new Scanner(System.in);
         running = true;
 
@@ -35,6 +51,11 @@ public class LoginSystem {
         }
 
         scanner.close();
+        try {
+            loginManager.close();
+        } catch (IOException e) {
+            System.err.println("Erro ao fechar o log: " + e.getMessage());
+        }
         System.out.println("\n👋 Até logo!");
     }
 
@@ -129,6 +150,36 @@ public class LoginSystem {
     private static void showSystemStatus() {
         System.out.println("\n📊 Status do Sistema:");
         System.out.println("Total de usuários cadastrados: " + loginManager.getUserCount());
+        System.out.println("Falhas de login: " + loginManager.getFailedLoginCount());
+        System.out.println("Tentativas em usuário bloqueado: " + loginManager.getBlockedLoginCount());
+        System.out.println("Bloqueios aplicados: " + loginManager.getLockoutCount());
+        System.out.println("Bloqueios/contadores em memória: " + loginManager.getTrackedEntries()
+            + " (expirados: " + (loginManager.getExpiredLockouts() + loginManager.getExpiredFailureCounters())
+            + ", descartados pelo limite: " + loginManager.getEvictedEntries() + ")");
+        System.out.println("Recusados pelo limite de taxa: "
+            + (loginManager.getLimitedByIp() + loginManager.getLimitedByUser() + loginManager.getLimitedGlobal()));
+        PasswordHasher hasher = loginManager.getPasswordHasher();
+        System.out.println("Hash de senha: " + hasher.getAlgorithm() + " (custo " + hasher.getCost()
+            + "), " + loginManager.getVerifierThreads() + " threads de verificação");
+        System.out.println("Fila de verificação: " + loginManager.getVerificationQueueDepth()
+            + " (pico " + loginManager.getPeakVerificationQueueDepth()
+            + ", recusadas: " + loginManager.getRejectedVerifications()
+            + ", rehashes: " + loginManager.getRehashes() + ")");
+        System.out.println("Logins com nome inexistente: " + loginManager.getUnknownUsers());
+        VerificationCache cache = loginManager.getVerificationCache();
+        if (cache != null) {
+            System.out.println("Cache de verificações: " + cache.getHits() + " acertos, " + cache.getMisses()
+                + " faltas, " + cache.getEvictions() + " descartes, " + cache.getExpirations() + " expiradas ("
+                + cache.size() + " em memória)");
+        }
+        UserStore store = loginManager.getUserStore();
+        if (store != null) {
+            System.out.println("Usuários em disco: " + store.getLoadedUsers() + " carregados em "
+                + store.getLoadMillis() + " ms, " + store.getAppended() + " registros gravados, "
+                + store.getCompactions() + " compactações");
+        }
+        System.out.println("Linhas de log gravadas: " + loginManager.getAuditLog().getWritten()
+            + " (descartadas: " + loginManager.getAuditLog().getDropped() + ")");
         System.out.println("Arquivo de logs: login_logs.txt");
         System.out.println("Status: ✅ Operacional");
     }
@@ -0,0 +1,46 @@
+/**
+ * Algoritmo de hash de senha usado pelo LoginManager
+ *
+ * Cada usuário guarda o sal, o custo e o algoritmo com que foi gravado, então
+ * trocar o algoritmo (ou subir o custo) não invalida senhas antigas: elas
+ * são verificadas com os parâmetros antigos e refeitas no próximo login
+ * bem-sucedido (ver User.needsRehash).
+ */
+public interface PasswordHasher {
+    /**
+     * Nome do algoritmo (gravado junto com o hash)
+     */
+    String getAlgorithm();
+
+    /**
+     * Custo usado para novos hashes (ex.: iterações do PBKDF2)
+     */
+    int getCost();
+
+    /**
+     * Tamanho do sal gerado para cada usuário, em bytes
+     */
+    default int getSaltLength() {
+        return 16;
+    }
+
+    /**
+     * Calcula o hash da senha com o sal e o custo dados
+     * Precisa ser seguro para várias threads ao mesmo tempo.
+     */
+    byte[] hash(String password, byte[] salt, int cost);
+
+    /**
+     * Implementação de um algoritmo gravado (usado ao carregar usuários)
+     */
+    static PasswordHasher forAlgorithm(String algorithm) {
+        switch (algorithm) {
+            case Pbkdf2Hasher.ALGORITHM:
+                return new Pbkdf2Hasher();
+            case Sha256Hasher.ALGORITHM:
+                return new Sha256Hasher();
+            default:
+                throw new IllegalArgumentException("Algoritmo de hash desconhecido: " + algorithm);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.InvalidKeySpecException;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * PBKDF2 com HMAC-SHA256 (o do próprio JDK), de custo ajustável
+ *
+ * O custo é o número de iterações: cada verificação de senha leva tempo
+ * proporcional a ele, o que torna um ataque de dicionário sobre hashes
+ * vazados caro. O padrão segue a recomendação da OWASP para este algoritmo.
+ */
+public class Pbkdf2Hasher implements PasswordHasher {
+    public static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    public static final int DEFAULT_ITERATIONS = 600_000;
+    private static final int KEY_BITS = 256;
+
+    // SecretKeyFactory não é garantidamente thread-safe: uma por thread
+    private static final ThreadLocal<SecretKeyFactory> FACTORY = ThreadLocal.withInitial(() -> {
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("JDK sem " + ALGORITHM, e);
+        }
+    });
+
+    private final int iterations;
+
+    public Pbkdf2Hasher() {
+        this(DEFAULT_ITERATIONS);
+    }
+
+    /**
+     * @param iterations custo dos novos hashes
+     */
+    public Pbkdf2Hasher(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("Iterações devem ser positivas");
+        }
+        this.iterations = iterations;
+    }
+
+    @Override
+    public String getAlgorithm() {
+        return ALGORITHM;
+    }
+
+    @Override
+    public int getCost() {
+        return iterations;
+    }
+
+    @Override
+    public byte[] hash(String password, byte[] salt, int cost) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, cost, KEY_BITS);
+        try {
+            return FACTORY.get().generateSecret(spec).getEncoded();
+        } catch (InvalidKeySpecException e) {
+            throw new IllegalArgumentException("Parâmetros de hash inválidos", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
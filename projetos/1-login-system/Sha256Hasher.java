@@ -0,0 +1,25 @@
+/**
+ * SHA-256 de uma rodada sobre sal + senha (formato antigo do projeto)
+ *
+ * Rápido demais para guardar senhas: existe para senhas gravadas antes do
+ * PBKDF2, que são refeitas com o algoritmo atual no próximo login. O custo
+ * é ignorado.
+ */
+public class Sha256Hasher implements PasswordHasher {
+    public static final String ALGORITHM = "SHA-256";
+
+    @Override
+    public String getAlgorithm() {
+        return ALGORITHM;
+    }
+
+    @Override
+    public int getCost() {
+        return 1;
+    }
+
+    @Override
+    public byte[] hash(String password, byte[] salt, int cost) {
+        return HashUtils.sha256(salt, password);
+    }
+}
@@ -0,0 +1,55 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket sem locks para um limite único (ex.: logins por segundo no total)
+ *
+ * Em vez de contar fichas, guarda só o "tempo teórico de chegada" (TAT,
+ * algoritmo GCRA): cada permissão empurra o TAT um intervalo para frente,
+ * e o pedido é recusado quando o TAT está adiantado além da rajada
+ * permitida. É o mesmo comportamento de um balde de `burst` fichas que
+ * recebe `permitsPerSecond` fichas por segundo, num único AtomicLong.
+ *
+ * Recusar um pedido é só uma leitura: nada é escrito.
+ */
+public class TokenBucket {
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final long origin;
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param permitsPerSecond taxa sustentada
+     * @param burst pedidos aceitos de uma vez com o balde cheio
+     */
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Taxa e rajada devem ser positivas");
+        }
+        this.intervalNanos = Math.max(1, Math.round(1_000_000_000 / permitsPerSecond));
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        this.origin = System.nanoTime();
+        this.theoreticalArrival = new AtomicLong();
+    }
+
+    public boolean tryAcquire() {
+        long now = System.nanoTime() - origin;
+        while (true) {
+            long current = theoreticalArrival.get();
+            long tat = Math.max(current, now);
+            if (tat - now > toleranceNanos) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(current, tat + intervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    public double getPermitsPerSecond() {
+        return 1_000_000_000.0 / intervalNanos;
+    }
+
+    public int getBurst() {
+        return (int) (toleranceNanos / intervalNanos) + 1;
+    }
+}
@@ -1,45 +1,53 @@
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
+import java.security.SecureRandom;
 
 /**
  * Classe que representa um usuário do sistema
  * Encapsula dados de usuário e gerencia a senha com hash
+ *
+ * A senha é guardada como hash + sal próprio + custo + algoritmo (um
+ * PasswordHasher). Esses quatro ficam num objeto imutável trocado de uma
+ * vez, então um rehash no login não atrapalha verificações simultâneas.
  */
 public class User {
+    private static final SecureRandom RANDOM = new SecureRandom();
+
     private String username;
-    private String passwordHash;
+    private volatile Credential credential;
     private String email;
     private boolean isActive;
     private long createdAt;
 
     /**
-     * Construtor do usuário
+     * Construtor do usuário (senha com o PBKDF2 padrão)
      * @param username Nome do usuário
      * @param email Email do usuário
      * @param password Senha em texto plano (será hasheada)
      */
     public User(String username, String email, String password) {
+        this(username, email, password, new Pbkdf2Hasher());
+    }
+
+    /**
+     * @param hasher algoritmo e custo com que a senha é gravada
+     */
+    public User(String username, String email, String password, PasswordHasher hasher) {
         this.username = username;
         this.email = email;
-        this.passwordHash = hashPassword(password);
+        this.credential = Credential.create(password, hasher);
         this.isActive = true;
         this.createdAt = System.currentTimeMillis();
     }
 
     /**
-     * Hash SHA-256 da senha para armazenamento seguro
-     * @param password Senha em texto plano
-     * @return String hasheada em Base64
+     * Usuário lido do UserStore (senha já em hash)
      */
-    public static String hashPassword(String password) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(password.getBytes());
-            return Base64.getEncoder().encodeToString(hash);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Erro ao fazer hash da senha", e);
-        }
+    public User(String username, String email, long createdAt, boolean active,
+                PasswordHasher hasher, int cost, byte[] salt, byte[] hash) {
+        this.username = username;
+        this.email = email;
+        this.credential = new Credential(hasher, cost, salt, hash);
+        this.isActive = active;
+        this.createdAt = createdAt;
     }
 
     /**
@@ -48,7 +56,48 @@ public class User {
      * @return true se a senha está correta
      */
     public boolean verifyPassword(String password) {
-        return this.passwordHash.equals(hashPassword(password));
+        return credential.matches(password);
+    }
+
+    /**
+     * A senha foi gravada com outro algoritmo ou com custo menor que o atual?
+     */
+    public boolean needsRehash(PasswordHasher current) {
+        return credential.isOutdated(current);
+    }
+
+    /**
+     * Refaz o hash com o algoritmo atual (a senha já deve ter sido verificada)
+     * @return false se não era preciso ou se outra thread já refez
+     */
+    public boolean rehash(String password, PasswordHasher current) {
+        Credential old = credential;
+        if (!old.isOutdated(current)) {
+            return false;
+        }
+        Credential fresh = Credential.create(password, current);
+        synchronized (this) {
+            if (credential != old) {
+                return false;
+            }
+            credential = fresh;
+            return true;
+        }
+    }
+
+    public String getHashAlgorithm() {
+        return credential.hasher.getAlgorithm();
+    }
+
+    public int getHashCost() {
+        return credential.cost;
+    }
+
+    /**
+     * Versão atual da senha, para o UserStore gravar sal e hash consistentes
+     */
+    Credential getCredential() {
+        return credential;
     }
 
     // Getters
@@ -73,8 +122,59 @@ public class User {
         return "User{" +
                 "username='" + username + '\'' +
                 ", email='" + email + '\'' +
+                ", hash=" + getHashAlgorithm() + "/" + getHashCost() +
                 ", isActive=" + isActive +
                 ", createdAt=" + createdAt +
                 '}';
     }
+
+    /**
+     * Hash da senha com os parâmetros que o geraram
+     */
+    static final class Credential {
+        private final PasswordHasher hasher;
+        private final int cost;
+        private final byte[] salt;
+        private final byte[] hash;
+
+        private Credential(PasswordHasher hasher, int cost, byte[] salt, byte[] hash) {
+            this.hasher = hasher;
+            this.cost = cost;
+            this.salt = salt;
+            this.hash = hash;
+        }
+
+        static Credential create(String password, PasswordHasher hasher) {
+            byte[] salt = new byte[hasher.getSaltLength()];
+            RANDOM.nextBytes(salt);
+            int cost = hasher.getCost();
+            return new Credential(hasher, cost, salt, hasher.hash(password, salt, cost));
+        }
+
+        boolean matches(String password) {
+            // Comparação em tempo constante: não revela quantos bytes acertou
+            return HashUtils.constantTimeEquals(hash, hasher.hash(password, salt, cost));
+        }
+
+        boolean isOutdated(PasswordHasher current) {
+            return !hasher.getAlgorithm().equals(current.getAlgorithm()) || cost < current.getCost();
+        }
+
+        // Leitura pelo UserStore (os arrays não saem do projeto)
+        String algorithm() {
+            return hasher.getAlgorithm();
+        }
+
+        int cost() {
+            return cost;
+        }
+
+        byte[] salt() {
+            return salt;
+        }
+
+        byte[] hash() {
+            return hash;
+        }
+    }
 }
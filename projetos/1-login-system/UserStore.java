@@ -0,0 +1,737 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Armazenamento persistente dos usuários do LoginManager
+ *
+ * Dois tipos de arquivo no diretório:
+ * - users-N.log: um registro acrescentado a cada cadastro ou troca de hash
+ *   (só append); o último registro de um usuário é o que vale
+ * - users-N.snapshot: todos os usuários até o log N, escrito em segundo
+ *   plano quando o log cresce (compactação); depois que ele está no disco
+ *   os logs até N são apagados
+ *
+ * Registro: [tamanho int][CRC32C int][tipo byte][dados], CRC sobre tipo e
+ * dados. Ao abrir, o snapshot mais recente é lido e os logs seguintes são
+ * repetidos, tudo por leitura mapeada em memória. Uma escrita interrompida
+ * por queda (registro incompleto ou com CRC errado no fim do log) é
+ * detectada e descartada, e o log é cortado ali antes de receber registros
+ * novos. Uma escrita que falha sem queda (disco cheio, erro de E/S) é
+ * desfeita na hora: o log volta ao tamanho anterior antes de o erro chegar
+ * a quem chamou, senão os registros seguintes ficariam depois de um
+ * registro cortado e se perderiam na próxima abertura.
+ *
+ * A compactação troca de log sob o lock (os cadastros seguem no log novo),
+ * grava o snapshot num .tmp, força para o disco e renomeia de forma
+ * atômica: uma queda no meio deixa o snapshot anterior e os logs intactos.
+ * Repetir um registro que também está no snapshot não muda nada, então
+ * o snapshot pode ver cadastros feitos durante a compactação.
+ *
+ * O snapshot é feito a partir do mapa de usuários, e o log trocado é
+ * apagado depois dele: todo registro desse log precisa já estar no mapa.
+ * Por isso um cadastro é publicado pelo append(user, publish), ainda sob
+ * o lock do store, logo depois de gravado; a troca de log espera esse
+ * lock, então nunca vê um registro gravado e ainda não publicado.
+ *
+ * Um registro tem no máximo MAX_RECORD bytes de dados (mais do que isso a
+ * leitura trata como escrita cortada); usuários maiores são recusados no
+ * append.
+ */
+public class UserStore implements AutoCloseable {
+    public static final long DEFAULT_COMPACT_BYTES = 64L * 1024 * 1024;
+
+    private static final int LOG_MAGIC = 0x55534C47;      // "USLG"
+    private static final int SNAPSHOT_MAGIC = 0x55535350; // "USSP"
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER = 8;
+    private static final int RECORD_HEADER = 8;
+    private static final int MAX_RECORD = 1 << 20;
+    private static final long MAP_WINDOW = 64L * 1024 * 1024;
+    private static final int SNAPSHOT_BUFFER = 2 * MAX_RECORD; // sempre cabe um registro inteiro
+
+    private static final byte TYPE_USER = 1;
+    private static final byte TYPE_END = 2; // fim do snapshot, com o total de usuários
+
+    private final Path directory;
+    private final boolean syncEveryWrite;
+    private final long compactThreshold;
+    private final Object compactLock = new Object();
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private final ExecutorService compactor;
+
+    // Protegidos pelo lock do próprio store
+    private FileChannel log;
+    private long logGeneration;
+    private long logBytes;
+    private long snapshotBytes;
+    private boolean torn; // escrita com falha ainda não desfeita depois de logBytes
+    private ByteBuffer recordBuffer = ByteBuffer.allocate(256);
+    private Collection<User> source;
+    private boolean closed;
+
+    // Métricas
+    private volatile int loadedUsers;
+    private volatile long replayedRecords;
+    private volatile long discardedBytes;
+    private volatile long loadMillis;
+    private volatile long appended;
+    private volatile long compactions;
+    private volatile long compactionErrors;
+
+    /**
+     * fsync a cada registro e compactação a partir de DEFAULT_COMPACT_BYTES de log
+     */
+    public UserStore(Path directory) {
+        this(directory, true, DEFAULT_COMPACT_BYTES);
+    }
+
+    /**
+     * @param syncEveryWrite força cada registro para o disco antes de retornar
+     * @param compactThresholdBytes tamanho de log que dispara a compactação
+     *        (ou o tamanho do último snapshot, se for maior)
+     */
+    public UserStore(Path directory, boolean syncEveryWrite, long compactThresholdBytes) {
+        if (compactThresholdBytes <= 0) {
+            throw new IllegalArgumentException("Limite de compactação deve ser positivo");
+        }
+        this.directory = directory;
+        this.syncEveryWrite = syncEveryWrite;
+        this.compactThreshold = compactThresholdBytes;
+        this.compactor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "user-store-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Carrega os usuários gravados no mapa e passa a compactar a partir dele
+     * Chamado uma vez, antes do primeiro append.
+     * @return usuários carregados
+     */
+    public synchronized int attach(Map<String, User> users) throws IOException {
+        if (log != null || closed) {
+            throw new IllegalStateException("UserStore já aberto");
+        }
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+        List<Long> snapshots = generations(".snapshot");
+        List<Long> logs = generations(".log");
+
+        long base = 0;
+        if (!snapshots.isEmpty()) {
+            base = snapshots.get(snapshots.size() - 1);
+            snapshotBytes = readSnapshot(file(base, ".snapshot"), users);
+        }
+        long active = base + 1;
+        for (long generation : logs) {
+            if (generation > base) {
+                replayLog(file(generation, ".log"), users);
+                active = generation;
+            }
+        }
+        openLog(active);
+        deleteObsolete(base);
+
+        source = users.values();
+        loadedUsers = users.size();
+        loadMillis = (System.nanoTime() - start) / 1_000_000;
+        return loadedUsers;
+    }
+
+    /**
+     * Grava o estado atual do usuário (troca de hash de quem já está no mapa)
+     * @throws IllegalArgumentException se o registro passar de MAX_RECORD
+     */
+    public void append(User user) throws IOException {
+        append(user, null);
+    }
+
+    /**
+     * Grava o usuário e, só se a gravação der certo, executa publish (ex.:
+     * colocar o usuário no mapa) antes de liberar o lock do store: uma
+     * compactação não troca de log entre as duas coisas
+     * @param publish ação rápida e sem E/S, ou null
+     * @throws IllegalArgumentException se o registro passar de MAX_RECORD
+     */
+    public void append(User user, Runnable publish) throws IOException {
+        synchronized (this) {
+            if (log == null) {
+                throw new IllegalStateException("UserStore não aberto (attach) ou já fechado");
+            }
+            if (torn) {
+                discardTail(logBytes);
+                torn = false;
+            }
+            ByteBuffer record = encodeRecord(user);
+            try {
+                while (record.hasRemaining()) {
+                    log.write(record);
+                }
+                if (syncEveryWrite) {
+                    log.force(false);
+                }
+            } catch (IOException e) {
+                try {
+                    discardTail(logBytes);
+                } catch (IOException again) {
+                    // O próximo append tenta de novo antes de escrever
+                    torn = true;
+                    e.addSuppressed(again);
+                }
+                throw e;
+            }
+            logBytes += record.limit();
+            appended++;
+            if (publish != null) {
+                publish.run();
+            }
+            if (logBytes <= Math.max(compactThreshold, snapshotBytes) || !compacting.compareAndSet(false, true)) {
+                return;
+            }
+        }
+        compactor.execute(() -> {
+            try {
+                compact();
+            } catch (IOException e) {
+                if (compactionErrors++ == 0) {
+                    System.err.println("Erro ao compactar usuários: " + e.getMessage());
+                }
+            } finally {
+                compacting.set(false);
+            }
+        });
+    }
+
+    /**
+     * Corta o log de volta para size (desfaz um registro escrito pela metade)
+     */
+    private void discardTail(long size) throws IOException {
+        log.truncate(size);
+        log.position(size);
+        if (syncEveryWrite) {
+            log.force(false);
+        }
+    }
+
+    /**
+     * Compacta agora: log novo para os próximos registros, snapshot de todos
+     * os usuários e remoção dos arquivos cobertos por ele
+     */
+    public void compact() throws IOException {
+        synchronized (compactLock) {
+            long covered;
+            Collection<User> users;
+            synchronized (this) {
+                if (log == null) {
+                    throw new IllegalStateException("UserStore não aberto (attach) ou já fechado");
+                }
+                covered = logGeneration;
+                FileChannel previous = log;
+                openLog(covered + 1);
+                try {
+                    previous.force(false);
+                } finally {
+                    previous.close();
+                }
+                users = source;
+            }
+
+            long size = writeSnapshot(covered, users);
+            synchronized (this) {
+                snapshotBytes = size;
+                compactions++;
+            }
+            deleteObsolete(covered);
+        }
+    }
+
+    // Leitura
+
+    /**
+     * Lê o snapshot inteiro; ao contrário do log, um snapshot incompleto é
+     * erro (ele só ganha o nome final depois de gravado e forçado)
+     * @return tamanho do arquivo
+     */
+    private long readSnapshot(Path path, Map<String, User> users) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            checkHeader(channel, SNAPSHOT_MAGIC, path);
+            long[] counts = {0, -1}; // lidos, total gravado no fim
+            Decoder decoder = new Decoder();
+            long end = readRecords(channel, FILE_HEADER, (type, data) -> {
+                if (counts[1] >= 0) {
+                    throw new IOException("Registro depois do fim do snapshot: " + path);
+                }
+                if (type == TYPE_USER) {
+                    User user = decoder.user(data);
+                    users.put(user.getUsername(), user);
+                    counts[0]++;
+                } else if (type == TYPE_END) {
+                    counts[1] = data.getLong();
+                }
+            });
+            if (counts[1] != counts[0] || end != channel.size()) {
+                throw new IOException("Snapshot incompleto ou corrompido: " + path);
+            }
+            return channel.size();
+        }
+    }
+
+    /**
+     * Repete um log e corta o que vier depois do último registro válido
+     */
+    private void replayLog(Path path, Map<String, User> users) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() < FILE_HEADER) {
+                // Queda logo ao criar o log: openLog reescreve o cabeçalho
+                discardedBytes += channel.size();
+                channel.truncate(0);
+                return;
+            }
+            checkHeader(channel, LOG_MAGIC, path);
+            Decoder decoder = new Decoder();
+            long end = readRecords(channel, FILE_HEADER, (type, data) -> {
+                if (type == TYPE_USER) {
+                    User user = decoder.user(data);
+                    users.put(user.getUsername(), user);
+                    replayedRecords++;
+                }
+            });
+            long size = channel.size();
+            if (end < size) {
+                discardedBytes += size - end;
+                channel.truncate(end);
+                channel.force(true);
+            }
+        }
+    }
+
+    /**
+     * Percorre os registros por janelas mapeadas de até MAP_WINDOW bytes
+     * O handler recebe os dados do registro entre position e limit.
+     * @return posição logo depois do último registro válido
+     */
+    private static long readRecords(FileChannel channel, long start, RecordHandler handler) throws IOException {
+        long size = channel.size();
+        long position = start;
+        long windowStart = start;
+        MappedByteBuffer window = null;
+        CRC32C crc = new CRC32C();
+        while (size - position >= RECORD_HEADER) {
+            if (window == null || position + RECORD_HEADER > windowStart + window.capacity()) {
+                windowStart = position;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW, size - position));
+            }
+            int offset = (int) (position - windowStart);
+            int length = window.getInt(offset);
+            int checksum = window.getInt(offset + 4);
+            if (length < 1 || length > MAX_RECORD || length > size - position - RECORD_HEADER) {
+                break; // registro cortado no meio
+            }
+            if (position + RECORD_HEADER + length > windowStart + window.capacity()) {
+                windowStart = position;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW, size - position));
+                offset = 0;
+            }
+
+            int body = offset + RECORD_HEADER;
+            window.limit(body + length).position(body);
+            crc.reset();
+            crc.update(window);
+            if ((int) crc.getValue() != checksum) {
+                break; // escrita parcial ou lixo no fim do arquivo
+            }
+            window.position(body + 1);
+            handler.record(window.get(body), window);
+            window.limit(window.capacity());
+            position += RECORD_HEADER + length;
+        }
+        return position;
+    }
+
+    private static void checkHeader(FileChannel channel, int magic, Path path) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                break;
+            }
+        }
+        header.flip();
+        if (header.remaining() < FILE_HEADER || header.getInt() != magic || header.getInt() != VERSION) {
+            throw new IOException("Arquivo de usuários inválido: " + path);
+        }
+    }
+
+    // Escrita
+
+    /**
+     * Abre (ou cria) o log de uma geração para acrescentar registros
+     */
+    private void openLog(long generation) throws IOException {
+        FileChannel channel = FileChannel.open(file(generation, ".log"),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < FILE_HEADER) {
+                channel.truncate(0);
+                ByteBuffer header = ByteBuffer.allocate(FILE_HEADER).putInt(LOG_MAGIC).putInt(VERSION);
+                header.flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+                channel.force(true);
+                syncDirectory();
+            }
+            channel.position(channel.size());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        log = channel;
+        logGeneration = generation;
+        logBytes = channel.size();
+        torn = false; // o log anterior tem o registro cortado no fim, descartado na abertura
+    }
+
+    /**
+     * Grava todos os usuários em users-N.snapshot.tmp e renomeia para o nome final
+     * @return tamanho do snapshot
+     */
+    private long writeSnapshot(long generation, Collection<User> users) throws IOException {
+        Path temp = directory.resolve("users-" + generation + ".snapshot.tmp");
+        ByteBuffer buffer = ByteBuffer.allocateDirect(SNAPSHOT_BUFFER);
+        CRC32C crc = new CRC32C();
+        long count = 0;
+        long size;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            buffer.putInt(SNAPSHOT_MAGIC).putInt(VERSION);
+            for (User user : users) {
+                Encoded encoded = new Encoded(user);
+                if (buffer.remaining() < RECORD_HEADER + encoded.length) {
+                    flush(channel, buffer);
+                }
+                encoded.writeTo(buffer, crc);
+                count++;
+            }
+            if (buffer.remaining() < RECORD_HEADER + 9) {
+                flush(channel, buffer);
+            }
+            int start = buffer.position();
+            buffer.putInt(9).putInt(0).put(TYPE_END).putLong(count);
+            buffer.putInt(start + 4, checksum(crc, buffer, start + RECORD_HEADER, 9));
+            flush(channel, buffer);
+            channel.force(true);
+            size = channel.size();
+        }
+        Files.move(temp, file(generation, ".snapshot"), StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+        return size;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Registro completo de um usuário no buffer reaproveitado dos appends
+     */
+    private ByteBuffer encodeRecord(User user) {
+        Encoded encoded = new Encoded(user);
+        checkSize(encoded);
+        if (recordBuffer.capacity() < RECORD_HEADER + encoded.length) {
+            recordBuffer = ByteBuffer.allocate(RECORD_HEADER + encoded.length);
+        }
+        recordBuffer.clear();
+        encoded.writeTo(recordBuffer, new CRC32C());
+        recordBuffer.flip();
+        return recordBuffer;
+    }
+
+    private static void checkSize(Encoded encoded) {
+        if (encoded.length > MAX_RECORD) {
+            throw new IllegalArgumentException("Usuário grande demais para gravar: " + encoded.length
+                + " bytes (máximo " + MAX_RECORD + ")");
+        }
+    }
+
+    private static int checksum(CRC32C crc, ByteBuffer buffer, int from, int length) {
+        ByteBuffer body = buffer.duplicate();
+        body.limit(from + length).position(from);
+        crc.reset();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    // Arquivos
+
+    private Path file(long generation, String suffix) {
+        return directory.resolve("users-" + generation + suffix);
+    }
+
+    /**
+     * Gerações existentes de um tipo de arquivo, em ordem crescente
+     */
+    private List<Long> generations(String suffix) throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(path -> {
+                String name = path.getFileName().toString();
+                if (name.startsWith("users-") && name.endsWith(suffix)) {
+                    try {
+                        generations.add(Long.parseLong(name.substring(6, name.length() - suffix.length())));
+                    } catch (NumberFormatException e) {
+                        // outro arquivo com nome parecido
+                    }
+                }
+            });
+        }
+        Collections.sort(generations);
+        return generations;
+    }
+
+    /**
+     * Apaga logs já cobertos pelo snapshot da geração base, snapshots
+     * anteriores e restos de compactações interrompidas (só a compactação
+     * grava .tmp, e nunca duas ao mesmo tempo)
+     */
+    private void deleteObsolete(long base) throws IOException {
+        for (long generation : generations(".log")) {
+            if (generation <= base) {
+                Files.deleteIfExists(file(generation, ".log"));
+            }
+        }
+        for (long generation : generations(".snapshot")) {
+            if (generation < base) {
+                Files.deleteIfExists(file(generation, ".snapshot"));
+            }
+        }
+        for (long generation : generations(".snapshot.tmp")) {
+            Files.deleteIfExists(file(generation, ".snapshot.tmp"));
+        }
+    }
+
+    /**
+     * Torna criações e renomeações duráveis (fsync do diretório, onde o
+     * sistema permite)
+     */
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Nem todo sistema abre diretórios para leitura
+        }
+    }
+
+    /**
+     * Espera a compactação em andamento, força o log para o disco e fecha
+     */
+    @Override
+    public void close() throws IOException {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            closed = true;
+            if (log != null) {
+                try {
+                    log.force(false);
+                } finally {
+                    log.close();
+                    log = null;
+                }
+            }
+        }
+    }
+
+    // Métricas
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public int getLoadedUsers() {
+        return loadedUsers;
+    }
+
+    /**
+     * Registros de log repetidos na abertura (além do snapshot)
+     */
+    public long getReplayedRecords() {
+        return replayedRecords;
+    }
+
+    /**
+     * Bytes descartados no fim dos logs (escritas interrompidas por queda)
+     */
+    public long getDiscardedBytes() {
+        return discardedBytes;
+    }
+
+    public long getLoadMillis() {
+        return loadMillis;
+    }
+
+    public long getAppended() {
+        return appended;
+    }
+
+    public long getCompactions() {
+        return compactions;
+    }
+
+    public long getCompactionErrors() {
+        return compactionErrors;
+    }
+
+    public synchronized long getLogBytes() {
+        return logBytes;
+    }
+
+    public synchronized long getSnapshotBytes() {
+        return snapshotBytes;
+    }
+
+    private interface RecordHandler {
+        void record(byte type, ByteBuffer data) throws IOException;
+    }
+
+    /**
+     * Campos de um usuário já convertidos para bytes
+     * [nome][email ou -1][criado em][ativo][algoritmo][custo][sal][hash],
+     * textos e arrays com o tamanho (int) na frente
+     */
+    private static final class Encoded {
+        private final byte[] username;
+        private final byte[] email;
+        private final long createdAt;
+        private final boolean active;
+        private final byte[] algorithm;
+        private final int cost;
+        private final byte[] salt;
+        private final byte[] hash;
+        private final int length;
+
+        Encoded(User user) {
+            User.Credential credential = user.getCredential();
+            this.username = user.getUsername().getBytes(StandardCharsets.UTF_8);
+            this.email = user.getEmail() == null ? null : user.getEmail().getBytes(StandardCharsets.UTF_8);
+            this.createdAt = user.getCreatedAt();
+            this.active = user.isActive();
+            this.algorithm = credential.algorithm().getBytes(StandardCharsets.UTF_8);
+            this.cost = credential.cost();
+            this.salt = credential.salt();
+            this.hash = credential.hash();
+            this.length = 1 + 4 + username.length + 4 + (email == null ? 0 : email.length) + 8 + 1
+                + 4 + algorithm.length + 4 + 4 + salt.length + 4 + hash.length;
+        }
+
+        /**
+         * Escreve cabeçalho, tipo e dados na posição atual do buffer
+         */
+        void writeTo(ByteBuffer buffer, CRC32C crc) {
+            int start = buffer.position();
+            buffer.putInt(length).putInt(0).put(TYPE_USER);
+            putBytes(buffer, username);
+            putBytes(buffer, email);
+            buffer.putLong(createdAt).put((byte) (active ? 1 : 0));
+            putBytes(buffer, algorithm);
+            buffer.putInt(cost);
+            putBytes(buffer, salt);
+            putBytes(buffer, hash);
+            buffer.putInt(start + 4, checksum(crc, buffer, start + RECORD_HEADER, length));
+        }
+
+        private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+            if (bytes == null) {
+                buffer.putInt(-1);
+            } else {
+                buffer.putInt(bytes.length).put(bytes);
+            }
+        }
+    }
+
+    /**
+     * Lê usuários dos registros, reaproveitando o PasswordHasher do
+     * algoritmo anterior (quase sempre o mesmo em todos os registros)
+     * Na abertura quase todo o tempo vai em alocar e coletar objetos, então
+     * os textos passam por um buffer reaproveitado: só a String é alocada.
+     */
+    private static final class Decoder {
+        private byte[] lastAlgorithm = new byte[0];
+        private PasswordHasher lastHasher;
+        private byte[] scratch = new byte[256];
+
+        User user(ByteBuffer data) {
+            String username = string(data);
+            String email = string(data);
+            long createdAt = data.getLong();
+            boolean active = data.get() != 0;
+            PasswordHasher hasher = hasher(data);
+            int cost = data.getInt();
+            byte[] salt = bytes(data);
+            byte[] hash = bytes(data);
+            return new User(username, email, createdAt, active, hasher, cost, salt, hash);
+        }
+
+        private PasswordHasher hasher(ByteBuffer data) {
+            int length = data.getInt();
+            boolean same = lastHasher != null && length == lastAlgorithm.length;
+            for (int i = 0; same && i < length; i++) {
+                same = data.get(data.position() + i) == lastAlgorithm[i];
+            }
+            if (!same) {
+                lastAlgorithm = new byte[length];
+                data.get(data.position(), lastAlgorithm);
+                lastHasher = PasswordHasher.forAlgorithm(new String(lastAlgorithm, StandardCharsets.UTF_8));
+            }
+            data.position(data.position() + length);
+            return lastHasher;
+        }
+
+        private String string(ByteBuffer data) {
+            int length = data.getInt();
+            if (length < 0) {
+                return null;
+            }
+            if (scratch.length < length) {
+                scratch = new byte[length];
+            }
+            data.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private static byte[] bytes(ByteBuffer data) {
+            int length = data.getInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            data.get(bytes);
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,471 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Teste do UserStore: volume, queda no meio de uma escrita e compactação
+ *
+ * - N contas gravadas no log e carregadas de volta (tempo de abertura)
+ * - registro cortado no fim do log (queda durante a escrita): descartado,
+ *   o log é cortado e volta a receber registros
+ * - lixo no fim do log: descartado do mesmo jeito
+ * - escrita que falha pela metade sem queda (disco cheio): desfeita na
+ *   hora, e os registros seguintes sobrevivem à reabertura
+ * - compactações (manual e em segundo plano) com cadastros simultâneos:
+ *   nada se perde, e a abertura pelo snapshot dá o mesmo resultado
+ * - LoginManager: cadastro e rehash sobrevivem a fechar e abrir de novo,
+ *   inclusive com uma compactação a cada cadastro e o append demorando
+ *   para voltar (o cadastro já precisa estar no mapa quando o log é trocado)
+ * - usuário maior que um registro: recusado no cadastro e no append
+ *
+ * Como executar:
+ * javac *.java
+ * java UserStoreStressTest [contas] [threads]
+ * (10 milhões de contas precisam de uns 4 GB de heap: java -Xmx4g ...)
+ */
+public class UserStoreStressTest {
+    private static final int EXTRA_USERS = 3;
+    private static final int GARBAGE_BYTES = 100;
+    private static final int TORN_BYTES = 10;
+    private static final int SLOW_USERS = 8;
+    private static final long SLOW_APPEND_MILLIS = 50;
+    private static final int USERS_PER_THREAD = 2000;
+    private static final long SMALL_COMPACT_BYTES = 64 * 1024;
+    private static final String PASSWORD = "senha-forte-123";
+
+    public static void main(String[] args) throws Exception {
+        int accounts = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+
+        Path directory = Files.createTempDirectory("user-store");
+        Path managerDirectory = Files.createTempDirectory("user-store-login");
+        Path tornDirectory = Files.createTempDirectory("user-store-torn");
+        Path slowDirectory = Files.createTempDirectory("user-store-slow");
+        Path logFile = Files.createTempFile("user-store", ".log");
+        PasswordHasher sha256 = new Sha256Hasher();
+        List<String> failures = new ArrayList<>();
+        double writeSeconds;
+        double logLoadSeconds;
+        double snapshotLoadSeconds;
+        long discarded;
+        long compactions;
+        long snapshotBytes;
+        try {
+            // 1. Gravação de N contas (sem fsync por registro, para medir o volume)
+            long start = System.nanoTime();
+            try (UserStore store = new UserStore(directory, false, Long.MAX_VALUE)) {
+                store.attach(new ConcurrentHashMap<>());
+                for (int i = 0; i < accounts; i++) {
+                    store.append(new User("user" + i, "user" + i + "@exemplo.com", "senha-" + i, sha256));
+                }
+            }
+            writeSeconds = (System.nanoTime() - start) / 1e9;
+
+            // 2. Abertura: o log inteiro repetido por leitura mapeada
+            Map<String, User> users = new ConcurrentHashMap<>();
+            UserStore store = new UserStore(directory, false, Long.MAX_VALUE);
+            start = System.nanoTime();
+            check(failures, "contas carregadas", accounts, store.attach(users));
+            logLoadSeconds = (System.nanoTime() - start) / 1e9;
+            check(failures, "registros repetidos", accounts, store.getReplayedRecords());
+            check(failures, "bytes descartados sem queda", 0, store.getDiscardedBytes());
+            checkPasswords(failures, users, accounts);
+
+            // 3. Queda no meio do último registro
+            for (int i = 0; i < EXTRA_USERS; i++) {
+                User extra = new User("extra" + i, null, PASSWORD, sha256);
+                users.put(extra.getUsername(), extra);
+                store.append(extra);
+            }
+            store.close();
+            Path log = onlyFile(directory, ".log");
+            long fullSize = Files.size(log);
+            truncate(log, fullSize - 5);
+
+            users = new ConcurrentHashMap<>();
+            store = new UserStore(directory, false, Long.MAX_VALUE);
+            check(failures, "contas após registro cortado", accounts + EXTRA_USERS - 1, store.attach(users));
+            check(failures, "extra cortado ausente", 0, users.containsKey("extra" + (EXTRA_USERS - 1)) ? 1 : 0);
+            discarded = store.getDiscardedBytes();
+            check(failures, "registro cortado descartado", 0, discarded == 0 ? 1 : 0);
+
+            // O log cortado volta a receber registros
+            User again = new User("extra" + (EXTRA_USERS - 1), null, PASSWORD, sha256);
+            users.put(again.getUsername(), again);
+            store.append(again);
+            store.close();
+
+            // Lixo no fim do log (bloco escrito pela metade)
+            byte[] garbage = new byte[GARBAGE_BYTES];
+            new Random(42).nextBytes(garbage);
+            Files.write(log, garbage, StandardOpenOption.APPEND);
+            users = new ConcurrentHashMap<>();
+            store = new UserStore(directory, false, SMALL_COMPACT_BYTES);
+            check(failures, "contas após lixo no fim", accounts + EXTRA_USERS, store.attach(users));
+            check(failures, "lixo descartado", GARBAGE_BYTES, store.getDiscardedBytes());
+            discarded += store.getDiscardedBytes();
+
+            // 4. Cadastros simultâneos com compactações manuais e em segundo plano
+            registerWhileCompacting(store, users, threads, sha256);
+            compactions = store.getCompactions();
+            snapshotBytes = store.getSnapshotBytes();
+            check(failures, "compactações em segundo plano", 0, compactions < 3 ? 1 : 0);
+            check(failures, "erros de compactação", 0, store.getCompactionErrors());
+            store.close();
+            long expected = (long) accounts + EXTRA_USERS + (long) threads * USERS_PER_THREAD;
+
+            users = null; // só um mapa com todas as contas na memória por vez
+            store = null;
+            Map<String, User> reopened = new ConcurrentHashMap<>();
+            store = new UserStore(directory, false, Long.MAX_VALUE);
+            start = System.nanoTime();
+            check(failures, "contas pelo snapshot", expected, store.attach(reopened));
+            snapshotLoadSeconds = (System.nanoTime() - start) / 1e9;
+            check(failures, "registros repetidos após compactar", 0, store.getReplayedRecords());
+            check(failures, "snapshots no diretório", 1, countFiles(directory, ".snapshot"));
+            checkPasswords(failures, reopened, accounts);
+            check(failures, "cadastro simultâneo presente", 1,
+                reopened.containsKey("novo-" + (threads - 1) + "-" + (USERS_PER_THREAD - 1)) ? 1 : 0);
+            store.close();
+            reopened = null;
+
+            // 5. Escrita que falha depois de TORN_BYTES (disco cheio) e usuário grande demais
+            store = new UserStore(tornDirectory, true, Long.MAX_VALUE);
+            users = new ConcurrentHashMap<>();
+            store.attach(users);
+            store.append(new User("antes", null, PASSWORD, sha256));
+            try {
+                store.append(new User("grande", "x".repeat(2 << 20), PASSWORD, sha256));
+                failures.add("usuário maior que um registro foi gravado");
+            } catch (IllegalArgumentException e) {
+                // esperado
+            }
+            failNextWrite(store, TORN_BYTES);
+            try {
+                store.append(new User("cortado", null, PASSWORD, sha256));
+                failures.add("escrita com falha não lançou IOException");
+            } catch (IOException e) {
+                // esperado
+            }
+            store.append(new User("depois", null, PASSWORD, sha256));
+            store.close();
+            users = new ConcurrentHashMap<>();
+            store = new UserStore(tornDirectory, true, Long.MAX_VALUE);
+            check(failures, "contas após escrita com falha", 2, store.attach(users));
+            check(failures, "registro seguinte à falha presente", 1, users.containsKey("depois") ? 1 : 0);
+            check(failures, "bytes da escrita com falha no log", 0, store.getDiscardedBytes());
+            store.close();
+            users = null;
+
+            // 6. LoginManager: cadastro e rehash gravados
+            PrintStream console = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            try {
+                LoginManager manager = new LoginManager(new AuditLog(logFile), false);
+                manager.setUserStore(new UserStore(managerDirectory));
+                manager.setPasswordHasher(sha256);
+                manager.register("alice", "alice@exemplo.com", PASSWORD);
+                manager.setPasswordHasher(new Pbkdf2Hasher(1000));
+                check(failures, "login com rehash", 1, manager.login("alice", PASSWORD) ? 1 : 0);
+                check(failures, "rehashes", 1, manager.getRehashes());
+                manager.close();
+
+                LoginManager restarted = new LoginManager(new AuditLog(logFile), false);
+                restarted.setPasswordHasher(new Pbkdf2Hasher(1000));
+                check(failures, "usuários do LoginManager carregados", 1,
+                    restarted.setUserStore(new UserStore(managerDirectory)));
+                check(failures, "login após reabrir", 1, restarted.login("alice", PASSWORD) ? 1 : 0);
+                check(failures, "rehash repetido após reabrir", 0, restarted.getRehashes());
+                check(failures, "cadastro duplicado após reabrir", 0,
+                    restarted.register("alice", "alice@exemplo.com", PASSWORD) ? 1 : 0);
+                check(failures, "cadastro com email longo demais", 0,
+                    restarted.register("bob", "b".repeat(2 << 20) + "@exemplo.com", PASSWORD) ? 1 : 0);
+                restarted.close();
+
+                // Compactação a cada cadastro, com o append demorando a voltar
+                LoginManager compacting = new LoginManager(new AuditLog(logFile), false);
+                compacting.setPasswordHasher(sha256);
+                compacting.setUserStore(new SlowAppendStore(slowDirectory));
+                ExecutorService pool = Executors.newFixedThreadPool(threads);
+                try {
+                    List<Future<Boolean>> registered = new ArrayList<>();
+                    for (int i = 0; i < SLOW_USERS; i++) {
+                        String name = "lento" + i;
+                        registered.add(pool.submit(() -> compacting.register(name, null, PASSWORD)));
+                    }
+                    for (Future<Boolean> future : registered) {
+                        check(failures, "cadastro com compactação", 1, future.get() ? 1 : 0);
+                    }
+                } finally {
+                    pool.shutdown();
+                }
+                check(failures, "compactações durante os cadastros", 0,
+                    compacting.getUserStore().getCompactions() == 0 ? 1 : 0);
+                compacting.close();
+
+                LoginManager reloaded = new LoginManager(new AuditLog(logFile), false);
+                check(failures, "cadastros com compactação após reabrir", SLOW_USERS,
+                    reloaded.setUserStore(new UserStore(slowDirectory)));
+                reloaded.close();
+            } finally {
+                System.setOut(console);
+            }
+        } finally {
+            deleteRecursively(directory);
+            deleteRecursively(managerDirectory);
+            deleteRecursively(tornDirectory);
+            deleteRecursively(slowDirectory);
+            Files.deleteIfExists(logFile);
+        }
+
+        System.out.printf("💾 %d contas gravadas em %.2f s, carregadas do log em %.2f s\n",
+            accounts, writeSeconds, logLoadSeconds);
+        System.out.printf("🗜️  %d compactações, snapshot de %d MB carregado em %.2f s\n",
+            compactions, snapshotBytes / (1024 * 1024), snapshotLoadSeconds);
+        System.out.printf("✂️  %d bytes de escritas interrompidas descartados\n", discarded);
+        if (failures.isEmpty()) {
+            System.out.println("✅ Nenhuma conta perdida ou corrompida");
+        } else {
+            failures.forEach(failure -> System.out.println("❌ " + failure));
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Cadastros em várias threads (gravados e depois publicados no mapa sob o
+     * lock do store, como no LoginManager) enquanto a thread principal compacta
+     */
+    private static void registerWhileCompacting(UserStore store, Map<String, User> users, int threads,
+                                                PasswordHasher hasher) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < USERS_PER_THREAD; i++) {
+                        User user = new User("novo-" + thread + "-" + i, null, PASSWORD, hasher);
+                        store.append(user, () -> users.put(user.getUsername(), user));
+                    }
+                    return null;
+                }));
+            }
+            store.compact();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            store.compact();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Troca o log do store por um canal que grava só bytes bytes da próxima
+     * escrita e falha (como um disco que enche no meio do registro)
+     */
+    private static void failNextWrite(UserStore store, int bytes) throws ReflectiveOperationException {
+        Field log = UserStore.class.getDeclaredField("log");
+        log.setAccessible(true);
+        synchronized (store) {
+            log.set(store, new FailingChannel((FileChannel) log.get(store), bytes));
+        }
+    }
+
+    private static void check(List<String> failures, String what, long expected, long actual) {
+        if (expected != actual) {
+            failures.add(what + ": esperado " + expected + ", obtido " + actual);
+        }
+    }
+
+    /**
+     * Algumas contas espalhadas precisam conferir a senha original
+     */
+    private static void checkPasswords(List<String> failures, Map<String, User> users, int accounts) {
+        int wrong = 0;
+        for (int i = 0; i < accounts; i += Math.max(1, accounts / 1000)) {
+            User user = users.get("user" + i);
+            if (user == null || !user.verifyPassword("senha-" + i) || user.verifyPassword("senha-" + (i + 1))) {
+                wrong++;
+            }
+        }
+        check(failures, "senhas que não conferem", 0, wrong);
+    }
+
+    private static void truncate(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    private static Path onlyFile(Path directory, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(suffix)).findFirst()
+                .orElseThrow(() -> new IOException("Nenhum arquivo " + suffix + " em " + directory));
+        }
+    }
+
+    private static long countFiles(Path directory, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(suffix)).count();
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Compacta a cada registro e demora SLOW_APPEND_MILLIS para voltar do
+     * append: a compactação disparada por ele roda enquanto o cadastro
+     * ainda não terminou
+     */
+    private static final class SlowAppendStore extends UserStore {
+        SlowAppendStore(Path directory) {
+            super(directory, false, 1);
+        }
+
+        @Override
+        public void append(User user, Runnable publish) throws IOException {
+            super.append(user, publish);
+            try {
+                Thread.sleep(SLOW_APPEND_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * FileChannel que repassa tudo ao canal real, menos a próxima escrita:
+     * essa grava só os primeiros bytes e lança IOException
+     */
+    private static final class FailingChannel extends FileChannel {
+        private final FileChannel channel;
+        private int failAfter;
+
+        FailingChannel(FileChannel channel, int failAfter) {
+            this.channel = channel;
+            this.failAfter = failAfter;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (failAfter < 0) {
+                return channel.write(src);
+            }
+            ByteBuffer part = src.duplicate();
+            part.limit(part.position() + Math.min(failAfter, part.remaining()));
+            int written = channel.write(part);
+            src.position(src.position() + written);
+            failAfter = -1;
+            throw new IOException("disco cheio (simulado)");
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return channel.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return channel.read(dsts, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return channel.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return channel.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            channel.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            channel.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            channel.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return channel.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return channel.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return channel.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return channel.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return channel.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return channel.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return channel.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache de verificações de senha recentes
+ *
+ * Depois de um login bem-sucedido, guarda por ttlMillis uma impressão
+ * digital da senha (SHA-256 com um segredo aleatório deste cache, que nunca
+ * sai da memória) junto com a credencial exata que foi conferida. Um novo
+ * login do mesmo usuário com a mesma senha custa um SHA-256 em vez de um
+ * PBKDF2 inteiro e nem passa pelo pool de verificação.
+ *
+ * - Só sucessos entram: senha errada sempre paga o hash completo
+ * - Rehash troca a credencial do usuário, e a entrada antiga deixa de valer
+ * - Tamanho limitado: partições com LinkedHashMap em ordem de acesso (LRU),
+ *   cada uma com seu lock; a menos usada sai quando a partição enche
+ */
+public class VerificationCache {
+    public static final long DEFAULT_TTL = 60 * 1000; // 1 minuto em ms
+    public static final int DEFAULT_CAPACITY = 10_000;
+
+    private static final int STRIPES = 16; // potência de 2
+    private static final int SECRET_LENGTH = 32;
+
+    private final Stripe[] stripes;
+    private final long ttlMillis;
+    private final byte[] secret;
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+    private final LongAdder expirations;
+
+    public VerificationCache() {
+        this(DEFAULT_TTL, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param ttlMillis por quanto tempo uma verificação vale
+     * @param capacity entradas guardadas no máximo (somando as partições)
+     */
+    public VerificationCache(long ttlMillis, int capacity) {
+        if (ttlMillis <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Prazo e capacidade devem ser positivos");
+        }
+        this.ttlMillis = ttlMillis;
+        this.secret = new byte[SECRET_LENGTH];
+        new SecureRandom().nextBytes(secret);
+        int perStripe = Math.max(1, (capacity + STRIPES - 1) / STRIPES);
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+        this.expirations = new LongAdder();
+    }
+
+    /**
+     * Confere se esta senha já foi verificada para a credencial atual do usuário
+     */
+    boolean matches(User user, String password) {
+        Stripe stripe = stripeFor(user.getUsername());
+        Entry entry;
+        synchronized (stripe) {
+            entry = stripe.entries.get(user.getUsername());
+            if (entry != null && System.currentTimeMillis() - entry.verifiedAt > ttlMillis) {
+                stripe.entries.remove(user.getUsername());
+                expirations.increment();
+                entry = null;
+            }
+        }
+        // Impressão digital fora do lock
+        if (entry != null && entry.credential == user.getCredential()
+                && HashUtils.constantTimeEquals(entry.fingerprint, fingerprint(password))) {
+            hits.increment();
+            return true;
+        }
+        misses.increment();
+        return false;
+    }
+
+    /**
+     * Guarda uma verificação bem-sucedida
+     */
+    void remember(User user, String password) {
+        Entry entry = new Entry(user.getCredential(), fingerprint(password), System.currentTimeMillis());
+        Stripe stripe = stripeFor(user.getUsername());
+        synchronized (stripe) {
+            stripe.put(user.getUsername(), entry);
+        }
+    }
+
+    private byte[] fingerprint(String password) {
+        return HashUtils.sha256(secret, password);
+    }
+
+    private Stripe stripeFor(String username) {
+        int h = username.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Entradas ainda válidas descartadas por falta de espaço
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    public int size() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                total += stripe.entries.size();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Partição em ordem de acesso: o início do mapa é a entrada menos usada
+     * (só acessada com o lock dela)
+     */
+    private final class Stripe {
+        private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final int capacity;
+
+        Stripe(int capacity) {
+            this.capacity = capacity;
+        }
+
+        void put(String username, Entry entry) {
+            entries.put(username, entry);
+            if (entries.size() > capacity) {
+                Iterator<Entry> eldest = entries.values().iterator();
+                if (System.currentTimeMillis() - eldest.next().verifiedAt > ttlMillis) {
+                    expirations.increment();
+                } else {
+                    evictions.increment();
+                }
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Credencial conferida (por identidade), impressão digital da senha e horário
+     */
+    private static final class Entry {
+        private final User.Credential credential;
+        private final byte[] fingerprint;
+        private final long verifiedAt;
+
+        Entry(User.Credential credential, byte[] fingerprint, long verifiedAt) {
+            this.credential = credential;
+            this.fingerprint = fingerprint;
+            this.verifiedAt = verifiedAt;
+        }
+    }
+}
@@ -1,6 +1,4 @@
 import java.io.*;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
 /**
@@ -15,7 +13,7 @@ import java.util.*;
  * ✓ Adicionar/Remover entradas
  *
  * Como executar:
- * javac PasswordEntry.java PasswordManager.java
+ * javac *.java
  * java PasswordManager
  */
 public class PasswordManager {
@@ -214,19 +212,10 @@ public class PasswordManager {
         }
     }
 
+    /**
+     * SHA-256 da senha (UTF-8) em hexadecimal
+     */
     public static String hashPassword(String password) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(password.getBytes());
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) hexString.append('0');
-                hexString.append(hex);
-            }
-            return hexString.toString();
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Erro ao fazer hash", e);
-        }
+        return HashUtils.sha256Hex(password);
     }
 }
@@ -0,0 +1,303 @@
+import java.util.*;
+
+/**
+ * Detector de brute force por janela deslizante de tempo
+ * Conta as falhas de cada IP nos últimos windowSeconds usando um anel de
+ * até BUCKETS buckets: cada evento custa O(1) amortizado, porque só os
+ * buckets que saem da janela são zerados.
+ *
+ * A janela precisa ser um múltiplo exato do bucket. Janelas de até
+ * BUCKETS segundos usam buckets de 1 s; as demais usam o número de buckets
+ * entre BUCKETS/2 e BUCKETS que divide a janela (100 s = 10 × 10 s) ou,
+ * se nenhum divide, o que menos a arredonda para cima (97 s = 7 × 14 s).
+ * getWindowSeconds() informa a janela efetiva.
+ *
+ * Um ataque começa quando a contagem na janela passa de threshold e termina
+ * quando volta a ficar abaixo (ou o IP fica ocioso). Para cada ataque são
+ * guardados início (momento em que o limiar foi ultrapassado), fim (última
+ * falha), pico de falhas na janela e total de falhas.
+ *
+ * A memória é limitada: IPs sem falhas há mais de uma janela são
+ * descartados, e no máximo maxTrackedIps ficam em acompanhamento (os
+ * menos recentes saem primeiro).
+ *
+ * Os eventos devem chegar em ordem de tempo (como no arquivo); falhas
+ * mais antigas que a janela atual do IP são ignoradas.
+ */
+public class BruteForceDetector {
+    public static final long DEFAULT_WINDOW_SECONDS = 60;
+    public static final int DEFAULT_THRESHOLD = 5;
+    public static final int DEFAULT_MAX_TRACKED_IPS = 100_000;
+
+    private static final int BUCKETS = 12;
+
+    private final long requestedWindowSeconds;
+    private final long windowSeconds;
+    private final int buckets;
+    private final long bucketSeconds;
+    private final int threshold;
+    private final int maxTrackedIps;
+
+    private final LinkedHashMap<Long, IpWindow> windows;
+    private final List<Attack> attacks;
+    private AttackListener listener;
+    private long now = Long.MIN_VALUE;
+    private long lateEvents;
+    private long evictedIps;
+
+    public BruteForceDetector() {
+        this(DEFAULT_WINDOW_SECONDS, DEFAULT_THRESHOLD, DEFAULT_MAX_TRACKED_IPS);
+    }
+
+    /**
+     * @param windowSeconds tamanho da janela deslizante
+     * @param threshold falhas na janela acima das quais há ataque
+     * @param maxTrackedIps limite de IPs acompanhados ao mesmo tempo
+     */
+    public BruteForceDetector(long windowSeconds, int threshold, int maxTrackedIps) {
+        if (windowSeconds <= 0 || threshold < 0 || maxTrackedIps <= 0) {
+            throw new IllegalArgumentException("Configuração inválida do detector");
+        }
+        this.requestedWindowSeconds = windowSeconds;
+        this.buckets = bucketCount(windowSeconds);
+        this.bucketSeconds = (windowSeconds + buckets - 1) / buckets;
+        this.windowSeconds = buckets * bucketSeconds;
+        this.threshold = threshold;
+        this.maxTrackedIps = maxTrackedIps;
+        this.windows = new LinkedHashMap<>(16, 0.75f, true);
+        this.attacks = new ArrayList<>();
+    }
+
+    /**
+     * Janela que o detector usa de fato para a janela pedida
+     */
+    public static long effectiveWindowSeconds(long windowSeconds) {
+        int n = bucketCount(windowSeconds);
+        return n * ((windowSeconds + n - 1) / n);
+    }
+
+    /**
+     * Número de buckets da janela (ver comentário da classe)
+     */
+    private static int bucketCount(long windowSeconds) {
+        if (windowSeconds <= BUCKETS) {
+            return (int) windowSeconds;
+        }
+        int best = BUCKETS;
+        long bestExcess = Long.MAX_VALUE;
+        for (int n = BUCKETS; n >= BUCKETS / 2; n--) {
+            long excess = n * ((windowSeconds + n - 1) / n) - windowSeconds;
+            if (excess < bestExcess) {
+                best = n;
+                bestExcess = excess;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Recebe avisos de ataques assim que começam (ex.: modo --follow)
+     */
+    public void setListener(AttackListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Registra uma falha de login
+     * @param ipKey chave de IP no formato do IpCodec
+     * @param timestamp segundos desde a época
+     */
+    public void accept(long ipKey, long timestamp) {
+        if (timestamp == TimestampCodec.NO_TIMESTAMP) {
+            return;
+        }
+        now = Math.max(now, timestamp);
+
+        IpWindow window = windows.get(ipKey);
+        if (window == null) {
+            window = new IpWindow(ipKey);
+            windows.put(ipKey, window);
+        }
+        if (!window.add(timestamp)) {
+            lateEvents++;
+        }
+        evictIdle();
+    }
+
+    /**
+     * Encerra os ataques ainda abertos (fim da entrada)
+     */
+    public void finish() {
+        for (IpWindow window : windows.values()) {
+            window.closeAttack();
+        }
+        attacks.sort(Comparator.comparingLong(a -> a.start));
+    }
+
+    /**
+     * Descarta IPs ociosos (sem falhas há mais de uma janela) e o excesso
+     * sobre maxTrackedIps, sempre a partir do menos recente
+     */
+    private void evictIdle() {
+        Iterator<IpWindow> it = windows.values().iterator();
+        while (it.hasNext()) {
+            IpWindow eldest = it.next();
+            boolean idle = now - eldest.lastSeen >= windowSeconds;
+            if (!idle && windows.size() <= maxTrackedIps) {
+                break;
+            }
+            eldest.closeAttack();
+            it.remove();
+            evictedIps++;
+        }
+    }
+
+    // Getters
+    public List<Attack> getAttacks() {
+        return attacks;
+    }
+
+    /**
+     * Janela efetiva (pode ser maior que a pedida, ver comentário da classe)
+     */
+    public long getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    public long getRequestedWindowSeconds() {
+        return requestedWindowSeconds;
+    }
+
+    public long getBucketSeconds() {
+        return bucketSeconds;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public int getTrackedIps() {
+        return windows.size();
+    }
+
+    public long getLateEvents() {
+        return lateEvents;
+    }
+
+    public long getEvictedIps() {
+        return evictedIps;
+    }
+
+    /**
+     * Janela de um IP: anel de buckets contadores
+     */
+    private class IpWindow {
+        private final long ipKey;
+        private final int[] counts = new int[buckets];
+        private long headBucket = Long.MIN_VALUE;
+        private int windowCount;
+        private long lastSeen;
+        private Attack current;
+
+        IpWindow(long ipKey) {
+            this.ipKey = ipKey;
+        }
+
+        boolean add(long timestamp) {
+            long bucket = Math.floorDiv(timestamp, bucketSeconds);
+            if (headBucket == Long.MIN_VALUE) {
+                headBucket = bucket;
+            } else if (bucket > headBucket) {
+                advance(bucket);
+            } else if (bucket <= headBucket - buckets) {
+                return false;
+            }
+
+            counts[(int) Math.floorMod(bucket, (long) buckets)]++;
+            windowCount++;
+            lastSeen = Math.max(lastSeen, timestamp);
+
+            if (windowCount > threshold) {
+                if (current == null) {
+                    current = new Attack(ipKey, timestamp);
+                    current.failures = windowCount - 1; // falhas anteriores na janela
+                    attacks.add(current);
+                    if (listener != null) {
+                        listener.onAttack(current, windowCount);
+                    }
+                }
+                current.end = Math.max(current.end, timestamp);
+                current.failures++;
+                current.peak = Math.max(current.peak, windowCount);
+            }
+            return true;
+        }
+
+        /**
+         * Move a janela até bucket, zerando só os buckets que saíram
+         */
+        private void advance(long bucket) {
+            long steps = Math.min(bucket - headBucket, buckets);
+            for (long b = bucket - steps + 1; b <= bucket; b++) {
+                int slot = (int) Math.floorMod(b, (long) buckets);
+                windowCount -= counts[slot];
+                counts[slot] = 0;
+            }
+            headBucket = bucket;
+            if (windowCount <= threshold) {
+                closeAttack();
+            }
+        }
+
+        void closeAttack() {
+            current = null;
+        }
+    }
+
+    /**
+     * Ataque detectado para um IP
+     */
+    public static class Attack {
+        private final long ipKey;
+        private final long start;
+        private long end;
+        private int peak;
+        private long failures;
+
+        Attack(long ipKey, long start) {
+            this.ipKey = ipKey;
+            this.start = start;
+            this.end = start;
+        }
+
+        public long getIpKey() {
+            return ipKey;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getEnd() {
+            return end;
+        }
+
+        /**
+         * Maior número de falhas observado dentro de uma janela
+         */
+        public int getPeak() {
+            return peak;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+    }
+
+    /**
+     * Callback chamado quando um ataque começa
+     */
+    public interface AttackListener {
+        void onAttack(Attack attack, int windowCount);
+    }
+}
@@ -0,0 +1,235 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Leitor paralelo de arquivos de log
+ * Mapeia o arquivo em memória (FileChannel.map), divide em blocos
+ * alinhados em quebras de linha e processa cada bloco em um worker
+ * do ForkJoinPool com seu próprio LogAggregator parcial.
+ *
+ * Os parciais são mesclados na ordem do arquivo, e no máximo
+ * 2 x paralelismo blocos ficam em voo ao mesmo tempo, então
+ * arquivos de vários GB não acumulam parciais no heap.
+ */
+public class ChunkedLogReader {
+    private static final long DEFAULT_CHUNK_SIZE = 32L * 1024 * 1024; // 32 MB
+    private static final int BOUNDARY_SCAN_SIZE = 4096;
+    private static final int WINDOW_SIZE = 1024 * 1024;
+    private static final int BATCH_ROWS = 64 * 1024;
+
+    private final long chunkSize;
+    private final int parallelism;
+
+    public ChunkedLogReader() {
+        this(DEFAULT_CHUNK_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ChunkedLogReader(long chunkSize, int parallelism) {
+        if (chunkSize <= 0 || chunkSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Tamanho de bloco inválido: " + chunkSize);
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Paralelismo inválido: " + parallelism);
+        }
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Lê o arquivo inteiro e mescla os parciais em target
+     */
+    public void read(Path file, LogAggregator target) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            read(channel, channel.size(), target);
+        }
+    }
+
+    /**
+     * Lê o trecho [0, end) de um canal já aberto (usado pelo modo --follow,
+     * que continua lendo o mesmo canal a partir de end)
+     */
+    public void read(FileChannel channel, long end, LogAggregator target) throws IOException {
+        try {
+            long[] bounds = splitChunks(channel, end);
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                int maxInFlight = parallelism * 2;
+                Deque<ForkJoinTask<LogAggregator>> inFlight = new ArrayDeque<>();
+                for (int i = 0; i + 1 < bounds.length; i++) {
+                    if (inFlight.size() == maxInFlight) {
+                        target.merge(inFlight.removeFirst().join());
+                    }
+                    inFlight.addLast(pool.submit(new ChunkTask(channel, bounds[i], bounds[i + 1], target)));
+                }
+                while (!inFlight.isEmpty()) {
+                    target.merge(inFlight.removeFirst().join());
+                }
+            } finally {
+                pool.shutdown();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Calcula os limites dos blocos, sempre logo após um '\n'
+     */
+    private long[] splitChunks(FileChannel channel, long size) throws IOException {
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+
+        ByteBuffer scan = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+        long position = chunkSize;
+        while (position < size) {
+            long boundary = nextLineStart(channel, position, size, scan);
+            if (boundary >= size) {
+                break;
+            }
+            bounds.add(boundary);
+            position = boundary + chunkSize;
+        }
+        bounds.add(size);
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Posição logo após o último '\n' antes de end (0 se não houver):
+     * a linha final ainda pode estar sendo escrita
+     */
+    public static long lastLineEnd(FileChannel channel, long end) throws IOException {
+        ByteBuffer scan = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+        long position = end;
+        while (position > 0) {
+            int length = (int) Math.min(BOUNDARY_SCAN_SIZE, position);
+            position -= length;
+            scan.clear().limit(length);
+            int read = 0;
+            while (read < length) {
+                int n = channel.read(scan, position + read);
+                if (n < 0) {
+                    break;
+                }
+                read += n;
+            }
+            for (int i = read - 1; i >= 0; i--) {
+                if (scan.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private long nextLineStart(FileChannel channel, long position, long size, ByteBuffer scan)
+            throws IOException {
+        while (position < size) {
+            scan.clear();
+            int read = channel.read(scan, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (scan.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Processa um bloco [start, end) do arquivo em um agregador próprio
+     */
+    private static class ChunkTask extends RecursiveTask<LogAggregator> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient FileChannel channel;
+        private final long start;
+        private final long end;
+        private final transient LogAggregator target;
+
+        ChunkTask(FileChannel channel, long start, long end, LogAggregator target) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.target = target;
+        }
+
+        @Override
+        protected LogAggregator compute() {
+            LogAggregator partial = target.newPartial();
+            LogStore batch = partial.getStore();
+            MappedByteBuffer mapped;
+            try {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            // Copia o bloco mapeado em janelas para um buffer reaproveitado,
+            // tokeniza as linhas direto nos bytes e agrega em lotes colunares
+            LogLineTokenizer tokenizer = new LogLineTokenizer();
+            byte[] window = new byte[WINDOW_SIZE];
+            int pending = 0;
+            while (mapped.hasRemaining()) {
+                if (pending == window.length) {
+                    window = Arrays.copyOf(window, window.length * 2); // linha maior que a janela
+                }
+                int read = Math.min(window.length - pending, mapped.remaining());
+                mapped.get(window, pending, read);
+                int filled = pending + read;
+
+                int lineStart = 0;
+                for (int i = pending; i < filled; i++) {
+                    if (window[i] == '\n') {
+                        acceptLine(partial, batch, tokenizer, window, lineStart, i);
+                        lineStart = i + 1;
+                    }
+                }
+                pending = filled - lineStart;
+                System.arraycopy(window, lineStart, window, 0, pending);
+            }
+            if (pending > 0) {
+                acceptLine(partial, batch, tokenizer, window, 0, pending);
+            }
+            partial.acceptAll(batch);
+            batch.clear();
+            return partial;
+        }
+    }
+
+    /**
+     * Tokeniza a linha window[from, to) no lote; a cada BATCH_ROWS linhas
+     * o lote é agregado no parcial e reaproveitado
+     */
+    static void acceptLine(LogAggregator partial, LogStore batch, LogLineTokenizer tokenizer,
+                           byte[] window, int from, int to) {
+        if (to > from && window[to - 1] == '\r') {
+            to--;
+        }
+        // Linhas fora do formato são ignoradas, como no parser por regex
+        if (tokenizer.tokenize(window, from, to - from)) {
+            batch.append(tokenizer);
+            if (batch.size() == BATCH_ROWS) {
+                partial.acceptAll(batch);
+                batch.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Escreve o arquivo colunar do LogAnalyzer (formato em ColumnarLogFile)
+ *
+ * Os grupos de linhas chegam já codificados (RowGroupEncoder) na ordem do
+ * log e vão para o FileChannel com escrita gathering: os buffers apontam
+ * para os arrays das colunas, sem montar o grupo numa cópia intermediária.
+ * No fim vêm o relatório, o índice dos grupos e o rodapé.
+ *
+ * O arquivo é escrito num temporário e renomeado em finish(), então um
+ * leitor nunca vê um arquivo pela metade; close() sem finish() descarta.
+ */
+public class ColumnarExport implements AutoCloseable {
+    private final Path file;
+    private final Path temp;
+    private final FileChannel channel;
+    private final List<long[]> index; // {offset, tamanho, linhas, min, max}
+    private long position;
+    private long rows;
+    private boolean finished;
+
+    private ColumnarExport(Path file, Path temp, FileChannel channel) {
+        this.file = file;
+        this.temp = temp;
+        this.channel = channel;
+        this.index = new ArrayList<>();
+    }
+
+    public static ColumnarExport create(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        ColumnarExport export = new ColumnarExport(file, temp, channel);
+        try {
+            export.write(ByteBuffer.allocate(8)
+                .putInt(ColumnarLogFile.MAGIC).putInt(ColumnarLogFile.VERSION).flip());
+        } catch (IOException e) {
+            export.close();
+            throw e;
+        }
+        return export;
+    }
+
+    /**
+     * Grava um grupo de linhas (vazio é ignorado)
+     */
+    public void writeRowGroup(RowGroupEncoder group) throws IOException {
+        if (group.size() == 0) {
+            return;
+        }
+        long offset = position;
+        write(group.toBuffers());
+        index.add(new long[] {offset, position - offset, group.size(),
+            group.getMinTimestamp(), group.getMaxTimestamp()});
+        rows += group.size();
+    }
+
+    /**
+     * Grava relatório, índice e rodapé e publica o arquivo
+     */
+    public void finish(LogReport report) throws IOException {
+        long reportOffset = position;
+        write(encodeReport(report));
+
+        long indexOffset = position;
+        ByteBuffer out = ByteBuffer.allocate(4 + index.size() * ColumnarLogFile.INDEX_ENTRY_SIZE
+            + ColumnarLogFile.FOOTER_SIZE);
+        out.putInt(index.size());
+        for (long[] group : index) {
+            out.putLong(group[0]).putInt((int) group[1]).putInt((int) group[2])
+                .putLong(group[3]).putLong(group[4]);
+        }
+        out.putLong(indexOffset).putLong(reportOffset).putLong(rows).putInt(ColumnarLogFile.MAGIC);
+        write(out.flip());
+
+        channel.force(true);
+        channel.close();
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        finished = true;
+    }
+
+    private void write(ByteBuffer... buffers) throws IOException {
+        long remaining = 0;
+        for (ByteBuffer buffer : buffers) {
+            remaining += buffer.remaining();
+        }
+        while (remaining > 0) {
+            long written = channel.write(buffers);
+            remaining -= written;
+            position += written;
+        }
+    }
+
+    /**
+     * Relatório: contadores, amostras, rankings, ataques, cardinalidades e regras
+     */
+    private static ByteBuffer encodeReport(LogReport report) {
+        ReportWriter out = new ReportWriter();
+        out.putLong(report.getTotalEvents());
+        out.putLong(report.getSuccessLogins());
+        out.putLong(report.getFailedLogins());
+        out.putLong(report.getBlockedLogins());
+        out.putLong(report.getWindowSeconds());
+        out.putLong(report.getBruteForceThreshold());
+        out.putLong(report.getIpErrorBound());
+        out.putLong(report.getUserErrorBound());
+
+        out.putInt(report.getFailureSamples().size());
+        for (LogAnalyzer.LogEntry entry : report.getFailureSamples()) {
+            out.putString(entry.timestamp);
+            out.putString(entry.tipo);
+            out.putString(entry.ip);
+            out.putString(entry.usuario);
+            out.putString(entry.mensagem);
+        }
+        out.putRanked(report.getSuspiciousIps());
+        out.putRanked(report.getProblematicUsers());
+
+        out.putInt(report.getAttacks().size());
+        for (LogReport.AttackRow attack : report.getAttacks()) {
+            out.putString(attack.getIp());
+            out.putLong(attack.getStart());
+            out.putLong(attack.getEnd());
+            out.putLong(attack.getFailures());
+            out.putInt(attack.getPeak());
+        }
+
+        LogReport.Cardinality cardinality = report.getCardinality();
+        out.putLong(cardinality.getDistinctIps());
+        out.putLong(cardinality.getDistinctUsers());
+        out.putDouble(cardinality.getRelativeError());
+        out.putRanked(cardinality.getUsersByDistinctIps());
+        out.putDouble(cardinality.getPerUserRelativeError());
+
+        out.putInt(report.getRules().size());
+        for (LogReport.RuleRow rule : report.getRules()) {
+            out.putString(rule.getName());
+            out.putString(rule.getDefinition());
+            out.putLong(rule.getAlerts());
+            out.putRanked(rule.getTop());
+        }
+        return out.toBuffer();
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public int getRowGroups() {
+        return index.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!finished) {
+            channel.close();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Buffer do relatório (que é pequeno e de tamanho desconhecido)
+     */
+    private static final class ReportWriter {
+        private ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+        void putInt(int value) {
+            ensure(4).putInt(value);
+        }
+
+        void putLong(long value) {
+            ensure(8).putLong(value);
+        }
+
+        void putDouble(double value) {
+            ensure(8).putDouble(value);
+        }
+
+        void putString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensure(4 + bytes.length).putInt(bytes.length).put(bytes);
+        }
+
+        void putRanked(List<LogReport.Ranked> ranked) {
+            putInt(ranked.size());
+            for (LogReport.Ranked entry : ranked) {
+                putString(entry.getName());
+                putLong(entry.getCount());
+            }
+        }
+
+        private ByteBuffer ensure(int extra) {
+            if (buffer.remaining() < extra) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2,
+                    buffer.position() + extra));
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+            return buffer;
+        }
+
+        ByteBuffer toBuffer() {
+            return buffer.flip();
+        }
+    }
+}
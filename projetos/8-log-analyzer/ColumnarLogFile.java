@@ -0,0 +1,426 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Leitor do arquivo colunar exportado pelo LogAnalyzer (--exportar)
+ * Carrega eventos e relatório de volta sem reprocessar o texto do log.
+ *
+ * Layout (inteiros big-endian):
+ *   cabeçalho   int MAGIC ("LCOL"), int VERSION
+ *   grupos      um por RowGroupEncoder, na ordem do log:
+ *               int linhas, long timestamp base,
+ *               int tamanho de cada coluna (flags, ips, timestamps, usuários, mensagens),
+ *               int tamanho de cada dicionário (ips, usuários, mensagens),
+ *               as colunas e os dicionários, nessa ordem
+ *   relatório   contadores, amostras, rankings, ataques, cardinalidades e
+ *               regras (strings como int tamanho + UTF-8)
+ *   índice      int grupos; por grupo: long offset, int tamanho, int linhas,
+ *               long menor e long maior timestamp
+ *   rodapé      long offset do índice, long offset do relatório,
+ *               long total de linhas, int MAGIC
+ *
+ * Colunas de um grupo:
+ *   flags       byte: ordinal do LogType | NON_IPV4_BIT | NO_TIMESTAMP_BIT
+ *   ips         int: IPv4 empacotado ou id no dicionário de IPs
+ *   timestamps  varint zigzag da diferença para a linha anterior (a primeira
+ *               contra o timestamp base); linhas sem timestamp não ocupam nada
+ *   usuários    varint: id no dicionário de usuários
+ *   mensagens   varint: id no dicionário de mensagens
+ * Dicionário: int quantidade, (quantidade + 1) int offsets, bytes UTF-8.
+ *
+ * Para compilar e executar:
+ * javac *.java
+ * java ColumnarLogFile eventos.lcol [linhas]
+ */
+public class ColumnarLogFile implements AutoCloseable {
+    public static final int MAGIC = 0x4C434F4C;
+    public static final int VERSION = 1;
+    public static final int TYPE_MASK = 0x3F;
+    public static final int NO_TIMESTAMP_BIT = 0x40;
+    public static final int NON_IPV4_BIT = 0x80;
+    public static final int GROUP_HEADER_SIZE = 4 + 8 + 5 * 4 + 3 * 4;
+    public static final int INDEX_ENTRY_SIZE = 8 + 4 + 4 + 8 + 8;
+    public static final int FOOTER_SIZE = 8 + 8 + 8 + 4;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final long[] offsets;
+    private final int[] lengths;
+    private final int[] rowCounts;
+    private final long[] minTimestamps;
+    private final long[] maxTimestamps;
+    private final long reportOffset;
+    private final long indexOffset;
+    private final long rows;
+
+    private ColumnarLogFile(Path file, FileChannel channel) throws IOException {
+        this.file = file;
+        this.channel = channel;
+
+        long size = channel.size();
+        if (size < 8 + FOOTER_SIZE) {
+            throw new IOException("arquivo colunar inválido (curto demais): " + file);
+        }
+        ByteBuffer header = read(0, 8);
+        if (header.getInt() != MAGIC) {
+            throw new IOException("arquivo colunar inválido (assinatura): " + file);
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("versão " + version + " não suportada: " + file);
+        }
+
+        ByteBuffer footer = read(size - FOOTER_SIZE, FOOTER_SIZE);
+        this.indexOffset = footer.getLong();
+        this.reportOffset = footer.getLong();
+        this.rows = footer.getLong();
+        if (footer.getInt() != MAGIC || indexOffset < 8 || reportOffset > indexOffset
+                || indexOffset > size - FOOTER_SIZE) {
+            throw new IOException("arquivo colunar incompleto ou corrompido: " + file);
+        }
+
+        ByteBuffer index = read(indexOffset, (int) (size - FOOTER_SIZE - indexOffset));
+        int groups = index.getInt();
+        this.offsets = new long[groups];
+        this.lengths = new int[groups];
+        this.rowCounts = new int[groups];
+        this.minTimestamps = new long[groups];
+        this.maxTimestamps = new long[groups];
+        for (int i = 0; i < groups; i++) {
+            offsets[i] = index.getLong();
+            lengths[i] = index.getInt();
+            rowCounts[i] = index.getInt();
+            minTimestamps[i] = index.getLong();
+            maxTimestamps[i] = index.getLong();
+        }
+    }
+
+    /**
+     * Abre o arquivo e lê só cabeçalho, rodapé e índice
+     */
+    public static ColumnarLogFile open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new ColumnarLogFile(file, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Leitura posicional completa (arquivos acima de 2 GB funcionam)
+     */
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("fim inesperado do arquivo: " + file);
+            }
+        }
+        return buffer.flip();
+    }
+
+    public long getRowCount() {
+        return rows;
+    }
+
+    public int getRowGroupCount() {
+        return offsets.length;
+    }
+
+    public int getRowGroupSize(int group) {
+        return rowCounts[group];
+    }
+
+    /**
+     * Menor/maior timestamp do grupo (NO_TIMESTAMP se nenhuma linha tinha),
+     * para pular grupos fora de um intervalo sem lê-los
+     */
+    public long getMinTimestamp(int group) {
+        return minTimestamps[group];
+    }
+
+    public long getMaxTimestamp(int group) {
+        return maxTimestamps[group];
+    }
+
+    /**
+     * Lê e decodifica um grupo de linhas
+     */
+    public RowGroup readRowGroup(int group) throws IOException {
+        return new RowGroup(read(offsets[group], lengths[group]));
+    }
+
+    /**
+     * Percorre todos os eventos na ordem do log, um grupo por vez
+     */
+    public void forEachEntry(Consumer<LogAnalyzer.LogEntry> action) throws IOException {
+        for (int group = 0; group < offsets.length; group++) {
+            RowGroup rows = readRowGroup(group);
+            for (int row = 0; row < rows.size(); row++) {
+                action.accept(rows.toEntry(row));
+            }
+        }
+    }
+
+    /**
+     * Relatório gravado junto com os eventos
+     */
+    public LogReport getReport() throws IOException {
+        ByteBuffer in = read(reportOffset, (int) (indexOffset - reportOffset));
+        long totalEvents = in.getLong();
+        long success = in.getLong();
+        long failed = in.getLong();
+        long blocked = in.getLong();
+        long windowSeconds = in.getLong();
+        int threshold = (int) in.getLong();
+        long ipErrorBound = in.getLong();
+        long userErrorBound = in.getLong();
+
+        int samples = in.getInt();
+        List<LogAnalyzer.LogEntry> failureSamples = new ArrayList<>(samples);
+        for (int i = 0; i < samples; i++) {
+            failureSamples.add(new LogAnalyzer.LogEntry(getString(in), getString(in),
+                getString(in), getString(in), getString(in)));
+        }
+        List<LogReport.Ranked> suspiciousIps = getRanked(in);
+        List<LogReport.Ranked> problematicUsers = getRanked(in);
+
+        int attackCount = in.getInt();
+        List<LogReport.AttackRow> attacks = new ArrayList<>(attackCount);
+        for (int i = 0; i < attackCount; i++) {
+            attacks.add(new LogReport.AttackRow(getString(in), in.getLong(), in.getLong(),
+                in.getLong(), in.getInt()));
+        }
+
+        long distinctIps = in.getLong();
+        long distinctUsers = in.getLong();
+        double relativeError = in.getDouble();
+        List<LogReport.Ranked> usersByDistinctIps = getRanked(in);
+        double perUserRelativeError = in.getDouble();
+        LogReport.Cardinality cardinality = new LogReport.Cardinality(distinctIps, distinctUsers,
+            relativeError, usersByDistinctIps, perUserRelativeError);
+
+        int ruleCount = in.getInt();
+        List<LogReport.RuleRow> rules = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            rules.add(new LogReport.RuleRow(getString(in), getString(in), in.getLong(), getRanked(in)));
+        }
+
+        return new LogReport(totalEvents, success, failed, blocked, failureSamples, suspiciousIps,
+            windowSeconds, threshold, attacks, problematicUsers, ipErrorBound, userErrorBound,
+            cardinality, rules);
+    }
+
+    private static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static List<LogReport.Ranked> getRanked(ByteBuffer in) {
+        int count = in.getInt();
+        List<LogReport.Ranked> ranked = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ranked.add(new LogReport.Ranked(getString(in), in.getLong()));
+        }
+        return ranked;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Grupo de linhas decodificado: colunas primitivas e dicionários do grupo
+     * (as Strings dos dicionários só são criadas quando pedidas)
+     */
+    public static class RowGroup {
+        private final int size;
+        private final byte[] flags;
+        private final int[] ips;
+        private final long[] timestamps;
+        private final int[] users;
+        private final int[] messages;
+        private final Dictionary ipDictionary;
+        private final Dictionary userDictionary;
+        private final Dictionary messageDictionary;
+
+        RowGroup(ByteBuffer in) {
+            size = in.getInt();
+            long previous = in.getLong();
+            int flagsLength = in.getInt();
+            int ipsLength = in.getInt();
+            int timestampsLength = in.getInt();
+            int usersLength = in.getInt();
+            int messagesLength = in.getInt();
+            in.position(GROUP_HEADER_SIZE);
+
+            flags = new byte[size];
+            in.get(flags, 0, flagsLength);
+
+            ips = new int[size];
+            for (int row = 0; row < size; row++) {
+                ips[row] = in.getInt();
+            }
+
+            timestamps = new long[size];
+            for (int row = 0; row < size; row++) {
+                if ((flags[row] & NO_TIMESTAMP_BIT) != 0) {
+                    timestamps[row] = TimestampCodec.NO_TIMESTAMP;
+                } else {
+                    long zigzag = getVarLong(in);
+                    previous += (zigzag >>> 1) ^ -(zigzag & 1);
+                    timestamps[row] = previous;
+                }
+            }
+
+            users = new int[size];
+            for (int row = 0; row < size; row++) {
+                users[row] = (int) getVarLong(in);
+            }
+            messages = new int[size];
+            for (int row = 0; row < size; row++) {
+                messages[row] = (int) getVarLong(in);
+            }
+
+            ipDictionary = new Dictionary(in);
+            userDictionary = new Dictionary(in);
+            messageDictionary = new Dictionary(in);
+        }
+
+        private static long getVarLong(ByteBuffer in) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = in.get();
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        // Colunas
+        public LogType type(int row) {
+            return LogType.ofOrdinal(flags[row] & TYPE_MASK);
+        }
+
+        /**
+         * Segundos desde a época (TimestampCodec.NO_TIMESTAMP se a linha não tinha)
+         */
+        public long timestamp(int row) {
+            return timestamps[row];
+        }
+
+        /**
+         * Chave de IP no formato do IpCodec (ids de dicionário valem só neste grupo)
+         */
+        public long ipKey(int row) {
+            return (flags[row] & NON_IPV4_BIT) == 0
+                ? IpCodec.ipv4Key(ips[row])
+                : IpCodec.dictionaryKey(ips[row]);
+        }
+
+        public int userId(int row) {
+            return users[row];
+        }
+
+        public int messageId(int row) {
+            return messages[row];
+        }
+
+        // Decodificação
+        public String ip(int row) {
+            return (flags[row] & NON_IPV4_BIT) == 0
+                ? IpCodec.formatIpv4(ips[row])
+                : ipDictionary.get(ips[row]);
+        }
+
+        public String user(int row) {
+            return userDictionary.get(users[row]);
+        }
+
+        public String message(int row) {
+            return messageDictionary.get(messages[row]);
+        }
+
+        public LogAnalyzer.LogEntry toEntry(int row) {
+            return new LogAnalyzer.LogEntry(TimestampCodec.format(timestamps[row]),
+                type(row).name(), ip(row), user(row), message(row));
+        }
+    }
+
+    /**
+     * Dicionário de um grupo: offsets e bytes, com cache das Strings
+     */
+    private static final class Dictionary {
+        private final int[] offsets;
+        private final byte[] bytes;
+        private final String[] strings;
+
+        Dictionary(ByteBuffer in) {
+            int count = in.getInt();
+            offsets = new int[count + 1];
+            for (int i = 0; i <= count; i++) {
+                offsets[i] = in.getInt();
+            }
+            bytes = new byte[offsets[count]];
+            in.get(bytes);
+            strings = new String[count];
+        }
+
+        String get(int id) {
+            String value = strings[id];
+            if (value == null) {
+                value = new String(bytes, offsets[id], offsets[id + 1] - offsets[id], StandardCharsets.UTF_8);
+                strings[id] = value;
+            }
+            return value;
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Uso: java ColumnarLogFile <arquivo.lcol> [linhas]");
+            return;
+        }
+        int limit = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        try (ColumnarLogFile columnar = open(Paths.get(args[0]))) {
+            LogReport report = columnar.getReport();
+            System.out.println("📦 " + columnar.getFile() + ": " + columnar.getRowCount()
+                + " eventos em " + columnar.getRowGroupCount() + " grupo(s)");
+            System.out.println("✅ Sucessos: " + report.getSuccessLogins()
+                + " | ❌ Falhas: " + report.getFailedLogins()
+                + " | 🔒 Bloqueios: " + report.getBlockedLogins()
+                + " | 🚨 Ataques: " + report.getAttacks().size());
+
+            int shown = 0;
+            for (int group = 0; group < columnar.getRowGroupCount() && shown < limit; group++) {
+                RowGroup rows = columnar.readRowGroup(group);
+                for (int row = 0; row < rows.size() && shown < limit; row++, shown++) {
+                    LogAnalyzer.LogEntry entry = rows.toEntry(row);
+                    System.out.println("   " + entry.timestamp + " [" + entry.tipo + "] " + entry.ip
+                        + " " + entry.usuario + " - " + entry.mensagem);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("❌ Erro ao ler " + args[0] + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Count-Min Sketch sobre chaves long
+ * Matriz depth x width de contadores: cada chave incrementa um contador
+ * por linha (hash diferente por linha) e a estimativa é o mínimo deles.
+ *
+ * Garantias, com N = soma de todas as contagens:
+ * - nunca subestima: estimate(x) >= real(x)
+ * - com probabilidade >= 1 - e^-depth: estimate(x) <= real(x) + (e / width) * N
+ * Ex.: width = 65536 e depth = 4 → erro <= 0,004% de N com 98% de confiança,
+ * em 2 MB fixos. Usa atualização conservadora (só sobe os contadores que
+ * estão no mínimo), que mantém as garantias e reduz o erro na prática.
+ *
+ * Sketches com as mesmas dimensões podem ser somados (merge).
+ */
+public class CountMinSketch {
+    private static final long[] SEEDS = {
+        0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+        0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x27D4EB2F165667C5L, 0x94D049BB133111EBL
+    };
+
+    private final int width;
+    private final int depth;
+    private final int mask;
+    private final long[] counters;
+    private final int[] slots;
+    private long total;
+
+    /**
+     * @param width contadores por linha (arredondado para potência de 2)
+     * @param depth número de linhas (1 a 8)
+     */
+    public CountMinSketch(int width, int depth) {
+        if (width <= 0 || depth <= 0 || depth > SEEDS.length) {
+            throw new IllegalArgumentException("Dimensões inválidas do sketch");
+        }
+        this.width = Integer.bitCount(width) == 1 ? width : Integer.highestOneBit(width) << 1;
+        this.depth = depth;
+        this.mask = this.width - 1;
+        this.counters = new long[this.width * depth];
+        this.slots = new int[depth];
+    }
+
+    /**
+     * Soma delta à chave
+     * @return nova estimativa da chave
+     */
+    public long add(long key, long delta) {
+        total += delta;
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int slot = row * width + (int) (mix(key ^ SEEDS[row]) & mask);
+            slots[row] = slot;
+            min = Math.min(min, counters[slot]);
+        }
+        long estimate = min + delta;
+        for (int row = 0; row < depth; row++) {
+            if (counters[slots[row]] < estimate) {
+                counters[slots[row]] = estimate;
+            }
+        }
+        return estimate;
+    }
+
+    public long estimate(long key) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters[row * width + (int) (mix(key ^ SEEDS[row]) & mask)]);
+        }
+        return min;
+    }
+
+    public void merge(CountMinSketch other) {
+        if (other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("Sketches com dimensões diferentes");
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+        total += other.total;
+    }
+
+    /**
+     * Erro máximo (com a confiança de getConfidence) somado a cada estimativa
+     */
+    public long getErrorBound() {
+        return (long) Math.ceil(Math.E / width * total);
+    }
+
+    public double getConfidence() {
+        return 1 - Math.exp(-depth);
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getMemoryBytes() {
+        return counters.length * 8L;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+}
@@ -0,0 +1,141 @@
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Heavy hitters aproximados em memória fixa: Count-Min Sketch + Space-Saving
+ *
+ * O Space-Saving escolhe os candidatos ao top-K e o Count-Min Sketch dá
+ * uma segunda estimativa; as duas são limites superiores, então o valor
+ * reportado é o menor deles. Com N = total de eventos contados:
+ * - real(x) <= estimativa(x) <= real(x) + min(N / k, (e / width) * N)
+ *   (o termo do sketch vale com probabilidade 1 - e^-depth)
+ * - toda chave com real(x) > N / k aparece no top
+ *
+ * As chaves são longs globais (IPv4 empacotado ou hash de 64 bits dos
+ * bytes), para que parciais de workers diferentes possam ser mescladas.
+ * O rótulo (bytes do IP/usuário) é guardado só para as chaves monitoradas,
+ * então a memória não depende do número de chaves distintas.
+ */
+public class HeavyHitters {
+    public static final int DEFAULT_TOP_K = 1024;
+    public static final int DEFAULT_WIDTH = 1 << 16;
+    public static final int DEFAULT_DEPTH = 4;
+
+    private final int topK;
+    private final int width;
+    private final int depth;
+    private final CountMinSketch sketch;
+    private final SpaceSaving candidates;
+
+    public HeavyHitters() {
+        this(DEFAULT_TOP_K, DEFAULT_WIDTH, DEFAULT_DEPTH);
+    }
+
+    public HeavyHitters(int topK, int width, int depth) {
+        this.topK = topK;
+        this.width = width;
+        this.depth = depth;
+        this.sketch = new CountMinSketch(width, depth);
+        this.candidates = new SpaceSaving(topK);
+    }
+
+    /**
+     * Instância vazia com a mesma configuração (para parciais)
+     */
+    public HeavyHitters emptyCopy() {
+        return new HeavyHitters(topK, width, depth);
+    }
+
+    /**
+     * Conta um evento da chave
+     * @param label bytes do nome (null quando o nome sai da própria chave, ex.: IPv4)
+     * @return estimativa atual da chave
+     */
+    public long add(long key, byte[] label) {
+        long count = candidates.offer(key, 1, label);
+        return Math.min(sketch.add(key, 1), count);
+    }
+
+    public void merge(HeavyHitters other) {
+        sketch.merge(other.sketch);
+        candidates.merge(other.candidates);
+    }
+
+    /**
+     * Top chaves pela estimativa, da maior para a menor
+     */
+    public List<Entry> top() {
+        List<Entry> result = new ArrayList<>();
+        for (SpaceSaving.Entry e : candidates.top()) {
+            long estimate = Math.min(e.getCount(), sketch.estimate(e.getKey()));
+            long lowerBound = Math.max(0, e.getCount() - e.getError());
+            byte[] label = e.getLabel();
+            result.add(new Entry(e.getKey(),
+                label != null ? new String(label, StandardCharsets.UTF_8) : null,
+                estimate, lowerBound));
+        }
+        result.sort((a, b) -> Long.compare(b.estimate, a.estimate));
+        return result;
+    }
+
+    /**
+     * Erro máximo de cada estimativa (menor entre os dois limites)
+     */
+    public long getErrorBound() {
+        long total = sketch.getTotal();
+        return Math.min((total + topK - 1) / topK, sketch.getErrorBound());
+    }
+
+    public double getConfidence() {
+        return sketch.getConfidence();
+    }
+
+    public long getMemoryBytes() {
+        return sketch.getMemoryBytes() + candidates.getMemoryBytes();
+    }
+
+    /**
+     * Chave de 64 bits para nomes que não cabem no IPv4 (FNV-1a + mistura)
+     */
+    public static long hashKey(byte[] bytes) {
+        long h = 0xCBF29CE484222325L;
+        for (byte b : bytes) {
+            h = (h ^ (b & 0xFF)) * 0x100000001B3L;
+        }
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * Chave monitorada com estimativa e limite inferior
+     */
+    public static class Entry {
+        private final long key;
+        private final String label;
+        private final long estimate;
+        private final long lowerBound;
+
+        Entry(long key, String label, long estimate, long lowerBound) {
+            this.key = key;
+            this.label = label;
+            this.estimate = estimate;
+            this.lowerBound = lowerBound;
+        }
+
+        public long getKey() {
+            return key;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public long getEstimate() {
+            return estimate;
+        }
+
+        public long getLowerBound() {
+            return lowerBound;
+        }
+    }
+}
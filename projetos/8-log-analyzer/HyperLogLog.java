@@ -0,0 +1,143 @@
+/**
+ * HyperLogLog: estimativa de cardinalidade (quantidade de distintos)
+ * em memória fixa
+ *
+ * 2^precision registradores de um byte guardam o maior "rank" (posição do
+ * primeiro bit 1) visto entre os hashes que caem em cada um. O erro padrão
+ * relativo é 1,04 / sqrt(2^precision):
+ * - precision 14 → 16 KB, erro ~0,8%
+ * - precision 6 → 64 bytes, erro ~13% (usado por usuário)
+ * Para cardinalidades pequenas usa contagem linear (registradores vazios),
+ * que é quase exata.
+ *
+ * Sketches com a mesma precisão podem ser mesclados (máximo por
+ * registrador), então blocos e arquivos diferentes são combinados sem
+ * perder nada.
+ */
+public class HyperLogLog {
+    public static final int DEFAULT_PRECISION = 14;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * @param precision log2 do número de registradores (4 a 18)
+     */
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("Precisão inválida: " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Registra um valor (qualquer long; é misturado antes de usar)
+     */
+    public void add(long value) {
+        add(registers, 0, precision, value);
+    }
+
+    /**
+     * Registra um valor em registradores guardados fora da instância
+     * (ex.: um array compartilhado por vários sketches pequenos)
+     */
+    static void add(byte[] registers, int offset, int precision, long value) {
+        long hash = mix(value);
+        int index = (int) (hash >>> (64 - precision));
+        // O bit sentinela limita o rank quando os bits restantes são zero
+        long rest = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (registers[offset + index] < rank) {
+            registers[offset + index] = rank;
+        }
+    }
+
+    /**
+     * Quantidade estimada de valores distintos
+     */
+    public long estimate() {
+        return estimate(registers, 0, precision);
+    }
+
+    static long estimate(byte[] registers, int offset, int precision) {
+        int m = 1 << precision;
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < m; i++) {
+            byte rank = registers[offset + i];
+            sum += Math.scalb(1.0, -rank);
+            if (rank == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros); // contagem linear
+        }
+        return Math.round(estimate);
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+
+    /**
+     * Soma os distintos de outro sketch (mesma precisão)
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Sketches com precisões diferentes");
+        }
+        merge(registers, 0, other.registers, 0, registers.length);
+    }
+
+    static void merge(byte[] target, int targetOffset, byte[] source, int sourceOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            if (target[targetOffset + i] < source[sourceOffset + i]) {
+                target[targetOffset + i] = source[sourceOffset + i];
+            }
+        }
+    }
+
+    /**
+     * Erro padrão relativo da estimativa (ex.: 0.008 = 0,8%)
+     */
+    public double getRelativeError() {
+        return relativeError(precision);
+    }
+
+    static double relativeError(int precision) {
+        return 1.04 / Math.sqrt(1 << precision);
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public long getMemoryBytes() {
+        return registers.length;
+    }
+
+    /**
+     * Finalizador do MurmurHash3: espalha bem chaves sequenciais (ex.: IPv4)
+     */
+    private static long mix(long h) {
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+}
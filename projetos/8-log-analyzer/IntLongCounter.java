@@ -0,0 +1,126 @@
+import java.util.Arrays;
+
+/**
+ * Contador int → long com endereçamento aberto
+ * Substitui HashMap<Integer, Long> nas contagens por IP/usuário: as chaves
+ * e os valores ficam em arrays primitivos, então incrementar não cria
+ * objetos (nem Integer, nem Long, nem nó de entrada) e faz uma única busca.
+ *
+ * Sondagem linear com fator de carga 0.5. Como qualquer int é chave válida
+ * (inclusive 0 = IP 0.0.0.0 ou id 0), a chave 0 fica em um campo à parte.
+ */
+public class IntLongCounter {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] keys;
+    private long[] values; // 0 = slot vazio (contagens são sempre > 0)
+    private int size;
+    private int mask;
+    private long zeroValue;
+
+    public IntLongCounter() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public IntLongCounter(int expectedKeys) {
+        int capacity = Integer.highestOneBit(Math.max(INITIAL_CAPACITY, expectedKeys * 2 - 1)) << 1;
+        this.keys = new int[capacity];
+        this.values = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    public long increment(int key) {
+        return add(key, 1);
+    }
+
+    /**
+     * Soma delta (> 0) à contagem da chave
+     * @return nova contagem
+     */
+    public long add(int key, long delta) {
+        if (key == 0) {
+            zeroValue += delta;
+            return zeroValue;
+        }
+        int slot = slot(key);
+        while (values[slot] != 0) {
+            if (keys[slot] == key) {
+                values[slot] += delta;
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size * 2 > keys.length) {
+            rehash();
+        }
+        return delta;
+    }
+
+    public long get(int key) {
+        if (key == 0) {
+            return zeroValue;
+        }
+        for (int slot = slot(key); values[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Quantidade de chaves com contagem > 0
+     */
+    public int size() {
+        return size + (zeroValue != 0 ? 1 : 0);
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        if (zeroValue != 0) {
+            consumer.accept(0, zeroValue);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (values[slot] != 0) {
+                consumer.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(values, 0);
+        size = 0;
+        zeroValue = 0;
+    }
+
+    private int slot(int key) {
+        int h = key * 0x9E3779B9; // espalhamento de Fibonacci
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void rehash() {
+        int[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new long[oldValues.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != 0) {
+                int slot = slot(oldKeys[i]);
+                while (values[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Visitante das entradas sem boxing
+     */
+    public interface EntryConsumer {
+        void accept(int key, long count);
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Codificação de IPs para as colunas do LogStore
+ * IPv4 é empacotado em um int; qualquer outro endereço (IPv6, nomes)
+ * vai para um dicionário. A chave long junta os dois casos:
+ * - IPv4: os 32 bits do endereço (sem sinal)
+ * - demais: IPV6_FLAG | id no dicionário
+ */
+public final class IpCodec {
+    public static final long IPV6_FLAG = 1L << 32;
+    public static final long NOT_IPV4 = -1L;
+
+    private IpCodec() {
+    }
+
+    /**
+     * Converte "a.b.c.d" em bytes para o int empacotado (sem sinal, em long)
+     * @return NOT_IPV4 se não for um IPv4 válido
+     */
+    public static long parseIpv4(byte[] buffer, int offset, int length) {
+        int end = offset + length;
+        long packed = 0;
+        int octets = 0;
+        int i = offset;
+        while (octets < 4) {
+            int value = 0;
+            int digits = 0;
+            while (i < end && buffer[i] >= '0' && buffer[i] <= '9' && digits < 3) {
+                value = value * 10 + (buffer[i] - '0');
+                digits++;
+                i++;
+            }
+            if (digits == 0 || value > 255) {
+                return NOT_IPV4;
+            }
+            packed = (packed << 8) | value;
+            octets++;
+            if (octets < 4) {
+                if (i >= end || buffer[i] != '.') {
+                    return NOT_IPV4;
+                }
+                i++;
+            }
+        }
+        return i == end ? packed : NOT_IPV4;
+    }
+
+    public static long ipv4Key(int packed) {
+        return packed & 0xFFFFFFFFL;
+    }
+
+    public static long dictionaryKey(int id) {
+        return IPV6_FLAG | id;
+    }
+
+    public static boolean isIpv4Key(long key) {
+        return (key & IPV6_FLAG) == 0;
+    }
+
+    public static int dictionaryId(long key) {
+        return (int) key;
+    }
+
+    public static String formatIpv4(int packed) {
+        return ((packed >>> 24) & 0xFF) + "." + ((packed >>> 16) & 0xFF) + "."
+            + ((packed >>> 8) & 0xFF) + "." + (packed & 0xFF);
+    }
+}
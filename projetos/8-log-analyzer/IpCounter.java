@@ -0,0 +1,41 @@
+/**
+ * Contador por IP sobre chaves do IpCodec
+ * IPv4 empacotado vai direto como chave int; endereços do dicionário
+ * (IPv6 e outros) usam o id como chave em um segundo contador.
+ */
+public class IpCounter {
+    private final IntLongCounter ipv4 = new IntLongCounter();
+    private final IntLongCounter dictionary = new IntLongCounter();
+
+    public long increment(long ipKey) {
+        return add(ipKey, 1);
+    }
+
+    public long add(long ipKey, long delta) {
+        return IpCodec.isIpv4Key(ipKey)
+            ? ipv4.add((int) ipKey, delta)
+            : dictionary.add(IpCodec.dictionaryId(ipKey), delta);
+    }
+
+    public long get(long ipKey) {
+        return IpCodec.isIpv4Key(ipKey)
+            ? ipv4.get((int) ipKey)
+            : dictionary.get(IpCodec.dictionaryId(ipKey));
+    }
+
+    public int size() {
+        return ipv4.size() + dictionary.size();
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        ipv4.forEach((ip, count) -> consumer.accept(IpCodec.ipv4Key(ip), count));
+        dictionary.forEach((id, count) -> consumer.accept(IpCodec.dictionaryKey(id), count));
+    }
+
+    /**
+     * Visitante das entradas com a chave de IP completa
+     */
+    public interface EntryConsumer {
+        void accept(long ipKey, long count);
+    }
+}
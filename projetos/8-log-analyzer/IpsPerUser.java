@@ -0,0 +1,182 @@
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * IPs distintos por usuário, com um HyperLogLog pequeno para cada usuário
+ * Serve para achar credential stuffing / password spraying distribuído:
+ * um mesmo usuário recebendo falhas de muitos IPs diferentes.
+ *
+ * Os registradores de todos os usuários ficam num único byte[]
+ * (2^precision bytes por usuário). Com maxUsers a memória fica limitada:
+ * os usuários que chegam depois do limite só entram em getUntrackedEvents()
+ * (e então o conjunto acompanhado depende da ordem de chegada).
+ * As chaves são hashes dos bytes do nome, então tabelas de blocos ou
+ * arquivos diferentes podem ser mescladas.
+ */
+public class IpsPerUser {
+    public static final int DEFAULT_PRECISION = 6;
+    public static final int DEFAULT_MAX_USERS = 65_536;
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final long EMPTY = 0;
+
+    private final int precision;
+    private final int registersPerUser;
+    private final int maxUsers;
+
+    private long[] keys;
+    private int[] positions;
+    private long[] userKeys; // por posição, na ordem de chegada
+    private byte[][] labels;
+    private byte[] registers;
+    private int size;
+    private long untrackedEvents;
+
+    public IpsPerUser() {
+        this(DEFAULT_PRECISION, DEFAULT_MAX_USERS);
+    }
+
+    public IpsPerUser(int precision, int maxUsers) {
+        if (precision < 4 || precision > 18 || maxUsers <= 0) {
+            throw new IllegalArgumentException("Configuração inválida de IPs por usuário");
+        }
+        this.precision = precision;
+        this.registersPerUser = 1 << precision;
+        this.maxUsers = maxUsers;
+        this.keys = new long[INITIAL_CAPACITY * 2];
+        this.positions = new int[INITIAL_CAPACITY * 2];
+        this.userKeys = new long[INITIAL_CAPACITY];
+        this.labels = new byte[INITIAL_CAPACITY][];
+        this.registers = new byte[INITIAL_CAPACITY * registersPerUser];
+    }
+
+    /**
+     * Registra um IP visto para o usuário
+     * @param userKey hash do nome (HeavyHitters.hashKey)
+     * @param label bytes do nome, guardados na primeira vez
+     * @param ipValue chave do IP (qualquer long estável)
+     */
+    public void add(long userKey, byte[] label, long ipValue) {
+        int position = positionOf(userKey, label);
+        if (position < 0) {
+            untrackedEvents++;
+            return;
+        }
+        HyperLogLog.add(registers, position * registersPerUser, precision, ipValue);
+    }
+
+    /**
+     * Posição do usuário nos registradores, criando se ainda couber
+     * @return -1 quando o limite de usuários foi atingido
+     */
+    private int positionOf(long userKey, byte[] label) {
+        long key = userKey == EMPTY ? 1 : userKey; // 0 marca slot vazio
+        int mask = keys.length - 1;
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return positions[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == maxUsers) {
+            return -1;
+        }
+        if (size == labels.length) {
+            grow();
+            return positionOf(userKey, label);
+        }
+        keys[slot] = key;
+        positions[slot] = size;
+        userKeys[size] = key;
+        labels[size] = label;
+        return size++;
+    }
+
+    private void grow() {
+        int capacity = labels.length * 2;
+        long[] oldKeys = keys;
+        int[] oldPositions = positions;
+        keys = new long[capacity * 2];
+        positions = new int[capacity * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = (int) (oldKeys[i] ^ (oldKeys[i] >>> 32)) & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                positions[slot] = oldPositions[i];
+            }
+        }
+        userKeys = Arrays.copyOf(userKeys, capacity);
+        labels = Arrays.copyOf(labels, capacity);
+        registers = Arrays.copyOf(registers, capacity * registersPerUser);
+    }
+
+    /**
+     * Soma os IPs de outra tabela (mesma configuração)
+     * Percorre os usuários dela na ordem de chegada, então mesclar parciais
+     * na ordem do arquivo dá a mesma tabela que uma leitura sequencial.
+     */
+    public void merge(IpsPerUser other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Tabelas com precisões diferentes");
+        }
+        untrackedEvents += other.untrackedEvents;
+        for (int source = 0; source < other.size; source++) {
+            int target = positionOf(other.userKeys[source], other.labels[source]);
+            if (target < 0) {
+                untrackedEvents++;
+                continue;
+            }
+            HyperLogLog.merge(registers, target * registersPerUser,
+                other.registers, source * registersPerUser, registersPerUser);
+        }
+    }
+
+    /**
+     * Usuários com mais IPs distintos (estimados) que minDistinct
+     * @param limit quantidade máxima de usuários
+     */
+    public List<LogReport.Ranked> top(int limit, long minDistinct) {
+        // {posição, estimativa}; o pior no topo, e no empate o maior nome
+        // (a posição depende da ordem em que os parciais foram mesclados)
+        PriorityQueue<long[]> heap = new PriorityQueue<>(limit + 1,
+            Comparator.<long[]>comparingLong(e -> e[1])
+                .thenComparing((a, b) -> Arrays.compareUnsigned(labels[(int) b[0]], labels[(int) a[0]])));
+        for (int position = 0; position < size; position++) {
+            long estimate = HyperLogLog.estimate(registers, position * registersPerUser, precision);
+            if (estimate > minDistinct) {
+                heap.add(new long[] {position, estimate});
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            }
+        }
+        List<LogReport.Ranked> result = new ArrayList<>();
+        while (!heap.isEmpty()) {
+            long[] e = heap.poll();
+            result.add(0, new LogReport.Ranked(
+                new String(labels[(int) e[0]], StandardCharsets.UTF_8), e[1]));
+        }
+        return result;
+    }
+
+    public double getRelativeError() {
+        return HyperLogLog.relativeError(precision);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Eventos ignorados por já haver maxUsers usuários acompanhados
+     */
+    public long getUntrackedEvents() {
+        return untrackedEvents;
+    }
+
+}
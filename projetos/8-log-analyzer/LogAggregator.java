@@ -0,0 +1,609 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+/**
+ * Agregador incremental dos eventos de log
+ * Cada linha é processada uma única vez e descartada em seguida,
+ * então a memória depende apenas da quantidade de IPs e usuários distintos,
+ * nunca do número de linhas do arquivo.
+ *
+ * Trabalha direto nas colunas do LogStore: as chaves são IPs empacotados
+ * e ids de dicionário, decodificados só na hora de exibir o relatório.
+ * As contagens usam contadores primitivos (IpCounter/IntLongCounter),
+ * então contar um evento não aloca nada.
+ *
+ * No modo aproximado (approximateTopK > 0) as falhas por IP e por usuário
+ * vão para HeavyHitters (Count-Min Sketch + Space-Saving) em memória fixa,
+ * em vez dos contadores exatos: um botnet com milhões de IPs distintos não
+ * faz o agregador crescer. O relatório traz os top-K com o erro máximo.
+ *
+ * Cardinalidades (IPs distintos, usuários distintos e IPs distintos por
+ * usuário com falha) vêm de HyperLogLogs em memória fixa, mescláveis entre
+ * blocos e arquivos.
+ *
+ * Regras declarativas (RuleEngine) recebem os eventos na mesma passada.
+ * Como o detector, precisam da ordem do arquivo: os parciais guardam os
+ * eventos dos tipos que alguma regra usa e o merge os repassa em ordem.
+ *
+ * Com exportação (setExport), cada linha também vai para um grupo do
+ * arquivo colunar: os parciais codificam seus grupos em paralelo e o
+ * merge os grava na ordem do arquivo.
+ */
+public class LogAggregator {
+    public static final int SUSPICIOUS_IP_THRESHOLD = 3;
+    public static final int PROBLEM_USER_THRESHOLD = 2;
+    public static final int MAX_PROBLEM_USERS = 5;
+    public static final int STUFFING_IP_THRESHOLD = 3;
+    private static final int MAX_FAILURE_SAMPLES = 5;
+
+    private final LogStore dictionaries;
+
+    private long totalEvents;
+    private long successLogins;
+    private long failedLogins;
+    private long blockedLogins;
+
+    private final List<LogAnalyzer.LogEntry> failureSamples;
+    private final IpCounter ipFailures;
+    private final IntLongCounter userFailures;
+    private final int approximateTopK;
+    private final HeavyHitters ipHeavyHitters;
+    private final HeavyHitters userHeavyHitters;
+
+    private final HyperLogLog distinctIps;
+    private final HyperLogLog distinctUsers;
+    private final IpsPerUser ipsPerUser;
+
+    private final BruteForceDetector detector;
+    private long[] pendingFailureIps;
+    private long[] pendingFailureTimes;
+    private int pendingFailures;
+    private IpAlertListener ipAlertListener;
+
+    private RuleEngine rules;
+    private int ruleTypeMask;
+    private byte[] pendingRuleTypes;
+    private long[] pendingRuleIps;
+    private int[] pendingRuleUsers;
+    private long[] pendingRuleTimes;
+    private int pendingRuleEvents;
+
+    private ColumnarExport export;
+    private RowGroupEncoder exportRows;
+    private List<RowGroupEncoder> exportGroups;
+
+    public LogAggregator() {
+        this(new LogStore(), new BruteForceDetector());
+    }
+
+    /**
+     * @param dictionaries store cujos dicionários definem as chaves
+     * @param detector detector de brute force; null em agregadores parciais,
+     *                 que guardam as falhas (ip, timestamp) para o merge
+     *                 repassar ao detector na ordem do arquivo
+     */
+    public LogAggregator(LogStore dictionaries, BruteForceDetector detector) {
+        this(dictionaries, detector, 0);
+    }
+
+    /**
+     * @param approximateTopK quantidade de IPs/usuários monitorados no modo
+     *                        aproximado; 0 para contagens exatas
+     */
+    public LogAggregator(LogStore dictionaries, BruteForceDetector detector, int approximateTopK) {
+        if (approximateTopK < 0) {
+            throw new IllegalArgumentException("Top-K inválido: " + approximateTopK);
+        }
+        this.dictionaries = dictionaries;
+        this.approximateTopK = approximateTopK;
+        if (approximateTopK > 0) {
+            this.ipHeavyHitters = new HeavyHitters(approximateTopK,
+                HeavyHitters.DEFAULT_WIDTH, HeavyHitters.DEFAULT_DEPTH);
+            this.userHeavyHitters = ipHeavyHitters.emptyCopy();
+        } else {
+            this.ipHeavyHitters = null;
+            this.userHeavyHitters = null;
+        }
+        this.distinctIps = new HyperLogLog();
+        this.distinctUsers = new HyperLogLog();
+        // Limite de usuários só no modo aproximado: no exato a memória já
+        // acompanha os usuários distintos e o resultado não pode depender
+        // da divisão em blocos/arquivos
+        this.ipsPerUser = new IpsPerUser(IpsPerUser.DEFAULT_PRECISION,
+            approximateTopK > 0 ? IpsPerUser.DEFAULT_MAX_USERS : Integer.MAX_VALUE);
+        this.detector = detector;
+        this.failureSamples = new ArrayList<>(MAX_FAILURE_SAMPLES);
+        this.ipFailures = new IpCounter();
+        this.userFailures = new IntLongCounter();
+        if (detector == null) {
+            this.pendingFailureIps = new long[256];
+            this.pendingFailureTimes = new long[256];
+        }
+    }
+
+    /**
+     * Agregador parcial vazio com a mesma configuração e sem detector,
+     * com um store próprio para os lotes (usado pelos workers do
+     * ChunkedLogReader). Com regras, o dicionário de usuários do parcial
+     * não pode ser zerado entre lotes: os eventos pendentes para as regras
+     * guardam ids dele até o merge (mesma condição do store principal).
+     */
+    public LogAggregator newPartial() {
+        LogAggregator partial = new LogAggregator(
+            new LogStore(isApproximate() && rules == null), null, approximateTopK);
+        partial.ruleTypeMask = rules != null ? rules.getTypeMask() : 0;
+        if (export != null) {
+            partial.exportRows = new RowGroupEncoder();
+            partial.exportGroups = new ArrayList<>();
+        }
+        return partial;
+    }
+
+    /**
+     * Analisa um dataset em memória: uma única passada sobre as colunas
+     * alimenta todos os agregadores, e o relatório sai do resultado
+     */
+    public static LogReport analyze(LogStore store, BruteForceDetector detector) {
+        LogAggregator aggregator = new LogAggregator(store, detector);
+        aggregator.acceptAll(store);
+        aggregator.finish();
+        return aggregator.toReport();
+    }
+
+    /**
+     * Contabiliza todas as linhas do store (que deve usar os mesmos dicionários)
+     */
+    public void acceptAll(LogStore store) {
+        for (int row = 0; row < store.size(); row++) {
+            accept(store, row);
+        }
+    }
+
+    /**
+     * Contabiliza uma linha do store em todos os agregadores
+     */
+    public void accept(LogStore store, int row) {
+        totalEvents++;
+        long ip = globalIpKey(store, store.ipKey(row));
+        byte[] user = store.userBytes(store.userId(row));
+        long userKey = HeavyHitters.hashKey(user);
+        distinctIps.add(ip);
+        distinctUsers.add(userKey);
+
+        LogType type = store.type(row);
+        switch (type) {
+            case SUCESSO:
+                successLogins++;
+                break;
+            case FALHA:
+                failedLogins++;
+                if (failureSamples.size() < MAX_FAILURE_SAMPLES) {
+                    failureSamples.add(store.toEntry(row));
+                }
+                long ipKey = store.ipKey(row);
+                countIpFailure(store, ipKey, store.timestamp(row));
+                countUserFailure(store, store.userId(row));
+                ipsPerUser.add(userKey, user, ip);
+                recordFailure(ipKey, store.timestamp(row));
+                break;
+            case BLOQUEADO:
+                blockedLogins++;
+                countIpFailure(store, store.ipKey(row), store.timestamp(row));
+                break;
+            default:
+                break;
+        }
+
+        if (rules != null) {
+            if (rules.matches(type)) {
+                rules.accept(type, store.ipKey(row), store.userId(row), store.timestamp(row));
+            }
+        } else if ((ruleTypeMask & (1 << type.ordinal())) != 0) {
+            recordRuleEvent(type, store.ipKey(row), store.userId(row), store.timestamp(row));
+        }
+
+        if (exportRows != null) {
+            exportRows.add(store, row);
+            if (exportRows.size() == RowGroupEncoder.MAX_ROWS) {
+                flushExportRows();
+            }
+        }
+    }
+
+    /**
+     * Fecha o grupo atual: o principal grava, o parcial guarda para o merge
+     */
+    private void flushExportRows() {
+        if (exportGroups != null) {
+            exportGroups.add(exportRows);
+        } else {
+            writeRowGroup(exportRows);
+        }
+        exportRows = new RowGroupEncoder();
+    }
+
+    private void writeRowGroup(RowGroupEncoder group) {
+        try {
+            export.writeRowGroup(group);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void countIpFailure(LogStore store, long ip, long timestamp) {
+        long count;
+        if (ipHeavyHitters == null) {
+            count = ipFailures.increment(ip);
+        } else if (IpCodec.isIpv4Key(ip)) {
+            count = ipHeavyHitters.add(ip, null);
+        } else {
+            byte[] name = store.ipBytes(ip);
+            count = ipHeavyHitters.add(globalIpKey(name), name);
+        }
+        if (ipAlertListener != null && count == SUSPICIOUS_IP_THRESHOLD + 1) {
+            ipAlertListener.onSuspiciousIp(ip, count, timestamp);
+        }
+    }
+
+    private void countUserFailure(LogStore store, int user) {
+        if (userHeavyHitters == null) {
+            userFailures.increment(user);
+        } else {
+            byte[] name = store.userBytes(user);
+            userHeavyHitters.add(HeavyHitters.hashKey(name), name);
+        }
+    }
+
+    /**
+     * Chave de IP independente dos dicionários (para sketches mescláveis):
+     * o IPv4 empacotado ou, fora do IPv4, o hash dos bytes com o bit do
+     * IpCodec ligado, para nunca colidir com um IPv4
+     */
+    private static long globalIpKey(LogStore store, long ipKey) {
+        return IpCodec.isIpv4Key(ipKey) ? ipKey : globalIpKey(store.ipBytes(ipKey));
+    }
+
+    private static long globalIpKey(byte[] name) {
+        return HeavyHitters.hashKey(name) | IpCodec.IPV6_FLAG;
+    }
+
+    private void recordFailure(long ip, long timestamp) {
+        if (detector != null) {
+            detector.accept(ip, timestamp);
+            return;
+        }
+        if (pendingFailures == pendingFailureIps.length) {
+            pendingFailureIps = Arrays.copyOf(pendingFailureIps, pendingFailures * 2);
+            pendingFailureTimes = Arrays.copyOf(pendingFailureTimes, pendingFailures * 2);
+        }
+        pendingFailureIps[pendingFailures] = ip;
+        pendingFailureTimes[pendingFailures] = timestamp;
+        pendingFailures++;
+    }
+
+    private void recordRuleEvent(LogType type, long ip, int user, long timestamp) {
+        if (pendingRuleTypes == null) {
+            pendingRuleTypes = new byte[256];
+            pendingRuleIps = new long[256];
+            pendingRuleUsers = new int[256];
+            pendingRuleTimes = new long[256];
+        } else if (pendingRuleEvents == pendingRuleTypes.length) {
+            int capacity = pendingRuleEvents * 2;
+            pendingRuleTypes = Arrays.copyOf(pendingRuleTypes, capacity);
+            pendingRuleIps = Arrays.copyOf(pendingRuleIps, capacity);
+            pendingRuleUsers = Arrays.copyOf(pendingRuleUsers, capacity);
+            pendingRuleTimes = Arrays.copyOf(pendingRuleTimes, capacity);
+        }
+        pendingRuleTypes[pendingRuleEvents] = (byte) type.ordinal();
+        pendingRuleIps[pendingRuleEvents] = ip;
+        pendingRuleUsers[pendingRuleEvents] = user;
+        pendingRuleTimes[pendingRuleEvents] = timestamp;
+        pendingRuleEvents++;
+    }
+
+    /**
+     * Encerra a entrada: fecha os ataques ainda abertos no detector e nas regras
+     */
+    public void finish() {
+        if (detector != null) {
+            detector.finish();
+        }
+        if (rules != null) {
+            rules.finish();
+        }
+        if (export != null) {
+            writeRowGroup(exportRows);
+            exportRows = new RowGroupEncoder();
+        }
+    }
+
+    /**
+     * Relê o arquivo de regras se ele mudou (chamado entre blocos e no
+     * laço do --follow); os parciais criados depois já usam as novas regras
+     */
+    public void reloadRules() {
+        if (rules != null) {
+            rules.reloadIfChanged();
+        }
+    }
+
+    /**
+     * Mescla um agregador parcial (de um bloco posterior do arquivo),
+     * remapeando as chaves para os dicionários deste agregador
+     */
+    public void merge(LogAggregator other) {
+        totalEvents += other.totalEvents;
+        successLogins += other.successLogins;
+        failedLogins += other.failedLogins;
+        blockedLogins += other.blockedLogins;
+
+        for (LogAnalyzer.LogEntry log : other.failureSamples) {
+            if (failureSamples.size() >= MAX_FAILURE_SAMPLES) {
+                break;
+            }
+            failureSamples.add(log);
+        }
+
+        distinctIps.merge(other.distinctIps);
+        distinctUsers.merge(other.distinctUsers);
+        ipsPerUser.merge(other.ipsPerUser);
+        if (ipHeavyHitters != null) {
+            ipHeavyHitters.merge(other.ipHeavyHitters);
+            userHeavyHitters.merge(other.userHeavyHitters);
+        }
+        LogStore source = other.dictionaries;
+        other.ipFailures.forEach((ip, count) ->
+            ipFailures.add(dictionaries.importIpKey(source, ip), count));
+        other.userFailures.forEach((user, count) ->
+            userFailures.add(dictionaries.importUserId(source, user), count));
+        for (int i = 0; i < other.pendingFailures; i++) {
+            recordFailure(dictionaries.importIpKey(source, other.pendingFailureIps[i]),
+                other.pendingFailureTimes[i]);
+        }
+        if (rules != null) {
+            for (int i = 0; i < other.pendingRuleEvents; i++) {
+                LogType type = LogType.ofOrdinal(other.pendingRuleTypes[i]);
+                if (rules.matches(type)) {
+                    rules.accept(type, dictionaries.importIpKey(source, other.pendingRuleIps[i]),
+                        dictionaries.importUserId(source, other.pendingRuleUsers[i]),
+                        other.pendingRuleTimes[i]);
+                }
+            }
+            reloadRules();
+        }
+        if (export != null && other.exportRows != null) {
+            writeRowGroup(exportRows);
+            exportRows = new RowGroupEncoder();
+            for (RowGroupEncoder group : other.exportGroups) {
+                writeRowGroup(group);
+            }
+            writeRowGroup(other.exportRows);
+        }
+    }
+
+    /**
+     * Monta o modelo do relatório a partir dos agregados
+     * Percorre só os mapas (IPs e usuários distintos), nunca os eventos.
+     */
+    public LogReport toReport() {
+        if (ipHeavyHitters != null) {
+            return toApproximateReport();
+        }
+        List<LogReport.Ranked> suspiciousIps = new ArrayList<>();
+        ipFailures.forEach((ip, count) -> {
+            if (count > SUSPICIOUS_IP_THRESHOLD) {
+                suspiciousIps.add(new LogReport.Ranked(ipName(ip), count));
+            }
+        });
+        // Empates pelo texto do IP: a ordem do contador depende de como os
+        // blocos e arquivos foram mesclados
+        suspiciousIps.sort(Comparator.comparingLong(LogReport.Ranked::getCount).reversed()
+            .thenComparing(LogReport.Ranked::getName));
+
+        // Top-N com heap limitado em vez de ordenar todos os usuários
+        // ({id, falhas}); o pior fica no topo: menos falhas e, no empate,
+        // o maior nome (o relatório sai por falhas e depois por nome)
+        PriorityQueue<long[]> topUsers = new PriorityQueue<>(MAX_PROBLEM_USERS + 1,
+            Comparator.<long[]>comparingLong(e -> e[1])
+                .thenComparing(e -> userName((int) e[0]), Comparator.reverseOrder()));
+        userFailures.forEach((user, count) -> {
+            if (count > PROBLEM_USER_THRESHOLD) {
+                topUsers.add(new long[] {user, count});
+                if (topUsers.size() > MAX_PROBLEM_USERS) {
+                    topUsers.poll();
+                }
+            }
+        });
+        List<LogReport.Ranked> problematicUsers = new ArrayList<>();
+        while (!topUsers.isEmpty()) {
+            long[] e = topUsers.poll();
+            problematicUsers.add(0, new LogReport.Ranked(userName((int) e[0]), e[1]));
+        }
+
+        return buildReport(suspiciousIps, problematicUsers, -1, -1);
+    }
+
+    /**
+     * Relatório do modo aproximado: top-K dos HeavyHitters, já ordenados
+     * Só entram chaves cujo limite inferior garantido passa do limiar; as
+     * demais não se distinguem do erro do sketch.
+     */
+    private LogReport toApproximateReport() {
+        long ipError = ipHeavyHitters.getErrorBound();
+        List<LogReport.Ranked> suspiciousIps = new ArrayList<>();
+        for (HeavyHitters.Entry e : ipHeavyHitters.top()) {
+            if (guaranteedCount(e, ipError) > SUSPICIOUS_IP_THRESHOLD) {
+                String name = IpCodec.isIpv4Key(e.getKey())
+                    ? IpCodec.formatIpv4((int) e.getKey())
+                    : e.getLabel();
+                suspiciousIps.add(new LogReport.Ranked(name, e.getEstimate()));
+            }
+        }
+
+        long userError = userHeavyHitters.getErrorBound();
+        List<LogReport.Ranked> problematicUsers = new ArrayList<>();
+        for (HeavyHitters.Entry e : userHeavyHitters.top()) {
+            if (problematicUsers.size() == MAX_PROBLEM_USERS) {
+                break;
+            }
+            if (guaranteedCount(e, userError) > PROBLEM_USER_THRESHOLD) {
+                problematicUsers.add(new LogReport.Ranked(e.getLabel(), e.getEstimate()));
+            }
+        }
+
+        return buildReport(suspiciousIps, problematicUsers, ipError, userError);
+    }
+
+    private static long guaranteedCount(HeavyHitters.Entry e, long errorBound) {
+        return Math.max(e.getLowerBound(), e.getEstimate() - errorBound);
+    }
+
+    private LogReport buildReport(List<LogReport.Ranked> suspiciousIps,
+                                  List<LogReport.Ranked> problematicUsers,
+                                  long ipErrorBound, long userErrorBound) {
+        List<LogReport.AttackRow> attacks = new ArrayList<>();
+        long windowSeconds = 0;
+        int threshold = 0;
+        if (detector != null) {
+            windowSeconds = detector.getWindowSeconds();
+            threshold = detector.getThreshold();
+            for (BruteForceDetector.Attack attack : detector.getAttacks()) {
+                attacks.add(new LogReport.AttackRow(ipName(attack.getIpKey()), attack.getStart(),
+                    attack.getEnd(), attack.getFailures(), attack.getPeak()));
+            }
+            // Ataques que começam no mesmo segundo: pelo texto do IP, como nos rankings
+            attacks.sort(Comparator.comparingLong(LogReport.AttackRow::getStart)
+                .thenComparing(LogReport.AttackRow::getIp));
+        }
+
+        LogReport.Cardinality cardinality = new LogReport.Cardinality(
+            distinctIps.estimate(), distinctUsers.estimate(), distinctIps.getRelativeError(),
+            ipsPerUser.top(MAX_PROBLEM_USERS, STUFFING_IP_THRESHOLD), ipsPerUser.getRelativeError());
+
+        List<LogReport.RuleRow> ruleRows = new ArrayList<>();
+        if (rules != null) {
+            for (Rule rule : rules.getRules()) {
+                List<LogReport.Ranked> top = new ArrayList<>();
+                for (long[] e : rule.top(MAX_PROBLEM_USERS, key -> ruleKeyName(rule, key))) {
+                    top.add(new LogReport.Ranked(ruleKeyName(rule, e[0]), e[1]));
+                }
+                ruleRows.add(new LogReport.RuleRow(rule.getName(), rule.getDefinition(),
+                    rule.getAlerts(), top));
+            }
+        }
+
+        return new LogReport(totalEvents, successLogins, failedLogins, blockedLogins,
+            new ArrayList<>(failureSamples), suspiciousIps, windowSeconds, threshold, attacks,
+            problematicUsers, ipErrorBound, userErrorBound, cardinality, ruleRows);
+    }
+
+    /**
+     * Recebe avisos quando um IP passa de SUSPICIOUS_IP_THRESHOLD falhas
+     */
+    public void setIpAlertListener(IpAlertListener listener) {
+        this.ipAlertListener = listener;
+    }
+
+    /**
+     * Liga o motor de regras (só no agregador principal, que vê os eventos
+     * em ordem); os parciais criados depois guardam os eventos das regras
+     */
+    public void setRules(RuleEngine rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Grava cada linha também no arquivo colunar (só no agregador
+     * principal); erros de escrita saem como UncheckedIOException
+     */
+    public void setExport(ColumnarExport export) {
+        this.export = export;
+        this.exportRows = export != null ? new RowGroupEncoder() : null;
+    }
+
+    // Decodificação das chaves
+    public String ipName(long ipKey) {
+        return dictionaries.ipName(ipKey);
+    }
+
+    public String ruleKeyName(Rule rule, long key) {
+        return rule.getField() == Rule.Field.IP ? ipName(key) : userName((int) key);
+    }
+
+    public String userName(int userId) {
+        return dictionaries.userName(userId);
+    }
+
+    // Getters
+    public LogStore getStore() {
+        return dictionaries;
+    }
+
+    public long getTotalEvents() {
+        return totalEvents;
+    }
+
+    public long getSuccessLogins() {
+        return successLogins;
+    }
+
+    public long getFailedLogins() {
+        return failedLogins;
+    }
+
+    public long getBlockedLogins() {
+        return blockedLogins;
+    }
+
+    public List<LogAnalyzer.LogEntry> getFailureSamples() {
+        return failureSamples;
+    }
+
+    public IpCounter getIpFailures() {
+        return ipFailures;
+    }
+
+    public BruteForceDetector getDetector() {
+        return detector;
+    }
+
+    public RuleEngine getRules() {
+        return rules;
+    }
+
+    public IntLongCounter getUserFailures() {
+        return userFailures;
+    }
+
+    public HyperLogLog getDistinctIps() {
+        return distinctIps;
+    }
+
+    public HyperLogLog getDistinctUsers() {
+        return distinctUsers;
+    }
+
+    public IpsPerUser getIpsPerUser() {
+        return ipsPerUser;
+    }
+
+    public boolean isApproximate() {
+        return approximateTopK > 0;
+    }
+
+    /**
+     * Memória fixa dos sketches (0 no modo exato)
+     */
+    public long getApproximateMemoryBytes() {
+        return ipHeavyHitters == null ? 0
+            : ipHeavyHitters.getMemoryBytes() + userHeavyHitters.getMemoryBytes();
+    }
+
+    /**
+     * Callback chamado quando um IP se torna suspeito
+     */
+    public interface IpAlertListener {
+        void onSuspiciousIp(long ipKey, long failures, long timestamp);
+    }
+}
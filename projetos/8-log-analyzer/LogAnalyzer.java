@@ -1,4 +1,8 @@
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -12,31 +16,185 @@ import java.util.regex.*;
  * ✓ Lê arquivo de log
  * ✓ Conta tentativas de login
  * ✓ Identifica IPs suspeitos
- * ✓ Detecta ataques de brute force
+ * ✓ Detecta ataques de brute force (janela deslizante)
  * ✓ Gera relatório
+ * ✓ Leitura em streaming (memória constante)
+ * ✓ Parsing paralelo com arquivo mapeado em memória
+ * ✓ Modo --follow com alertas ao vivo
+ * ✓ Vários arquivos (glob) e logs .gz lidos em paralelo
+ * ✓ Regras declarativas recarregadas em tempo de execução
+ * ✓ Exportação colunar binária (lida de volta pelo ColumnarLogFile)
  *
  * Como executar:
- * javac LogAnalyzer.java
- * java LogAnalyzer
+ * javac *.java
+ * java LogAnalyzer [--janela=SEGUNDOS] [--limiar=N] [--aproximado[=K]] [--regras=ARQUIVO]
+ *                  [--exportar=ARQUIVO] [--follow] [arquivos...]
  */
 public class LogAnalyzer {
-    private List<LogEntry> logs;
+    private LogAggregator aggregator;
+    private final List<Path> logFiles;
+    private Path exportFile;
     private static final String LOG_FILE = "sample-logs.txt";
+    private static final Pattern LINE_PATTERN = Pattern.compile(
+        "\\[(.*?)\\]\\s\\[(.*?)\\]\\s\\[(.*?)\\]\\s\\[(.*?)\\]\\s(.*)"
+    );
 
     public LogAnalyzer() {
-        this.logs = new ArrayList<>();
+        this(Paths.get(LOG_FILE), new BruteForceDetector());
     }
 
+    public LogAnalyzer(Path logFile, BruteForceDetector detector) {
+        this(logFile, detector, 0);
+    }
+
+    /**
+     * @param approximateTopK IPs/usuários monitorados no modo aproximado (0 = exato)
+     */
+    public LogAnalyzer(Path logFile, BruteForceDetector detector, int approximateTopK) {
+        this(List.of(logFile), detector, approximateTopK);
+    }
+
+    /**
+     * @param logFiles arquivos lidos em sequência lógica (o relatório é o
+     *                 mesmo de concatená-los nessa ordem)
+     */
+    public LogAnalyzer(List<Path> logFiles, BruteForceDetector detector, int approximateTopK) {
+        this(logFiles, detector, approximateTopK, null);
+    }
+
+    /**
+     * @param rules regras declarativas avaliadas na mesma passada (null para nenhuma)
+     */
+    public LogAnalyzer(List<Path> logFiles, BruteForceDetector detector, int approximateTopK,
+                       RuleEngine rules) {
+        this.logFiles = logFiles;
+        // Com regras, os ids de usuário do agregador principal precisam
+        // continuar válidos até o relatório, mesmo no modo aproximado
+        this.aggregator = new LogAggregator(
+            new LogStore(approximateTopK > 0 && rules == null), detector, approximateTopK);
+        this.aggregator.setRules(rules);
+    }
+
+    /**
+     * Uso: java LogAnalyzer [opções] [arquivos...]
+     * --janela=SEGUNDOS  tamanho da janela do detector de brute force (padrão 60)
+     * --limiar=N         falhas na janela acima das quais há ataque (padrão 5)
+     * --aproximado[=K]   contagens por IP/usuário em memória fixa (top-K, padrão 1024)
+     * --regras=ARQUIVO   regras de detecção (ex.: regras.txt), relidas quando o arquivo muda
+     * --exportar=ARQUIVO grava eventos e relatório no formato colunar (ver ColumnarLogFile)
+     * --follow           acompanha o arquivo (tail -F) e emite alertas ao vivo
+     *
+     * Os arquivos podem ser globs entre aspas ("logs/auth.log*") e .gz.
+     * Sem arquivo, gera e analisa o sample-logs.txt.
+     */
     public static void main(String[] args) {
-        LogAnalyzer analyzer = new LogAnalyzer();
-        analyzer.run();
+        long window = BruteForceDetector.DEFAULT_WINDOW_SECONDS;
+        int threshold = BruteForceDetector.DEFAULT_THRESHOLD;
+        int approximateTopK = 0;
+        boolean follow = false;
+        Path rulesFile = null;
+        Path exportFile = null;
+        List<String> inputs = new ArrayList<>();
+        try {
+            for (String arg : args) {
+                if (arg.startsWith("--janela=")) {
+                    window = Long.parseLong(arg.substring("--janela=".length()));
+                } else if (arg.startsWith("--limiar=")) {
+                    threshold = Integer.parseInt(arg.substring("--limiar=".length()));
+                } else if (arg.equals("--aproximado")) {
+                    approximateTopK = HeavyHitters.DEFAULT_TOP_K;
+                } else if (arg.startsWith("--aproximado=")) {
+                    approximateTopK = Integer.parseInt(arg.substring("--aproximado=".length()));
+                    if (approximateTopK <= 0) {
+                        System.out.println("❌ O top-K do modo aproximado deve ser positivo");
+                        return;
+                    }
+                } else if (arg.startsWith("--regras=")) {
+                    rulesFile = Paths.get(arg.substring("--regras=".length()));
+                } else if (arg.startsWith("--exportar=")) {
+                    exportFile = Paths.get(arg.substring("--exportar=".length()));
+                } else if (arg.equals("--follow")) {
+                    follow = true;
+                } else if (!arg.startsWith("--")) {
+                    inputs.add(arg);
+                } else {
+                    System.out.println("❌ Opção desconhecida: " + arg);
+                    return;
+                }
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("❌ Valor inválido: " + e.getMessage());
+            return;
+        }
+
+        List<Path> files;
+        try {
+            files = inputs.isEmpty()
+                ? List.of(Paths.get(LOG_FILE))
+                : MultiFileLogReader.expand(inputs);
+        } catch (NoSuchFileException e) {
+            System.out.println("❌ Nenhum arquivo encontrado: " + e.getFile());
+            return;
+        } catch (IOException e) {
+            System.out.println("❌ Erro ao listar arquivos: " + e.getMessage());
+            return;
+        }
+        if (follow && (files.size() != 1 || MultiFileLogReader.isGzip(files.get(0)))) {
+            System.out.println("❌ O modo --follow acompanha um único arquivo não compactado");
+            return;
+        }
+        if (follow && exportFile != null) {
+            System.out.println("❌ --exportar não se combina com --follow");
+            return;
+        }
+
+        RuleEngine rules = null;
+        if (rulesFile != null) {
+            try {
+                rules = RuleEngine.load(rulesFile);
+            } catch (NoSuchFileException e) {
+                System.out.println("❌ Arquivo de regras não encontrado: " + e.getFile());
+                return;
+            } catch (IOException e) {
+                System.out.println("❌ Erro ao ler regras: " + e.getMessage());
+                return;
+            } catch (IllegalArgumentException e) {
+                System.out.println("❌ Erro nas regras: " + e.getMessage());
+                return;
+            }
+        }
+
+        if (window <= 0 || threshold < 0) {
+            System.out.println("❌ A janela deve ser positiva e o limiar não pode ser negativo");
+            return;
+        }
+        BruteForceDetector detector =
+            new BruteForceDetector(window, threshold, BruteForceDetector.DEFAULT_MAX_TRACKED_IPS);
+        if (detector.getWindowSeconds() != window) {
+            System.out.printf("⚠️  Janela de %ds arredondada para %ds (buckets de %ds)\n",
+                window, detector.getWindowSeconds(), detector.getBucketSeconds());
+        }
+        LogAnalyzer analyzer = new LogAnalyzer(files, detector, approximateTopK, rules);
+        analyzer.exportTo(exportFile);
+        if (follow) {
+            analyzer.follow();
+        } else {
+            analyzer.run(inputs.isEmpty());
+        }
     }
 
-    private void run() {
+    private void run(boolean generateSample) {
         showWelcome();
 
         // Criar arquivo de amostra
-        createSampleLogs();
+        if (generateSample) {
+            createSampleLogs();
+        }
+
+        if (exportFile != null) {
+            runWithExport();
+            return;
+        }
 
         // Carregar logs
         if (loadLogs()) {
@@ -47,37 +205,112 @@ public class LogAnalyzer {
     }
 
     /**
-     * Carrega os logs do arquivo
+     * Mesma análise, gravando as linhas no arquivo colunar durante a
+     * leitura e o relatório no fim
+     */
+    private void runWithExport() {
+        try (ColumnarExport export = ColumnarExport.create(exportFile)) {
+            aggregator.setExport(export);
+            if (!loadLogs()) {
+                System.out.println("❌ Erro ao carregar arquivo de logs.");
+                return;
+            }
+            LogReport report = analyzeAndReport();
+            export.finish(report);
+            System.out.printf("💾 Exportado para %s: %d eventos em %d grupo(s), %d KB\n",
+                exportFile, export.getRows(), export.getRowGroups(), Files.size(exportFile) / 1024);
+        } catch (IOException e) {
+            System.out.println("❌ Erro ao exportar: " + e.getMessage());
+        } finally {
+            aggregator.setExport(null);
+        }
+    }
+
+    /**
+     * Grava os eventos e o relatório no formato colunar (null para não exportar)
+     */
+    public void exportTo(Path exportFile) {
+        this.exportFile = exportFile;
+    }
+
+    /**
+     * Um arquivo só é mapeado em memória e lido em blocos paralelos; vários
+     * arquivos (ou .gz) são lidos um por worker. Em ambos os casos cada
+     * linha é parseada uma vez e enviada direto ao agregador parcial.
      */
     private boolean loadLogs() {
-        try (BufferedReader br = new BufferedReader(new FileReader(LOG_FILE))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                LogEntry entry = parseLogLine(line);
-                if (entry != null) {
-                    logs.add(entry);
-                }
+        try {
+            if (logFiles.size() == 1 && !MultiFileLogReader.isGzip(logFiles.get(0))) {
+                new ChunkedLogReader().read(logFiles.get(0), aggregator);
+            } else {
+                new MultiFileLogReader().read(logFiles, aggregator);
+            }
+            aggregator.finish();
+            System.out.println("✅ Processados " + aggregator.getTotalEvents() + " logs");
+            if (aggregator.isApproximate()) {
+                System.out.printf("📦 Modo aproximado: %d KB fixos para IPs e usuários\n",
+                    aggregator.getApproximateMemoryBytes() / 1024);
             }
-            System.out.println("✅ Carregados " + logs.size() + " logs");
             return true;
-        } catch (FileNotFoundException e) {
-            System.out.println("❌ Arquivo não encontrado: " + LOG_FILE);
+        } catch (NoSuchFileException e) {
+            System.out.println("❌ Arquivo não encontrado: " + e.getFile());
             return false;
         } catch (IOException e) {
             System.out.println("❌ Erro ao ler arquivo: " + e.getMessage());
             return false;
+        } catch (UncheckedIOException e) {
+            System.out.println("❌ Erro ao exportar: " + e.getCause().getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Modo --follow: relatório do conteúdo atual e depois alertas ao vivo
+     * conforme novas linhas chegam ao arquivo
+     */
+    private void follow() {
+        showWelcome();
+        Path logFile = logFiles.get(0);
+        LogFollower follower = new LogFollower(logFile, aggregator);
+        try {
+            System.out.println("⏳ Aguardando " + logFile + "...");
+            follower.catchUp();
+            System.out.println("✅ Processados " + aggregator.getTotalEvents() + " logs");
+            analyzeAndReport();
+
+            aggregator.setIpAlertListener((ip, failures, timestamp) ->
+                System.out.printf("🚨 [%s] IP suspeito: %s (%d tentativas falhas)\n",
+                    TimestampCodec.format(timestamp), aggregator.ipName(ip), failures));
+            aggregator.getDetector().setListener((attack, windowCount) ->
+                System.out.printf("🚨 [%s] BRUTE FORCE: %s (%d falhas em %ds)\n",
+                    TimestampCodec.format(attack.getStart()), aggregator.ipName(attack.getIpKey()),
+                    windowCount, aggregator.getDetector().getWindowSeconds()));
+            if (aggregator.getRules() != null) {
+                aggregator.getRules().setListener((rule, key, count, timestamp) ->
+                    System.out.printf("🚨 [%s] REGRA %s: %s (%d eventos%s)\n",
+                        TimestampCodec.format(timestamp), rule.getName(),
+                        aggregator.ruleKeyName(rule, key), count,
+                        rule.getWindowSeconds() > 0 ? " em " + rule.getWindowSeconds() + "s" : ""));
+            }
+
+            System.out.println("👀 Acompanhando " + logFile + " (Ctrl+C para sair)");
+            follower.follow();
+        } catch (IOException e) {
+            System.out.println("❌ Erro ao acompanhar arquivo: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
     /**
-     * Parse de uma linha de log
+     * Parse de uma linha de log por regex
      * Formato: [TIMESTAMP] [TIPO] [IP] [USUARIO] [MENSAGEM]
+     *
+     * A leitura usa o LogLineTokenizer; este método fica como
+     * referência de comportamento e base de comparação no benchmark.
      */
-    private LogEntry parseLogLine(String line) {
-        Pattern pattern = Pattern.compile(
-            "\\[(.*?)\\]\\s\\[(.*?)\\]\\s\\[(.*?)\\]\\s\\[(.*?)\\]\\s(.*)"
-        );
-        Matcher matcher = pattern.matcher(line);
+    static LogEntry parseLogLine(String line) {
+        Matcher matcher = LINE_PATTERN.matcher(line);
 
         if (matcher.find()) {
             return new LogEntry(
@@ -93,125 +326,110 @@ public class LogAnalyzer {
 
     /**
      * Analisa logs e gera relatório
+     * Os agregados já vêm da passada única da leitura; aqui só se monta
+     * o modelo e se imprime cada seção a partir dele.
      */
-    private void analyzeAndReport() {
+    private LogReport analyzeAndReport() {
+        LogReport report = aggregator.toReport();
+
         System.out.println("\n" +
                 "════════════════════════════════════════\n" +
                 "📊 RELATÓRIO DE ANÁLISE DE LOGS\n" +
                 "════════════════════════════════════════\n");
 
         // Estatísticas gerais
-        showGeneralStats();
+        showGeneralStats(report);
 
         // Falhas de login
-        showFailedLogins();
+        showFailedLogins(report);
 
         // IPs suspeitos
-        showSuspiciousIPs();
+        showSuspiciousIPs(report);
 
         // Ataques detectados
-        showAttackDetection();
+        showAttackDetection(report);
 
         // Usuários com problemas
-        showProblematicUsers();
+        showProblematicUsers(report);
+
+        // Usuários atacados de vários IPs
+        showCredentialStuffing(report);
+
+        // Regras do arquivo de regras
+        showRules(report);
+        return report;
     }
 
     /**
      * Exibe estatísticas gerais
      */
-    private void showGeneralStats() {
-        long successLogins = logs.stream()
-            .filter(log -> "SUCESSO".equals(log.tipo))
-            .count();
-
-        long failedLogins = logs.stream()
-            .filter(log -> "FALHA".equals(log.tipo))
-            .count();
-
-        long bloqueados = logs.stream()
-            .filter(log -> "BLOQUEADO".equals(log.tipo))
-            .count();
-
+    private void showGeneralStats(LogReport report) {
         System.out.println("📌 Estatísticas Gerais:");
-        System.out.printf("  Total de eventos: %d\n", logs.size());
-        System.out.printf("  ✅ Logins bem-sucedidos: %d\n", successLogins);
-        System.out.printf("  ❌ Falhas de login: %d\n", failedLogins);
-        System.out.printf("  ⛔ Bloqueados: %d\n", bloqueados);
-        System.out.printf("  Taxa de falha: %.2f%%\n",
-            (failedLogins * 100.0 / (successLogins + failedLogins)));
+        System.out.printf("  Total de eventos: %d\n", report.getTotalEvents());
+        System.out.printf("  ✅ Logins bem-sucedidos: %d\n", report.getSuccessLogins());
+        System.out.printf("  ❌ Falhas de login: %d\n", report.getFailedLogins());
+        System.out.printf("  ⛔ Bloqueados: %d\n", report.getBlockedLogins());
+        System.out.printf("  Taxa de falha: %.2f%%\n", report.getFailureRate());
+        LogReport.Cardinality cardinality = report.getCardinality();
+        System.out.printf("  🌐 IPs distintos: ≈%d\n", cardinality.getDistinctIps());
+        System.out.printf("  👥 Usuários distintos: ≈%d\n", cardinality.getDistinctUsers());
+        System.out.printf("  (estimativas HyperLogLog, erro padrão %.1f%%)\n",
+            cardinality.getRelativeError() * 100);
         System.out.println();
     }
 
     /**
      * Exibe falhas de login
      */
-    private void showFailedLogins() {
+    private void showFailedLogins(LogReport report) {
         System.out.println("📌 Últimas Falhas de Login:");
-        logs.stream()
-            .filter(log -> "FALHA".equals(log.tipo))
-            .limit(5)
-            .forEach(log -> {
-                System.out.printf("  [%s] %s @ %s - %s\n",
-                    log.timestamp, log.usuario, log.ip, log.mensagem);
-            });
+        report.getFailureSamples().forEach(log -> {
+            System.out.printf("  [%s] %s @ %s - %s\n",
+                log.timestamp, log.usuario, log.ip, log.mensagem);
+        });
         System.out.println();
     }
 
     /**
      * Identifica IPs suspeitos (múltiplas tentativas falhas)
      */
-    private void showSuspiciousIPs() {
-        Map<String, Long> ipFailures = new HashMap<>();
-
-        logs.stream()
-            .filter(log -> "FALHA".equals(log.tipo) || "BLOQUEADO".equals(log.tipo))
-            .forEach(log -> {
-                ipFailures.put(log.ip, ipFailures.getOrDefault(log.ip, 0L) + 1);
-            });
-
-        System.out.println("🚨 IPs Suspeitos (>3 tentativas falhas):");
-        ipFailures.entrySet().stream()
-            .filter(e -> e.getValue() > 3)
-            .sorted((a, b) -> Long.compare(b.getValue(), a.getValue()))
-            .forEach(e -> {
-                System.out.printf("  🔴 %s: %d tentativas falhas\n", e.getKey(), e.getValue());
-            });
-
-        if (ipFailures.values().stream().noneMatch(v -> v > 3)) {
+    private void showSuspiciousIPs(LogReport report) {
+        System.out.printf("🚨 IPs Suspeitos (>%d tentativas falhas):\n",
+            LogAggregator.SUSPICIOUS_IP_THRESHOLD);
+        if (report.isApproximate()) {
+            System.out.printf("  ≈ Contagens aproximadas (erro máximo +%d)\n",
+                report.getIpErrorBound());
+        }
+        String prefix = report.isApproximate() ? "≈" : "";
+        report.getSuspiciousIps().forEach(ip -> {
+            System.out.printf("  🔴 %s: %s%d tentativas falhas\n",
+                ip.getName(), prefix, ip.getCount());
+        });
+
+        if (report.getSuspiciousIps().isEmpty()) {
             System.out.println("  ✅ Nenhum IP suspeito identificado");
         }
         System.out.println();
     }
 
     /**
-     * Detecta possível ataque de brute force
+     * Exibe os ataques de brute force da janela deslizante
      */
-    private void showAttackDetection() {
-        System.out.println("🔍 Detecção de Brute Force:");
-
-        // Contar falhas por IP em janela de tempo
-        Map<String, Integer> bruteForceAttempts = new HashMap<>();
-
-        for (LogEntry log : logs) {
-            if ("FALHA".equals(log.tipo)) {
-                bruteForceAttempts.put(log.ip,
-                    bruteForceAttempts.getOrDefault(log.ip, 0) + 1);
-            }
-        }
+    private void showAttackDetection(LogReport report) {
+        System.out.printf("🔍 Detecção de Brute Force (>%d falhas em %ds):\n",
+            report.getBruteForceThreshold(), report.getWindowSeconds());
 
-        // Limiar para brute force: >5 tentativas
-        boolean hasAttack = bruteForceAttempts.values().stream()
-            .anyMatch(v -> v > 5);
-
-        if (hasAttack) {
-            System.out.println("  ⚠️  POSSÍVEL ATAQUE DETECTADO!");
-            bruteForceAttempts.entrySet().stream()
-                .filter(e -> e.getValue() > 5)
-                .forEach(e -> {
-                    System.out.printf("    IP: %s (%d tentativas)\n", e.getKey(), e.getValue());
-                });
-        } else {
+        if (report.getAttacks().isEmpty()) {
             System.out.println("  ✅ Nenhum ataque detectado");
+        } else {
+            System.out.println("  ⚠️  POSSÍVEL ATAQUE DETECTADO!");
+            for (LogReport.AttackRow attack : report.getAttacks()) {
+                System.out.printf("    IP: %s | %s → %s | %d falhas | pico %d/%ds\n",
+                    attack.getIp(),
+                    TimestampCodec.format(attack.getStart()),
+                    TimestampCodec.format(attack.getEnd()),
+                    attack.getFailures(), attack.getPeak(), report.getWindowSeconds());
+            }
         }
         System.out.println();
     }
@@ -219,24 +437,51 @@ public class LogAnalyzer {
     /**
      * Exibe usuários com problemas
      */
-    private void showProblematicUsers() {
-        Map<String, Long> userFailures = new HashMap<>();
+    private void showProblematicUsers(LogReport report) {
+        System.out.println("👤 Usuários com Múltiplas Falhas:");
+        if (report.isApproximate()) {
+            System.out.printf("  ≈ Contagens aproximadas (erro máximo +%d)\n",
+                report.getUserErrorBound());
+        }
+        String prefix = report.isApproximate() ? "≈" : "";
+        report.getProblematicUsers().forEach(user -> {
+            System.out.printf("  ⚠️  %s: %s%d falhas\n", user.getName(), prefix, user.getCount());
+        });
+        System.out.println();
+    }
 
-        logs.stream()
-            .filter(log -> "FALHA".equals(log.tipo))
-            .forEach(log -> {
-                userFailures.put(log.usuario,
-                    userFailures.getOrDefault(log.usuario, 0L) + 1);
-            });
+    /**
+     * Exibe usuários com falhas vindas de muitos IPs distintos
+     * (indício de credential stuffing / password spraying distribuído)
+     */
+    private void showCredentialStuffing(LogReport report) {
+        LogReport.Cardinality cardinality = report.getCardinality();
+        System.out.printf("🧩 Usuários com Falhas de Vários IPs (>%d IPs distintos, erro padrão %.0f%%):\n",
+            LogAggregator.STUFFING_IP_THRESHOLD, cardinality.getPerUserRelativeError() * 100);
+        cardinality.getUsersByDistinctIps().forEach(user -> {
+            System.out.printf("  ⚠️  %s: ≈%d IPs distintos\n", user.getName(), user.getCount());
+        });
+
+        if (cardinality.getUsersByDistinctIps().isEmpty()) {
+            System.out.println("  ✅ Nenhum usuário atacado de vários IPs");
+        }
+        System.out.println();
+    }
 
-        System.out.println("👤 Usuários com Múltiplas Falhas:");
-        userFailures.entrySet().stream()
-            .filter(e -> e.getValue() > 2)
-            .sorted((a, b) -> Long.compare(b.getValue(), a.getValue()))
-            .limit(5)
-            .forEach(e -> {
-                System.out.printf("  ⚠️  %s: %d falhas\n", e.getKey(), e.getValue());
-            });
+    /**
+     * Exibe o resultado de cada regra do arquivo de regras
+     */
+    private void showRules(LogReport report) {
+        if (aggregator.getRules() == null) {
+            return;
+        }
+        System.out.printf("📏 Regras (%s):\n", aggregator.getRules().getFile());
+        for (LogReport.RuleRow rule : report.getRules()) {
+            System.out.printf("  %s %s [%s]: %d alertas\n", rule.getAlerts() > 0 ? "🔴" : "✅",
+                rule.getName(), rule.getDefinition(), rule.getAlerts());
+            rule.getTop().forEach(key ->
+                System.out.printf("      %s: %d\n", key.getName(), key.getCount()));
+        }
         System.out.println();
     }
 
@@ -252,6 +497,7 @@ public class LogAnalyzer {
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
             // Gerar 30 logs aleatórios
+            List<String> lines = new ArrayList<>();
             Random rand = new Random();
             for (int i = 0; i < 30; i++) {
                 String tipo = tipos[rand.nextInt(tipos.length)];
@@ -265,8 +511,21 @@ public class LogAnalyzer {
                     default -> "Bloqueado por excesso de tentativas";
                 };
 
-                pw.printf("[%s] [%s] [%s] [%s] %s\n",
-                    time.format(formatter), tipo, ip, user, msg);
+                lines.add(String.format("[%s] [%s] [%s] [%s] %s",
+                    time.format(formatter), tipo, ip, user, msg));
+            }
+
+            // Rajada de falhas de um mesmo IP em menos de um minuto
+            LocalDateTime burst = LocalDateTime.now().minusHours(rand.nextInt(24));
+            for (int i = 0; i < 8; i++) {
+                lines.add(String.format("[%s] [FALHA] [203.0.113.45] [admin] Senha incorreta",
+                    burst.plusSeconds(i * 5L).format(formatter)));
+            }
+
+            // Logs reais chegam em ordem de tempo (o timestamp vem no início da linha)
+            Collections.sort(lines);
+            for (String line : lines) {
+                pw.println(line);
             }
         } catch (IOException e) {
             System.out.println("❌ Erro ao criar arquivo de amostra");
@@ -282,7 +541,9 @@ public class LogAnalyzer {
     }
 
     /**
-     * Classe interna para representar um entry do log
+     * Entrada de log decodificada em Strings
+     * O armazenamento usa o LogStore colunar; esta classe só aparece no
+     * parser por regex e nas amostras exibidas no relatório.
      */
     static class LogEntry {
         String timestamp;
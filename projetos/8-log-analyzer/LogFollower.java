@@ -0,0 +1,202 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Modo --follow: acompanha o arquivo de log como o tail -F
+ *
+ * Faz uma leitura inicial (paralela) até a última linha completa e depois
+ * lê só os bytes acrescentados, atualizando os agregadores linha a linha.
+ * O WatchService (inotify no Linux) acorda a leitura assim que o arquivo
+ * muda, com uma verificação periódica como reserva.
+ *
+ * Sobrevive à rotação do log:
+ * - arquivo renomeado/recriado (outro inode): termina de ler o antigo e
+ *   reabre o novo do início
+ * - arquivo truncado (copytruncate): volta ao início
+ */
+public class LogFollower {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final long POLL_MILLIS = 100;
+    private static final int BATCH_ROWS = 4096;
+
+    private final Path file;
+    private final LogAggregator aggregator;
+    private final ChunkedLogReader initialReader;
+    private final LogLineTokenizer tokenizer;
+    private final ByteBuffer readBuffer;
+
+    private FileChannel channel;
+    private Object fileKey;
+    private long position;
+    private byte[] pending;
+    private int pendingLength;
+    private volatile boolean running;
+
+    public LogFollower(Path file, LogAggregator aggregator) {
+        this.file = file.toAbsolutePath();
+        this.aggregator = aggregator;
+        this.initialReader = new ChunkedLogReader();
+        this.tokenizer = new LogLineTokenizer();
+        this.readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        this.pending = new byte[256];
+    }
+
+    /**
+     * Leitura inicial do conteúdo já existente (até a última linha completa)
+     */
+    public void catchUp() throws IOException, InterruptedException {
+        while (!open()) {
+            Thread.sleep(POLL_MILLIS);
+        }
+        long end = ChunkedLogReader.lastLineEnd(channel, channel.size());
+        initialReader.read(channel, end, aggregator);
+        position = end;
+    }
+
+    /**
+     * Acompanha o arquivo até stop() ser chamado
+     */
+    public void follow() throws IOException, InterruptedException {
+        running = true;
+        try (WatchService watcher = file.getFileSystem().newWatchService()) {
+            file.getParent().register(watcher,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+            while (running) {
+                if (channel != null) {
+                    readAppended();
+                }
+                checkRotation();
+                aggregator.reloadRules();
+
+                WatchKey key = watcher.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+            }
+        } finally {
+            close();
+        }
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Lê tudo o que foi acrescentado desde a última posição
+     */
+    private void readAppended() throws IOException {
+        while (true) {
+            readBuffer.clear();
+            int read = channel.read(readBuffer, position);
+            if (read <= 0) {
+                break;
+            }
+            position += read;
+            consume(readBuffer.array(), read);
+        }
+        flushBatch();
+    }
+
+    /**
+     * Separa as linhas completas; o resto fica pendente até o próximo '\n'
+     */
+    private void consume(byte[] bytes, int length) {
+        int lineStart = 0;
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] == '\n') {
+                if (pendingLength > 0) {
+                    appendPending(bytes, lineStart, i - lineStart);
+                    acceptLine(pending, 0, pendingLength);
+                    pendingLength = 0;
+                } else {
+                    acceptLine(bytes, lineStart, i - lineStart);
+                }
+                lineStart = i + 1;
+            }
+        }
+        appendPending(bytes, lineStart, length - lineStart);
+    }
+
+    private void appendPending(byte[] bytes, int offset, int length) {
+        if (pendingLength + length > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingLength + length));
+        }
+        System.arraycopy(bytes, offset, pending, pendingLength, length);
+        pendingLength += length;
+    }
+
+    private void acceptLine(byte[] bytes, int offset, int length) {
+        if (length > 0 && bytes[offset + length - 1] == '\r') {
+            length--;
+        }
+        if (tokenizer.tokenize(bytes, offset, length)) {
+            LogStore store = aggregator.getStore();
+            aggregator.accept(store, store.append(tokenizer));
+            if (store.size() == BATCH_ROWS) {
+                store.clear();
+            }
+        }
+    }
+
+    private void flushBatch() {
+        aggregator.getStore().clear();
+    }
+
+    /**
+     * Detecta rotação (novo arquivo no mesmo caminho) ou truncamento
+     */
+    private void checkRotation() throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return; // rotacionado e ainda não recriado: continua no antigo
+        }
+
+        if (channel == null || !Objects.equals(attributes.fileKey(), fileKey)) {
+            if (channel != null) {
+                readAppended();
+                if (pendingLength > 0) {
+                    acceptLine(pending, 0, pendingLength);
+                    flushBatch();
+                }
+                close();
+                System.out.println("🔄 Log rotacionado, reabrindo " + file);
+            }
+            if (open()) {
+                position = 0;
+                pendingLength = 0;
+            }
+        } else if (attributes.size() < position) {
+            System.out.println("✂️  Log truncado, relendo do início");
+            position = 0;
+            pendingLength = 0;
+        }
+    }
+
+    private boolean open() throws IOException {
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            fileKey = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,622 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Gerador de logs sintéticos em volume, para testes de carga e de regressão
+ *
+ * Tráfego de fundo: IPs (10.0.0.0/8) e usuários sorteados com distribuição
+ * de Zipf (ZipfSampler), em ordem de tempo a taxa eventos por segundo.
+ * Sobre ele são injetados ataques de IPs exclusivos (198.18.0.0/15, faixa
+ * reservada para testes, que o fundo nunca usa):
+ * - rajadas: 10 a 200 falhas a cada 1-4 s, que o BruteForceDetector padrão
+ *   (60 s, limiar 5) deve detectar
+ * - lentos: 5 a 30 falhas a cada 15-30 s, abaixo do limiar (não devem
+ *   virar alerta)
+ * Cada ataque vai para o gabarito (arquivo.gabarito.csv) com IP, usuário,
+ * primeira e última falha, total e o resultado esperado; "verificar" roda
+ * o detector sobre o log e compara com o gabarito, e confere que as regras
+ * (REGRESSION_RULES) dão o mesmo resultado com e sem --aproximado.
+ *
+ * A mesma semente gera o mesmo arquivo, byte a byte. As linhas são
+ * formatadas direto num buffer de bytes e gravadas por um FileChannel,
+ * sem String por linha.
+ *
+ * Como executar:
+ * javac *.java
+ * java LogGenerator gerar auth.log --linhas=100M --ips=1M --usuarios=100k --zipf=1.1 --semente=7
+ * java LogGenerator verificar auth.log
+ */
+public class LogGenerator {
+    public static final long DEFAULT_LINES = 1_000_000;
+    public static final int DEFAULT_IPS = 100_000;
+    public static final int DEFAULT_USERS = 10_000;
+    public static final double DEFAULT_SKEW = 1.1;
+    public static final int DEFAULT_ATTACKS = 100;
+    public static final int DEFAULT_SLOW_ATTACKS = 20;
+    public static final int DEFAULT_RATE = 1000;
+    public static final double DEFAULT_FAILURE_RATE = 0.15;
+    public static final long DEFAULT_SEED = 42;
+    public static final String DEFAULT_START = "2026-01-01T00:00:00";
+
+    static final String EXPECTED_ATTACK = "ATAQUE";
+    static final String EXPECTED_BELOW_THRESHOLD = "ABAIXO_DO_LIMIAR";
+    static final String GROUND_TRUTH_SUFFIX = ".gabarito.csv";
+    private static final String GROUND_TRUTH_HEADER = "ip,usuario,inicio,fim,falhas,esperado";
+
+    // As mesmas regras do regras.txt (por IP e por usuário, com e sem janela)
+    private static final List<String> REGRESSION_RULES = List.of(
+        "ip-suspeito: FALHA|BLOQUEADO count by ip > 3",
+        "brute-force: FALHA count by ip over 60s > 5",
+        "usuario-problema: FALHA count by usuario > 2",
+        "rajada-por-usuario: FALHA count by usuario over 5m > 20",
+        "varredura-lenta: FALHA count by ip over 1h > 30");
+
+    private static final double BLOCKED_RATE = 0.01;
+    private static final int MAX_IPS = 1 << 24;
+    private static final int BACKGROUND_NETWORK = 0x0A000000;  // 10.0.0.0/8
+    private static final int ATTACKER_NETWORK = 0xC6120000;    // 198.18.0.0/15
+    private static final int MAX_ATTACKERS = 1 << 17;
+    private static final int IP_SCRAMBLE = 0x9E3779B1;         // ímpar: bijeção em 24 bits
+    private static final int BUFFER_SIZE = 8 * 1024 * 1024;
+    private static final int MAX_LINE_SIZE = 256;
+
+    private static final String[] COMMON_USERS = {
+        "admin", "root", "user", "test", "guest", "oracle", "postgres", "ubuntu", "ftp", "deploy"
+    };
+    private static final byte[][] COMMON_USER_BYTES = new byte[COMMON_USERS.length][];
+    private static final byte[] USER_PREFIX = ascii("user");
+    private static final byte[] FIELD_SEPARATOR = ascii("] [");
+    private static final byte[][] TYPE_BYTES = new byte[LogType.values().length][];
+    private static final byte[][] MESSAGE_BYTES = new byte[LogType.values().length][];
+
+    static {
+        for (int i = 0; i < COMMON_USERS.length; i++) {
+            COMMON_USER_BYTES[i] = ascii(COMMON_USERS[i]);
+        }
+        for (LogType type : LogType.values()) {
+            TYPE_BYTES[type.ordinal()] = ascii(type.name());
+        }
+        // Mesmas mensagens do arquivo de amostra do LogAnalyzer
+        MESSAGE_BYTES[LogType.SUCESSO.ordinal()] = ascii("Login bem-sucedido");
+        MESSAGE_BYTES[LogType.FALHA.ordinal()] = ascii("Senha incorreta");
+        MESSAGE_BYTES[LogType.BLOQUEADO.ordinal()] = ascii("Bloqueado por excesso de tentativas");
+        MESSAGE_BYTES[LogType.OUTRO.ordinal()] = ascii("Evento");
+    }
+
+    private final long lines;
+    private final ZipfSampler ipSampler;
+    private final ZipfSampler userSampler;
+    private final long seed;
+    private int attacks = DEFAULT_ATTACKS;
+    private int slowAttacks = DEFAULT_SLOW_ATTACKS;
+    private long startEpoch = LocalDateTime.parse(DEFAULT_START).toEpochSecond(ZoneOffset.UTC);
+    private int rate = DEFAULT_RATE;
+    private double failureRate = DEFAULT_FAILURE_RATE;
+
+    // Buffer de saída e cache do timestamp formatado (muda uma vez por segundo)
+    private byte[] buffer;
+    private int position;
+    private long cachedSecond = TimestampCodec.NO_TIMESTAMP;
+    private byte[] cachedTimestamp;
+
+    /**
+     * @param lines total de linhas (fundo + ataques)
+     * @param ips IPs distintos no tráfego de fundo (até 2^24)
+     * @param users usuários distintos
+     * @param skew expoente de Zipf para IPs e usuários (0 = uniforme)
+     * @param seed semente; a mesma configuração e semente geram o mesmo arquivo
+     */
+    public LogGenerator(long lines, int ips, int users, double skew, long seed) {
+        if (lines <= 0 || ips <= 0 || ips > MAX_IPS || users <= 0) {
+            throw new IllegalArgumentException("Configuração inválida do gerador");
+        }
+        this.lines = lines;
+        this.ipSampler = new ZipfSampler(ips, skew);
+        this.userSampler = new ZipfSampler(users, skew);
+        this.seed = seed;
+    }
+
+    /**
+     * @param attacks rajadas detectáveis
+     * @param slowAttacks ataques lentos, abaixo do limiar padrão
+     */
+    public void setAttacks(int attacks, int slowAttacks) {
+        if (attacks < 0 || slowAttacks < 0 || attacks + slowAttacks > MAX_ATTACKERS) {
+            throw new IllegalArgumentException("Quantidade de ataques inválida");
+        }
+        this.attacks = attacks;
+        this.slowAttacks = slowAttacks;
+    }
+
+    /**
+     * @param startEpoch segundos desde a época do primeiro evento (UTC, como no TimestampCodec)
+     * @param rate eventos de fundo por segundo
+     */
+    public void setTiming(long startEpoch, int rate) {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("Taxa inválida: " + rate);
+        }
+        this.startEpoch = startEpoch;
+        this.rate = rate;
+    }
+
+    /**
+     * @param failureRate fração de FALHA no tráfego de fundo
+     */
+    public void setFailureRate(double failureRate) {
+        if (failureRate < 0 || failureRate + BLOCKED_RATE > 1) {
+            throw new IllegalArgumentException("Taxa de falhas inválida: " + failureRate);
+        }
+        this.failureRate = failureRate;
+    }
+
+    /**
+     * Grava o log e o gabarito dos ataques injetados
+     * @param overwrite false para falhar se o arquivo já existir
+     * @return ataques injetados, em ordem de início
+     */
+    public List<Burst> generate(Path output, Path groundTruth, boolean overwrite) throws IOException {
+        SplittableRandom planRandom = new SplittableRandom(seed);
+        SplittableRandom trafficRandom = planRandom.split();
+        Burst[] planned = plan(planRandom);
+        long background = lines;
+        for (Burst burst : planned) {
+            background -= burst.failures;
+        }
+        if (background <= 0) {
+            throw new IllegalArgumentException("Linhas insuficientes para " + planned.length + " ataques");
+        }
+
+        OpenOption create = overwrite ? StandardOpenOption.CREATE : StandardOpenOption.CREATE_NEW;
+        try (FileChannel channel = FileChannel.open(output, create,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            buffer = new byte[BUFFER_SIZE];
+            position = 0;
+            PriorityQueue<Burst> active = new PriorityQueue<>(
+                Comparator.comparingLong((Burst b) -> b.next).thenComparingInt(b -> b.index));
+            int nextPlanned = 0;
+
+            for (long i = 0; i < background; i++) {
+                long second = startEpoch + i / rate;
+                while (nextPlanned < planned.length && planned[nextPlanned].first <= second) {
+                    active.add(planned[nextPlanned++]);
+                }
+                while (!active.isEmpty() && active.peek().next <= second) {
+                    writeBurstEvent(channel, active);
+                }
+                writeBackgroundEvent(channel, trafficRandom, second);
+            }
+            while (nextPlanned < planned.length) {
+                active.add(planned[nextPlanned++]);
+            }
+            while (!active.isEmpty()) {
+                writeBurstEvent(channel, active);
+            }
+            flush(channel);
+        } finally {
+            buffer = null;
+        }
+
+        List<Burst> result = Arrays.asList(planned);
+        writeGroundTruth(groundTruth, result);
+        return result;
+    }
+
+    /**
+     * Sorteia início, duração e alvo de cada ataque (IPs exclusivos)
+     */
+    private Burst[] plan(SplittableRandom random) {
+        int total = attacks + slowAttacks;
+        Burst[] planned = new Burst[total];
+        long failures = 0;
+        for (int i = 0; i < total; i++) {
+            boolean slow = i >= attacks;
+            int count = slow ? 5 + random.nextInt(26) : 10 + random.nextInt(191);
+            int gap = slow ? 15 + random.nextInt(16) : 1 + random.nextInt(4);
+            failures += count;
+            planned[i] = new Burst(i, ATTACKER_NETWORK + i, (int) userSampler.sample(random),
+                count, gap, !slow);
+        }
+        long duration = Math.max(1, Math.max(0, lines - failures) / rate);
+        for (Burst burst : planned) {
+            burst.first = startEpoch + random.nextLong(duration);
+            burst.next = burst.first;
+        }
+        Arrays.sort(planned, Comparator.comparingLong((Burst b) -> b.first).thenComparingInt(b -> b.index));
+        return planned;
+    }
+
+    private void writeBurstEvent(FileChannel channel, PriorityQueue<Burst> active) throws IOException {
+        Burst burst = active.poll();
+        writeLine(channel, burst.next, LogType.FALHA, burst.ip, burst.user);
+        if (++burst.written < burst.failures) {
+            burst.next += burst.gap;
+            active.add(burst);
+        }
+    }
+
+    private void writeBackgroundEvent(FileChannel channel, SplittableRandom random, long second)
+            throws IOException {
+        int ipRank = (int) ipSampler.sample(random);
+        int userRank = (int) userSampler.sample(random);
+        double roll = random.nextDouble();
+        LogType type = roll < failureRate ? LogType.FALHA
+            : roll < failureRate + BLOCKED_RATE ? LogType.BLOQUEADO
+            : LogType.SUCESSO;
+        // Embaralha o rank para os IPs mais frequentes não serem vizinhos
+        int ip = BACKGROUND_NETWORK | (((ipRank - 1) * IP_SCRAMBLE) & (MAX_IPS - 1));
+        writeLine(channel, second, type, ip, userRank);
+    }
+
+    /**
+     * [timestamp] [TIPO] [ip] [usuario] mensagem
+     */
+    private void writeLine(FileChannel channel, long second, LogType type, int ip, int userRank)
+            throws IOException {
+        if (position > buffer.length - MAX_LINE_SIZE) {
+            flush(channel);
+        }
+        if (second != cachedSecond) {
+            cachedSecond = second;
+            cachedTimestamp = ascii(TimestampCodec.format(second));
+        }
+        byte[] out = buffer;
+        out[position++] = '[';
+        put(cachedTimestamp);
+        put(FIELD_SEPARATOR);
+        put(TYPE_BYTES[type.ordinal()]);
+        put(FIELD_SEPARATOR);
+        putInt(ip >>> 24);
+        out[position++] = '.';
+        putInt((ip >>> 16) & 0xFF);
+        out[position++] = '.';
+        putInt((ip >>> 8) & 0xFF);
+        out[position++] = '.';
+        putInt(ip & 0xFF);
+        put(FIELD_SEPARATOR);
+        if (userRank <= COMMON_USER_BYTES.length) {
+            put(COMMON_USER_BYTES[userRank - 1]);
+        } else {
+            put(USER_PREFIX);
+            putInt(userRank);
+        }
+        out[position++] = ']';
+        out[position++] = ' ';
+        put(MESSAGE_BYTES[type.ordinal()]);
+        out[position++] = '\n';
+    }
+
+    private void put(byte[] bytes) {
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void putInt(int value) {
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        for (int i = position + digits - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += digits;
+    }
+
+    private void flush(FileChannel channel) throws IOException {
+        ByteBuffer out = ByteBuffer.wrap(buffer, 0, position);
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        position = 0;
+    }
+
+    private static void writeGroundTruth(Path file, List<Burst> bursts) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(GROUND_TRUTH_HEADER);
+            writer.newLine();
+            for (Burst burst : bursts) {
+                writer.write(String.join(",", IpCodec.formatIpv4(burst.ip), userName(burst.user),
+                    TimestampCodec.format(burst.first), TimestampCodec.format(burst.getLast()),
+                    Integer.toString(burst.failures),
+                    burst.detectable ? EXPECTED_ATTACK : EXPECTED_BELOW_THRESHOLD));
+                writer.newLine();
+            }
+        }
+    }
+
+    static String userName(int rank) {
+        return rank <= COMMON_USERS.length ? COMMON_USERS[rank - 1] : "user" + rank;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Ataque injetado: failures falhas do mesmo IP, uma a cada gap segundos
+     */
+    public static class Burst {
+        private final int index;
+        private final int ip;
+        private final int user;
+        private final int failures;
+        private final int gap;
+        private final boolean detectable;
+        private long first;
+        private long next;
+        private int written;
+
+        Burst(int index, int ip, int user, int failures, int gap, boolean detectable) {
+            this.index = index;
+            this.ip = ip;
+            this.user = user;
+            this.failures = failures;
+            this.gap = gap;
+            this.detectable = detectable;
+        }
+
+        public String getIp() {
+            return IpCodec.formatIpv4(ip);
+        }
+
+        public String getUser() {
+            return userName(user);
+        }
+
+        public long getFirst() {
+            return first;
+        }
+
+        public long getLast() {
+            return first + (long) (failures - 1) * gap;
+        }
+
+        public int getFailures() {
+            return failures;
+        }
+
+        /**
+         * O BruteForceDetector padrão deve acusar este ataque?
+         */
+        public boolean isDetectable() {
+            return detectable;
+        }
+    }
+
+    /**
+     * Roda o BruteForceDetector padrão sobre o log e compara com o gabarito
+     * @return true se todos os ataques esperados foram detectados, nenhum
+     *         ataque lento virou alerta e as regras deram o mesmo resultado
+     *         no modo aproximado
+     */
+    public static boolean verify(Path log, Path groundTruth) throws IOException {
+        LogAggregator aggregator = new LogAggregator();
+        RuleEngine rules = new RuleEngine(RuleEngine.parse(REGRESSION_RULES));
+        aggregator.setRules(rules);
+        long begin = System.nanoTime();
+        new ChunkedLogReader().read(log, aggregator);
+        aggregator.finish();
+        long elapsed = System.nanoTime() - begin;
+
+        Map<Long, List<BruteForceDetector.Attack>> attacksByIp = new HashMap<>();
+        for (BruteForceDetector.Attack attack : aggregator.getDetector().getAttacks()) {
+            attacksByIp.computeIfAbsent(attack.getIpKey(), k -> new ArrayList<>()).add(attack);
+        }
+
+        int expected = 0;
+        int detected = 0;
+        int slow = 0;
+        int falseAlarms = 0;
+        Set<Long> injectedIps = new HashSet<>();
+        List<String> problems = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(groundTruth, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            if (!GROUND_TRUTH_HEADER.equals(line)) {
+                throw new IOException("Gabarito inválido: " + groundTruth);
+            }
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                byte[] ip = ascii(fields[0]);
+                long ipKey = IpCodec.ipv4Key((int) IpCodec.parseIpv4(ip, 0, ip.length));
+                long first = TimestampCodec.parse(ascii(fields[2]), 0, fields[2].length());
+                long last = TimestampCodec.parse(ascii(fields[3]), 0, fields[3].length());
+                injectedIps.add(ipKey);
+                List<BruteForceDetector.Attack> found =
+                    attacksByIp.getOrDefault(ipKey, Collections.emptyList());
+
+                if (fields[5].equals(EXPECTED_ATTACK)) {
+                    expected++;
+                    boolean hit = found.stream()
+                        .anyMatch(a -> a.getStart() <= last && a.getEnd() >= first);
+                    if (hit) {
+                        detected++;
+                    } else {
+                        problems.add("não detectado: " + line);
+                    }
+                } else {
+                    slow++;
+                    if (!found.isEmpty()) {
+                        falseAlarms++;
+                        problems.add("alerta indevido: " + line);
+                    }
+                }
+            }
+        }
+        // Regras no modo aproximado: os ids de usuário dos lotes precisam
+        // sobreviver até o merge (mesma configuração do LogAnalyzer)
+        RuleEngine approximateRules = new RuleEngine(RuleEngine.parse(REGRESSION_RULES));
+        LogAggregator approximate = new LogAggregator(new LogStore(false), new BruteForceDetector(),
+            HeavyHitters.DEFAULT_TOP_K);
+        approximate.setRules(approximateRules);
+        new ChunkedLogReader().read(log, approximate);
+        approximate.finish();
+        List<String> exactSummary = ruleSummary(rules);
+        List<String> approximateSummary = ruleSummary(approximateRules);
+        for (int i = 0; i < exactSummary.size(); i++) {
+            if (!exactSummary.get(i).equals(approximateSummary.get(i))) {
+                problems.add("regra diferente com --aproximado: " + approximateSummary.get(i)
+                    + " (exato: " + exactSummary.get(i) + ")");
+            }
+        }
+
+        long backgroundAttacks = aggregator.getDetector().getAttacks().stream()
+            .filter(a -> !injectedIps.contains(a.getIpKey()))
+            .count();
+
+        System.out.printf("📊 %d eventos lidos em %d ms%n", aggregator.getTotalEvents(), elapsed / 1_000_000);
+        System.out.printf("🎯 Ataques detectados: %d de %d%n", detected, expected);
+        System.out.printf("🐢 Ataques lentos com alerta: %d de %d%n", falseAlarms, slow);
+        System.out.printf("ℹ️ Alertas no tráfego de fundo (IPs muito frequentes): %d%n", backgroundAttacks);
+        System.out.printf("📐 Regras com --aproximado: %s%n", String.join(", ", approximateSummary));
+        problems.stream().limit(20).forEach(p -> System.out.println("  ❌ " + p));
+        return problems.isEmpty();
+    }
+
+    /**
+     * Alertas, chaves e soma das contagens de cada regra
+     */
+    private static List<String> ruleSummary(RuleEngine rules) {
+        List<String> summary = new ArrayList<>();
+        for (Rule rule : rules.getRules()) {
+            List<long[]> top = rule.top(Rule.MAX_TRACKED_KEYS);
+            long sum = 0;
+            for (long[] entry : top) {
+                sum += entry[1];
+            }
+            summary.add(rule.getName() + " " + rule.getAlerts() + "/" + top.size() + "/" + sum);
+        }
+        return summary;
+    }
+
+    public static void main(String[] args) {
+        if (args.length >= 2 && args[0].equals("gerar")) {
+            generateCommand(Paths.get(args[1]), Arrays.copyOfRange(args, 2, args.length));
+        } else if (args.length >= 2 && args[0].equals("verificar")) {
+            Path log = Paths.get(args[1]);
+            Path groundTruth = args.length >= 3 ? Paths.get(args[2]) : groundTruthFor(log);
+            try {
+                boolean ok = verify(log, groundTruth);
+                System.out.println(ok ? "✅ Gabarito conferido" : "❌ Divergências no gabarito");
+                if (!ok) {
+                    System.exit(1);
+                }
+            } catch (NoSuchFileException e) {
+                System.out.println("❌ Arquivo não encontrado: " + e.getFile());
+                System.exit(1);
+            } catch (IOException e) {
+                System.out.println("❌ Erro na verificação: " + e.getMessage());
+                System.exit(1);
+            }
+        } else {
+            System.out.println("Uso:");
+            System.out.println("  java LogGenerator gerar saida.log [--linhas=1M] [--ips=100k] [--usuarios=10k]"
+                + " [--zipf=1.1] [--ataques=100] [--lentos=20] [--semente=42] [--taxa=1000]"
+                + " [--falhas=0.15] [--inicio=2026-01-01T00:00:00] [--sobrescrever]");
+            System.out.println("  java LogGenerator verificar saida.log [gabarito.csv]");
+        }
+    }
+
+    static Path groundTruthFor(Path log) {
+        return log.resolveSibling(log.getFileName() + GROUND_TRUTH_SUFFIX);
+    }
+
+    private static void generateCommand(Path output, String[] options) {
+        long lines = DEFAULT_LINES;
+        long ips = DEFAULT_IPS;
+        long users = DEFAULT_USERS;
+        double skew = DEFAULT_SKEW;
+        long attacks = DEFAULT_ATTACKS;
+        long slowAttacks = DEFAULT_SLOW_ATTACKS;
+        long seed = DEFAULT_SEED;
+        long rate = DEFAULT_RATE;
+        double failureRate = DEFAULT_FAILURE_RATE;
+        String start = DEFAULT_START;
+        boolean overwrite = false;
+
+        LogGenerator generator;
+        try {
+            for (String option : options) {
+                String value = option.substring(option.indexOf('=') + 1);
+                if (option.startsWith("--linhas=")) {
+                    lines = parseCount(value);
+                } else if (option.startsWith("--ips=")) {
+                    ips = parseCount(value);
+                } else if (option.startsWith("--usuarios=")) {
+                    users = parseCount(value);
+                } else if (option.startsWith("--zipf=")) {
+                    skew = Double.parseDouble(value);
+                } else if (option.startsWith("--ataques=")) {
+                    attacks = parseCount(value);
+                } else if (option.startsWith("--lentos=")) {
+                    slowAttacks = parseCount(value);
+                } else if (option.startsWith("--semente=")) {
+                    seed = Long.parseLong(value);
+                } else if (option.startsWith("--taxa=")) {
+                    rate = parseCount(value);
+                } else if (option.startsWith("--falhas=")) {
+                    failureRate = Double.parseDouble(value);
+                } else if (option.startsWith("--inicio=")) {
+                    start = value;
+                } else if (option.equals("--sobrescrever")) {
+                    overwrite = true;
+                } else {
+                    System.out.println("❌ Opção desconhecida: " + option);
+                    return;
+                }
+            }
+            generator = new LogGenerator(lines, Math.toIntExact(ips), Math.toIntExact(users), skew, seed);
+            generator.setAttacks(Math.toIntExact(attacks), Math.toIntExact(slowAttacks));
+            generator.setTiming(LocalDateTime.parse(start).toEpochSecond(ZoneOffset.UTC),
+                Math.toIntExact(rate));
+            generator.setFailureRate(failureRate);
+        } catch (RuntimeException e) {
+            System.out.println("❌ Valor inválido: " + e.getMessage());
+            return;
+        }
+
+        Path groundTruth = groundTruthFor(output);
+        try {
+            long begin = System.nanoTime();
+            List<Burst> bursts = generator.generate(output, groundTruth, overwrite);
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            long bytes = Files.size(output);
+            System.out.printf("✅ %d linhas (%.1f MB) em %.2f s — %.0f MB/s%n",
+                lines, bytes / 1e6, seconds, bytes / 1e6 / seconds);
+            System.out.printf("🎯 %d ataques injetados (%d detectáveis) — gabarito em %s%n",
+                bursts.size(), bursts.stream().filter(Burst::isDetectable).count(), groundTruth);
+        } catch (FileAlreadyExistsException e) {
+            System.out.println("❌ Arquivo já existe: " + e.getFile() + " (use --sobrescrever)");
+        } catch (IllegalArgumentException e) {
+            System.out.println("❌ " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("❌ Erro ao gravar: " + e.getMessage());
+        }
+    }
+
+    /**
+     * "500", "100k", "250M", "1G" ou "1_000_000"
+     */
+    private static long parseCount(String value) {
+        String digits = value.replace("_", "");
+        long multiplier = 1;
+        char suffix = Character.toUpperCase(digits.charAt(digits.length() - 1));
+        if (suffix == 'K' || suffix == 'M' || suffix == 'G') {
+            multiplier = suffix == 'K' ? 1_000L : suffix == 'M' ? 1_000_000L : 1_000_000_000L;
+            digits = digits.substring(0, digits.length() - 1);
+        }
+        long count = Math.multiplyExact(Long.parseLong(digits), multiplier);
+        if (count < 0) {
+            throw new IllegalArgumentException(value);
+        }
+        return count;
+    }
+}
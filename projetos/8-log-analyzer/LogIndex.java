@@ -0,0 +1,386 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+/**
+ * Índice persistente dos logs, particionado por hora
+ *
+ * A ingestão parseia o log uma única vez e grava um segmento binário por
+ * hora (LogSegment), com postings por IP e por usuário e o intervalo de
+ * tempo no rodapé. As consultas ("falhas do IP X nas últimas 6h") abrem
+ * só os segmentos cujo intervalo cruza o pedido e leem as postings
+ * mapeadas em memória, sem reprocessar o texto.
+ *
+ * Cada ingestão cria segmentos novos (yyyyMMdd-HH-N.seg), então vários
+ * arquivos podem ser indexados no mesmo diretório. Os segmentos guardam o
+ * arquivo de origem: indexar de novo o mesmo arquivo (por exemplo, depois
+ * de ele crescer) apaga os segmentos da ingestão anterior ao terminar, em
+ * vez de duplicar os eventos nas consultas.
+ *
+ * Como executar:
+ * javac *.java
+ * java LogIndex ingerir arquivo.log diretorio-indice
+ * java LogIndex consultar diretorio-indice --ip=203.0.113.45 [--tipo=FALHA] [--ultimas=6h]
+ * java LogIndex consultar diretorio-indice --usuario=admin [--tipo=FALHA] [--ultimas=30m]
+ */
+public class LogIndex {
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int MAX_OPEN_HOURS = 48;
+    private static final int MAX_BUFFERED_ROWS = 4 * 1024 * 1024;
+    private static final int READ_BUFFER_SIZE = 1024 * 1024;
+    private static final DateTimeFormatter HOUR_FORMAT =
+        DateTimeFormatter.ofPattern("yyyyMMdd-HH").withZone(ZoneOffset.UTC);
+
+    private final Path directory;
+    private final Map<String, Integer> nextSequence;
+    private int bufferedRows;
+    private String source;
+    private long run;
+    private int replacedSegments;
+
+    public LogIndex(Path directory) {
+        this.directory = directory;
+        this.nextSequence = new HashMap<>();
+    }
+
+    /**
+     * Indexa um arquivo de log
+     * As linhas ficam num LogStore por hora; quando há horas demais abertas
+     * o segmento mais antigo é gravado, e quando há linhas demais em memória
+     * todos são gravados (logs fora de ordem geram mais de um segmento por hora).
+     * No fim, os segmentos de ingestões anteriores do mesmo arquivo são apagados.
+     * @return quantidade de segmentos gravados
+     */
+    public int ingest(Path logFile) throws IOException {
+        Files.createDirectories(directory);
+        source = logFile.toRealPath().toString();
+        run = ThreadLocalRandom.current().nextLong();
+        TreeMap<Long, LogStore> open = new TreeMap<>();
+        LogLineTokenizer tokenizer = new LogLineTokenizer();
+        int written = 0;
+
+        try (InputStream in = Files.newInputStream(logFile)) {
+            byte[] buffer = new byte[READ_BUFFER_SIZE];
+            int pending = 0;
+            int read;
+            while ((read = in.read(buffer, pending, buffer.length - pending)) > 0) {
+                int filled = pending + read;
+                int lineStart = 0;
+                for (int i = pending; i < filled; i++) {
+                    if (buffer[i] == '\n') {
+                        written += acceptLine(open, tokenizer, buffer, lineStart, i);
+                        lineStart = i + 1;
+                    }
+                }
+                pending = filled - lineStart;
+                if (pending == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2); // linha maior que o buffer
+                } else {
+                    System.arraycopy(buffer, lineStart, buffer, 0, pending);
+                }
+            }
+            if (pending > 0) {
+                written += acceptLine(open, tokenizer, buffer, 0, pending);
+            }
+        }
+
+        written += flushAll(open);
+        replacedSegments = deleteOtherRuns();
+        return written;
+    }
+
+    /**
+     * Segmentos antigos apagados pela última ingestão
+     */
+    public int getReplacedSegments() {
+        return replacedSegments;
+    }
+
+    /**
+     * Apaga os segmentos do arquivo atual gravados por outras ingestões
+     * (só depois de os novos estarem gravados, então uma ingestão
+     * interrompida não perde eventos, só duplica até a próxima)
+     */
+    private int deleteOtherRuns() throws IOException {
+        int deleted = 0;
+        for (Path file : segmentFiles()) {
+            boolean stale;
+            try (LogSegment segment = LogSegment.open(file)) {
+                stale = source.equals(segment.getSource()) && segment.getRun() != run;
+            }
+            if (stale) {
+                Files.delete(file);
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    private int flushAll(TreeMap<Long, LogStore> open) throws IOException {
+        int written = 0;
+        for (Map.Entry<Long, LogStore> hour : open.entrySet()) {
+            writeSegment(hour.getKey(), hour.getValue());
+            written++;
+        }
+        open.clear();
+        return written;
+    }
+
+    private int acceptLine(TreeMap<Long, LogStore> open, LogLineTokenizer tokenizer,
+                           byte[] buffer, int start, int end) throws IOException {
+        if (end > start && buffer[end - 1] == '\r') {
+            end--;
+        }
+        if (!tokenizer.tokenize(buffer, start, end - start)) {
+            return 0;
+        }
+        long timestamp = TimestampCodec.parse(buffer,
+            tokenizer.start(LogLineTokenizer.TIMESTAMP), tokenizer.length(LogLineTokenizer.TIMESTAMP));
+        if (timestamp == TimestampCodec.NO_TIMESTAMP) {
+            return 0; // sem hora não há partição
+        }
+
+        int written = 0;
+        long hour = Math.floorDiv(timestamp, 3600L);
+        LogStore store = open.get(hour);
+        if (store == null) {
+            if (open.size() == MAX_OPEN_HOURS) {
+                Map.Entry<Long, LogStore> oldest = open.pollFirstEntry();
+                writeSegment(oldest.getKey(), oldest.getValue());
+                written++;
+            }
+            store = new LogStore();
+            open.put(hour, store);
+        }
+        store.append(tokenizer);
+        bufferedRows++;
+        if (store.size() == LogSegment.MAX_ROWS || bufferedRows == MAX_BUFFERED_ROWS) {
+            written += flushAll(open);
+        }
+        return written;
+    }
+
+    private void writeSegment(long hour, LogStore store) throws IOException {
+        String prefix = HOUR_FORMAT.format(Instant.ofEpochSecond(hour * 3600L));
+        int sequence = nextSequence.getOrDefault(prefix, 0);
+        Path file;
+        do {
+            file = directory.resolve(prefix + "-" + sequence++ + SEGMENT_SUFFIX);
+        } while (Files.exists(file));
+        nextSequence.put(prefix, sequence);
+        bufferedRows -= store.size();
+        SegmentWriter.write(store, file, source, run);
+    }
+
+    /**
+     * Eventos de um IP ou usuário em [from, to], na ordem do tempo
+     * @param ip IP procurado (null para não filtrar)
+     * @param user usuário procurado (null para não filtrar)
+     * @param type tipo do evento (null para todos)
+     */
+    public QueryResult query(String ip, String user, LogType type, long from, long to)
+            throws IOException {
+        if (ip == null && user == null) {
+            throw new IllegalArgumentException("Informe um IP ou um usuário");
+        }
+        List<Path> files = segmentFiles();
+        List<LogAnalyzer.LogEntry> entries = new ArrayList<>();
+        List<long[]> order = new ArrayList<>(); // {timestamp, posição em entries}
+        int scanned = 0;
+
+        for (Path file : files) {
+            try (LogSegment segment = LogSegment.open(file)) {
+                if (!segment.overlaps(from, to)) {
+                    continue;
+                }
+                scanned++;
+                int[] rows = ip != null ? segment.rowsForIp(ip) : segment.rowsForUser(user);
+                for (int row : rows) {
+                    long timestamp = segment.timestamp(row);
+                    if (timestamp < from || timestamp > to) {
+                        continue;
+                    }
+                    if (type != null && segment.type(row) != type) {
+                        continue;
+                    }
+                    if (ip != null && user != null && !segment.user(row).equals(user)) {
+                        continue;
+                    }
+                    order.add(new long[] {timestamp, entries.size()});
+                    entries.add(segment.toEntry(row));
+                }
+            }
+        }
+
+        order.sort(Comparator.comparingLong((long[] e) -> e[0]).thenComparingLong(e -> e[1]));
+        List<LogAnalyzer.LogEntry> sorted = new ArrayList<>(entries.size());
+        for (long[] e : order) {
+            sorted.add(entries.get((int) e[1]));
+        }
+        return new QueryResult(sorted, files.size(), scanned);
+    }
+
+    /**
+     * Maior timestamp indexado (só lê os rodapés)
+     */
+    public long latestTimestamp() throws IOException {
+        long latest = TimestampCodec.NO_TIMESTAMP;
+        for (Path file : segmentFiles()) {
+            try (LogSegment segment = LogSegment.open(file)) {
+                latest = Math.max(latest, segment.getMaxTimestamp());
+            }
+        }
+        return latest;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Collections.emptyList();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> result = new ArrayList<>();
+            files.filter(f -> f.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                .sorted()
+                .forEach(result::add);
+            return result;
+        }
+    }
+
+    /**
+     * Resultado de uma consulta com as estatísticas de segmentos lidos
+     */
+    public static class QueryResult {
+        private final List<LogAnalyzer.LogEntry> entries;
+        private final int totalSegments;
+        private final int scannedSegments;
+
+        public QueryResult(List<LogAnalyzer.LogEntry> entries, int totalSegments, int scannedSegments) {
+            this.entries = entries;
+            this.totalSegments = totalSegments;
+            this.scannedSegments = scannedSegments;
+        }
+
+        public List<LogAnalyzer.LogEntry> getEntries() {
+            return entries;
+        }
+
+        public int getTotalSegments() {
+            return totalSegments;
+        }
+
+        public int getScannedSegments() {
+            return scannedSegments;
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length >= 3 && args[0].equals("ingerir")) {
+            ingestCommand(Paths.get(args[1]), Paths.get(args[2]));
+        } else if (args.length >= 3 && args[0].equals("consultar")) {
+            queryCommand(Paths.get(args[1]), Arrays.copyOfRange(args, 2, args.length));
+        } else {
+            System.out.println("Uso:");
+            System.out.println("  java LogIndex ingerir arquivo.log diretorio-indice");
+            System.out.println("  java LogIndex consultar diretorio-indice --ip=IP|--usuario=NOME"
+                + " [--tipo=FALHA] [--ultimas=6h]");
+        }
+    }
+
+    private static void ingestCommand(Path logFile, Path directory) {
+        try {
+            long begin = System.nanoTime();
+            LogIndex index = new LogIndex(directory);
+            int segments = index.ingest(logFile);
+            System.out.printf("✅ %d segmentos gravados em %s (%d ms)\n",
+                segments, directory, (System.nanoTime() - begin) / 1_000_000);
+            if (index.getReplacedSegments() > 0) {
+                System.out.printf("♻️ %d segmentos de uma ingestão anterior do mesmo arquivo substituídos\n",
+                    index.getReplacedSegments());
+            }
+        } catch (NoSuchFileException e) {
+            System.out.println("❌ Arquivo não encontrado: " + e.getFile());
+        } catch (IOException e) {
+            System.out.println("❌ Erro na ingestão: " + e.getMessage());
+        }
+    }
+
+    private static void queryCommand(Path directory, String[] options) {
+        String ip = null;
+        String user = null;
+        LogType type = null;
+        long lastSeconds = -1;
+        try {
+            for (String option : options) {
+                if (option.startsWith("--ip=")) {
+                    ip = option.substring("--ip=".length());
+                } else if (option.startsWith("--usuario=")) {
+                    user = option.substring("--usuario=".length());
+                } else if (option.startsWith("--tipo=")) {
+                    type = LogType.valueOf(option.substring("--tipo=".length()));
+                } else if (option.startsWith("--ultimas=")) {
+                    lastSeconds = parseDuration(option.substring("--ultimas=".length()));
+                } else {
+                    System.out.println("❌ Opção desconhecida: " + option);
+                    return;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("❌ Valor inválido: " + e.getMessage());
+            return;
+        }
+        if (ip == null && user == null) {
+            System.out.println("❌ Informe --ip= ou --usuario=");
+            return;
+        }
+
+        try {
+            LogIndex index = new LogIndex(directory);
+            long from = Long.MIN_VALUE;
+            long to = Long.MAX_VALUE;
+            if (lastSeconds >= 0) {
+                // Relativo ao evento mais recente do índice (logs arquivados
+                // continuam consultáveis)
+                to = index.latestTimestamp();
+                from = to - lastSeconds;
+            }
+            long begin = System.nanoTime();
+            QueryResult result = index.query(ip, user, type, from, to);
+            result.getEntries().forEach(log ->
+                System.out.printf("  [%s] [%s] %s @ %s - %s\n",
+                    log.timestamp, log.tipo, log.usuario, log.ip, log.mensagem));
+            System.out.printf("📊 %d eventos | %d de %d segmentos lidos | %.2f ms\n",
+                result.getEntries().size(), result.getScannedSegments(),
+                result.getTotalSegments(), (System.nanoTime() - begin) / 1e6);
+        } catch (IOException e) {
+            System.out.println("❌ Erro na consulta: " + e.getMessage());
+        }
+    }
+
+    /**
+     * "6h", "30m", "90s" ou "2d" em segundos
+     */
+    private static long parseDuration(String value) {
+        if (value.length() < 2) {
+            throw new IllegalArgumentException(value);
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        switch (value.charAt(value.length() - 1)) {
+            case 's':
+                return amount;
+            case 'm':
+                return amount * 60;
+            case 'h':
+                return amount * 3600;
+            case 'd':
+                return amount * 86400;
+            default:
+                throw new IllegalArgumentException(value);
+        }
+    }
+}
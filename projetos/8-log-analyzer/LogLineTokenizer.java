@@ -0,0 +1,136 @@
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tokenizador de linhas de log em nível de bytes
+ * Formato: [TIMESTAMP] [TIPO] [IP] [USUARIO] MENSAGEM
+ *
+ * Não aloca nada por linha: guarda apenas os offsets de cada campo
+ * dentro do buffer recebido, e Strings só são criadas quando um campo
+ * é realmente pedido via field().
+ *
+ * Aceita as mesmas linhas que o regex original
+ * (\[(.*?)\]\s\[(.*?)\]\s\[(.*?)\]\s\[(.*?)\]\s(.*) com find()),
+ * inclusive o retrocesso dos quantificadores preguiçosos. A única diferença
+ * são os terminadores Unicode raros (U+0085, U+2028, U+2029), que aqui
+ * não encerram o campo.
+ */
+public class LogLineTokenizer {
+    public static final int TIMESTAMP = 0;
+    public static final int TIPO = 1;
+    public static final int IP = 2;
+    public static final int USUARIO = 3;
+    public static final int MENSAGEM = 4;
+
+    private static final int BRACKET_FIELDS = 4;
+
+    private final int[] starts = new int[5];
+    private final int[] ends = new int[5];
+    private byte[] buffer;
+    private int limit;
+
+    /**
+     * Tokeniza a linha buffer[offset, offset + length)
+     * @return false se a linha não estiver no formato esperado
+     */
+    public boolean tokenize(byte[] buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.limit = offset + length;
+
+        // Como o find() do regex: tenta cada '[' como início possível
+        for (int i = offset; i < limit; i++) {
+            if (buffer[i] == '[' && matchField(0, i + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Casa o campo entre colchetes de índice field a partir de pos,
+     * tentando o menor conteúdo primeiro (quantificador preguiçoso)
+     */
+    private boolean matchField(int field, int pos) {
+        for (int close = pos; close < limit; close++) {
+            byte b = buffer[close];
+            if (isLineTerminator(b)) {
+                return false;
+            }
+            if (b != ']' || close + 1 >= limit || !isSpace(buffer[close + 1])) {
+                continue;
+            }
+
+            starts[field] = pos;
+            ends[field] = close;
+            int next = close + 2;
+
+            if (field == BRACKET_FIELDS - 1) {
+                return matchMessage(next);
+            }
+            if (next < limit && buffer[next] == '[' && matchField(field + 1, next + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A mensagem vai até o fim da linha (ou até um terminador de linha)
+     */
+    private boolean matchMessage(int pos) {
+        int end = pos;
+        while (end < limit && !isLineTerminator(buffer[end])) {
+            end++;
+        }
+        starts[MENSAGEM] = pos;
+        ends[MENSAGEM] = end;
+        return true;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == 0x0B || b == '\f' || b == '\r';
+    }
+
+    private static boolean isLineTerminator(byte b) {
+        return b == '\n' || b == '\r';
+    }
+
+    // Acesso aos campos da última linha tokenizada
+    public byte[] buffer() {
+        return buffer;
+    }
+
+    public int start(int field) {
+        return starts[field];
+    }
+
+    public int end(int field) {
+        return ends[field];
+    }
+
+    public int length(int field) {
+        return ends[field] - starts[field];
+    }
+
+    /**
+     * Compara o campo com bytes ASCII sem criar String
+     */
+    public boolean fieldEquals(int field, byte[] expected) {
+        int start = starts[field];
+        if (ends[field] - start != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer[start + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Materializa o campo como String (única alocação do tokenizador)
+     */
+    public String field(int field) {
+        return new String(buffer, starts[field], ends[field] - starts[field], StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,269 @@
+import java.util.*;
+
+/**
+ * Modelo do relatório de análise
+ * Preenchido pelo LogAggregator depois da passada única sobre os eventos;
+ * a saída no console (ou qualquer outro formato) é montada a partir dele,
+ * sem voltar a percorrer os logs.
+ *
+ * No modo aproximado as contagens de IPs e usuários são estimativas
+ * (limites superiores) com erro máximo em getIpErrorBound/getUserErrorBound.
+ * As cardinalidades (getCardinality) são sempre estimativas do HyperLogLog.
+ */
+public class LogReport {
+    private final long totalEvents;
+    private final long successLogins;
+    private final long failedLogins;
+    private final long blockedLogins;
+    private final List<LogAnalyzer.LogEntry> failureSamples;
+    private final List<Ranked> suspiciousIps;
+    private final long windowSeconds;
+    private final int bruteForceThreshold;
+    private final List<AttackRow> attacks;
+    private final List<Ranked> problematicUsers;
+    private final long ipErrorBound;
+    private final long userErrorBound;
+    private final Cardinality cardinality;
+    private final List<RuleRow> rules;
+
+    public LogReport(long totalEvents, long successLogins, long failedLogins, long blockedLogins,
+                     List<LogAnalyzer.LogEntry> failureSamples, List<Ranked> suspiciousIps,
+                     long windowSeconds, int bruteForceThreshold, List<AttackRow> attacks,
+                     List<Ranked> problematicUsers, long ipErrorBound, long userErrorBound,
+                     Cardinality cardinality, List<RuleRow> rules) {
+        this.totalEvents = totalEvents;
+        this.successLogins = successLogins;
+        this.failedLogins = failedLogins;
+        this.blockedLogins = blockedLogins;
+        this.failureSamples = failureSamples;
+        this.suspiciousIps = suspiciousIps;
+        this.windowSeconds = windowSeconds;
+        this.bruteForceThreshold = bruteForceThreshold;
+        this.attacks = attacks;
+        this.problematicUsers = problematicUsers;
+        this.ipErrorBound = ipErrorBound;
+        this.userErrorBound = userErrorBound;
+        this.cardinality = cardinality;
+        this.rules = rules;
+    }
+
+    // Getters
+    public long getTotalEvents() {
+        return totalEvents;
+    }
+
+    public long getSuccessLogins() {
+        return successLogins;
+    }
+
+    public long getFailedLogins() {
+        return failedLogins;
+    }
+
+    public long getBlockedLogins() {
+        return blockedLogins;
+    }
+
+    /**
+     * Falhas sobre o total de tentativas (sucesso + falha), em %
+     */
+    public double getFailureRate() {
+        return failedLogins * 100.0 / (successLogins + failedLogins);
+    }
+
+    public List<LogAnalyzer.LogEntry> getFailureSamples() {
+        return failureSamples;
+    }
+
+    public List<Ranked> getSuspiciousIps() {
+        return suspiciousIps;
+    }
+
+    public long getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    public int getBruteForceThreshold() {
+        return bruteForceThreshold;
+    }
+
+    public List<AttackRow> getAttacks() {
+        return attacks;
+    }
+
+    public List<Ranked> getProblematicUsers() {
+        return problematicUsers;
+    }
+
+    /**
+     * Contagens de IPs/usuários estimadas (modo aproximado)?
+     */
+    public boolean isApproximate() {
+        return ipErrorBound >= 0;
+    }
+
+    /**
+     * Erro máximo das falhas por IP; -1 quando as contagens são exatas
+     */
+    public long getIpErrorBound() {
+        return ipErrorBound;
+    }
+
+    /**
+     * Erro máximo das falhas por usuário; -1 quando as contagens são exatas
+     */
+    public long getUserErrorBound() {
+        return userErrorBound;
+    }
+
+    public Cardinality getCardinality() {
+        return cardinality;
+    }
+
+    /**
+     * Resultado de cada regra do arquivo de regras (vazio sem --regras)
+     */
+    public List<RuleRow> getRules() {
+        return rules;
+    }
+
+    /**
+     * Linha de ranking: nome (IP ou usuário) e contagem
+     */
+    public static class Ranked {
+        private final String name;
+        private final long count;
+
+        public Ranked(String name, long count) {
+            this.name = name;
+            this.count = count;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * Cardinalidades estimadas: IPs e usuários distintos e os usuários
+     * com falhas vindas de mais IPs distintos
+     */
+    public static class Cardinality {
+        private final long distinctIps;
+        private final long distinctUsers;
+        private final double relativeError;
+        private final List<Ranked> usersByDistinctIps;
+        private final double perUserRelativeError;
+
+        public Cardinality(long distinctIps, long distinctUsers, double relativeError,
+                           List<Ranked> usersByDistinctIps, double perUserRelativeError) {
+            this.distinctIps = distinctIps;
+            this.distinctUsers = distinctUsers;
+            this.relativeError = relativeError;
+            this.usersByDistinctIps = usersByDistinctIps;
+            this.perUserRelativeError = perUserRelativeError;
+        }
+
+        public long getDistinctIps() {
+            return distinctIps;
+        }
+
+        public long getDistinctUsers() {
+            return distinctUsers;
+        }
+
+        /**
+         * Erro padrão relativo de IPs/usuários distintos
+         */
+        public double getRelativeError() {
+            return relativeError;
+        }
+
+        public List<Ranked> getUsersByDistinctIps() {
+            return usersByDistinctIps;
+        }
+
+        /**
+         * Erro padrão relativo dos IPs distintos por usuário
+         */
+        public double getPerUserRelativeError() {
+            return perUserRelativeError;
+        }
+    }
+
+    /**
+     * Ataque de brute force com o IP já decodificado
+     */
+    public static class AttackRow {
+        private final String ip;
+        private final long start;
+        private final long end;
+        private final long failures;
+        private final int peak;
+
+        public AttackRow(String ip, long start, long end, long failures, int peak) {
+            this.ip = ip;
+            this.start = start;
+            this.end = end;
+            this.failures = failures;
+            this.peak = peak;
+        }
+
+        public String getIp() {
+            return ip;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getEnd() {
+            return end;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        public int getPeak() {
+            return peak;
+        }
+    }
+
+    /**
+     * Resultado de uma regra: alertas disparados e as chaves com maior contagem
+     */
+    public static class RuleRow {
+        private final String name;
+        private final String definition;
+        private final long alerts;
+        private final List<Ranked> top;
+
+        public RuleRow(String name, String definition, long alerts, List<Ranked> top) {
+            this.name = name;
+            this.definition = definition;
+            this.alerts = alerts;
+            this.top = top;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDefinition() {
+            return definition;
+        }
+
+        public long getAlerts() {
+            return alerts;
+        }
+
+        public List<Ranked> getTop() {
+            return top;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Segmento binário do índice de logs, lido por mapeamento em memória
+ *
+ * Formato (big-endian):
+ * - cabeçalho: MAGIC, VERSION, ingestão (long) e arquivo de origem
+ *   (tamanho e bytes UTF-8), para reindexar um arquivo substituindo os
+ *   segmentos antigos dele
+ * - colunas: flags (byte), ip (int), timestamp (long), usuário (int) e
+ *   mensagem (int), uma coluna inteira após a outra (como no LogStore)
+ * - dicionários de IP (fora do IPv4), usuário e mensagem: quantidade,
+ *   offsets e bytes, com acesso direto por id
+ * - postings por IP e por usuário: chaves ordenadas (busca binária),
+ *   início de cada lista e as linhas
+ * - rodapé fixo: timestamp mínimo e máximo, linhas, offsets das seções, MAGIC
+ *
+ * Abrir um segmento só lê o rodapé; o sistema operacional carrega as
+ * páginas das postings e das linhas que a consulta realmente tocar.
+ */
+public class LogSegment implements AutoCloseable {
+    public static final int MAGIC = 0x4C494458; // "LIDX"
+    public static final int VERSION = 2;
+    public static final int MAX_ROWS = 1 << 24;
+
+    static final int HEADER_SIZE = 8 + 8 + 4; // mais os bytes da origem
+    static final int FOOTER_SIZE = 8 + 8 + 4 + 6 * 8 + 4;
+    static final int NON_IPV4_BIT = 0x80;
+    static final int IP_DICTIONARY = 0;
+    static final int USER_DICTIONARY = 1;
+    static final int MESSAGE_DICTIONARY = 2;
+
+    private static final int TYPE_MASK = 0x7F;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final String source;
+    private final long run;
+    private final MappedByteBuffer data;
+    private final long minTimestamp;
+    private final long maxTimestamp;
+    private final int rows;
+    private final int flagsOffset;
+    private final int ipsOffset;
+    private final int timestampsOffset;
+    private final int usersOffset;
+    private final int messagesOffset;
+    private final int[] dictionaryOffsets;
+    private final int ipPostingsOffset;
+    private final int userPostingsOffset;
+
+    private LogSegment(Path file, FileChannel channel, MappedByteBuffer data) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.data = data;
+
+        int footer = data.capacity() - FOOTER_SIZE;
+        if (footer < HEADER_SIZE || data.getInt(0) != MAGIC
+                || data.getInt(footer + FOOTER_SIZE - 4) != MAGIC) {
+            throw new IOException("Segmento inválido: " + file);
+        }
+        int version = data.getInt(4);
+        if (version == VERSION) {
+            byte[] source = new byte[data.getInt(16)];
+            data.get(HEADER_SIZE, source);
+            this.run = data.getLong(8);
+            this.source = new String(source, StandardCharsets.UTF_8);
+        } else if (version == 1) {
+            this.run = 0; // segmentos antigos não guardam a origem
+            this.source = null;
+        } else {
+            throw new IOException("Versão de segmento não suportada: " + file);
+        }
+        this.minTimestamp = data.getLong(footer);
+        this.maxTimestamp = data.getLong(footer + 8);
+        this.rows = data.getInt(footer + 16);
+        this.flagsOffset = (int) data.getLong(footer + 20);
+        this.ipsOffset = flagsOffset + rows;
+        this.timestampsOffset = ipsOffset + rows * 4;
+        this.usersOffset = timestampsOffset + rows * 8;
+        this.messagesOffset = usersOffset + rows * 4;
+        this.dictionaryOffsets = new int[] {
+            (int) data.getLong(footer + 28),
+            (int) data.getLong(footer + 36),
+            (int) data.getLong(footer + 44)
+        };
+        this.ipPostingsOffset = (int) data.getLong(footer + 52);
+        this.userPostingsOffset = (int) data.getLong(footer + 60);
+    }
+
+    public static LogSegment open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new LogSegment(file, channel, data);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * O segmento tem eventos em [from, to]?
+     */
+    public boolean overlaps(long from, long to) {
+        return rows > 0 && minTimestamp <= to && maxTimestamp >= from;
+    }
+
+    /**
+     * Linhas do IP (em ordem do arquivo), ou vazio se o IP não aparece
+     */
+    public int[] rowsForIp(String ip) {
+        byte[] bytes = ip.getBytes(StandardCharsets.UTF_8);
+        long ipv4 = IpCodec.parseIpv4(bytes, 0, bytes.length);
+        long key;
+        if (ipv4 != IpCodec.NOT_IPV4) {
+            key = IpCodec.ipv4Key((int) ipv4);
+        } else {
+            int id = findInDictionary(IP_DICTIONARY, bytes);
+            if (id < 0) {
+                return new int[0];
+            }
+            key = IpCodec.dictionaryKey(id);
+        }
+
+        int keys = data.getInt(ipPostingsOffset);
+        int keysOffset = ipPostingsOffset + 4;
+        int low = 0;
+        int high = keys - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long candidate = data.getLong(keysOffset + mid * 8);
+            if (candidate < key) {
+                low = mid + 1;
+            } else if (candidate > key) {
+                high = mid - 1;
+            } else {
+                return postings(keysOffset + keys * 8, keys, mid);
+            }
+        }
+        return new int[0];
+    }
+
+    /**
+     * Linhas do usuário (em ordem do arquivo), ou vazio se não aparece
+     */
+    public int[] rowsForUser(String user) {
+        int id = findInDictionary(USER_DICTIONARY, user.getBytes(StandardCharsets.UTF_8));
+        if (id < 0) {
+            return new int[0];
+        }
+        int keys = data.getInt(userPostingsOffset);
+        int keysOffset = userPostingsOffset + 4;
+        int low = 0;
+        int high = keys - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int candidate = data.getInt(keysOffset + mid * 4);
+            if (candidate < id) {
+                low = mid + 1;
+            } else if (candidate > id) {
+                high = mid - 1;
+            } else {
+                return postings(keysOffset + keys * 4, keys, mid);
+            }
+        }
+        return new int[0];
+    }
+
+    private int[] postings(int startsOffset, int keys, int index) {
+        int begin = data.getInt(startsOffset + index * 4);
+        int end = data.getInt(startsOffset + (index + 1) * 4);
+        int rowsOffset = startsOffset + (keys + 1) * 4;
+        int[] result = new int[end - begin];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = data.getInt(rowsOffset + (begin + i) * 4);
+        }
+        return result;
+    }
+
+    /**
+     * Busca linear no dicionário (só para traduzir o termo da consulta)
+     */
+    private int findInDictionary(int dictionary, byte[] value) {
+        int offset = dictionaryOffsets[dictionary];
+        int count = data.getInt(offset);
+        for (int id = 0; id < count; id++) {
+            int start = data.getInt(offset + 4 + id * 4);
+            int end = data.getInt(offset + 4 + (id + 1) * 4);
+            if (end - start == value.length && entryEquals(dictionary, start, value)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    private boolean entryEquals(int dictionary, int start, byte[] value) {
+        int base = dictionaryBytesOffset(dictionary) + start;
+        for (int i = 0; i < value.length; i++) {
+            if (data.get(base + i) != value[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int dictionaryBytesOffset(int dictionary) {
+        int offset = dictionaryOffsets[dictionary];
+        return offset + 4 + (data.getInt(offset) + 1) * 4;
+    }
+
+    private String dictionaryEntry(int dictionary, int id) {
+        int offset = dictionaryOffsets[dictionary];
+        int start = data.getInt(offset + 4 + id * 4);
+        int end = data.getInt(offset + 4 + (id + 1) * 4);
+        byte[] bytes = new byte[end - start];
+        data.get(dictionaryBytesOffset(dictionary) + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Colunas
+    public LogType type(int row) {
+        return LogType.ofOrdinal(data.get(flagsOffset + row) & TYPE_MASK);
+    }
+
+    public long timestamp(int row) {
+        return data.getLong(timestampsOffset + row * 8);
+    }
+
+    public String ip(int row) {
+        int ip = data.getInt(ipsOffset + row * 4);
+        return (data.get(flagsOffset + row) & NON_IPV4_BIT) == 0
+            ? IpCodec.formatIpv4(ip)
+            : dictionaryEntry(IP_DICTIONARY, ip);
+    }
+
+    public String user(int row) {
+        return dictionaryEntry(USER_DICTIONARY, data.getInt(usersOffset + row * 4));
+    }
+
+    public String message(int row) {
+        return dictionaryEntry(MESSAGE_DICTIONARY, data.getInt(messagesOffset + row * 4));
+    }
+
+    /**
+     * Materializa a linha como LogEntry (só para exibição)
+     */
+    public LogAnalyzer.LogEntry toEntry(int row) {
+        return new LogAnalyzer.LogEntry(TimestampCodec.format(timestamp(row)),
+            type(row).name(), ip(row), user(row), message(row));
+    }
+
+    // Cabeçalho e rodapé
+    public long getMinTimestamp() {
+        return minTimestamp;
+    }
+
+    public long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Caminho real do log indexado (null em segmentos da versão 1)
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Identificador da ingestão que gravou o segmento
+     */
+    public long getRun() {
+        return run;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,242 @@
+import java.util.Arrays;
+
+/**
+ * Armazenamento colunar e compacto dos eventos de log
+ * Em vez de cinco Strings por entrada, cada evento ocupa ~21 bytes:
+ * - flags: ordinal do LogType + bits de IP fora do IPv4 e de data
+ *   inválida (byte)
+ * - ip: IPv4 empacotado ou id no dicionário de IPs (int)
+ * - timestamp: segundos desde a época (long), ou, se a data não estiver no
+ *   formato esperado, o id do texto original no dicionário de datas
+ *   inválidas (exibido como estava na linha)
+ * - usuário e mensagem: ids nos respectivos dicionários (int)
+ *
+ * Usado tanto como lote reaproveitado pelos workers (clear() a cada lote)
+ * quanto como base em memória para análises repetidas.
+ *
+ * No modo aproximado (transientUsers) o dicionário de usuários também é
+ * zerado a cada lote: os agregadores guardam só o hash e o rótulo.
+ */
+public class LogStore {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int TYPE_MASK = 0x3F;
+    private static final int RAW_TIMESTAMP_BIT = 0x40;
+    private static final int NON_IPV4_BIT = 0x80;
+
+    private byte[] flags;
+    private int[] ips;
+    private long[] timestamps;
+    private int[] users;
+    private int[] messages;
+    private int size;
+
+    private final StringDictionary ipDictionary;
+    private final StringDictionary userDictionary;
+    private final StringDictionary messageDictionary;
+    private final StringDictionary rawTimestampDictionary;
+    private final boolean transientUsers;
+
+    public LogStore() {
+        this(false);
+    }
+
+    /**
+     * @param transientUsers zera o dicionário de usuários em clear()
+     */
+    public LogStore(boolean transientUsers) {
+        this.flags = new byte[INITIAL_CAPACITY];
+        this.ips = new int[INITIAL_CAPACITY];
+        this.timestamps = new long[INITIAL_CAPACITY];
+        this.users = new int[INITIAL_CAPACITY];
+        this.messages = new int[INITIAL_CAPACITY];
+        this.ipDictionary = new StringDictionary();
+        this.userDictionary = new StringDictionary();
+        this.messageDictionary = new StringDictionary();
+        this.rawTimestampDictionary = new StringDictionary();
+        this.transientUsers = transientUsers;
+    }
+
+    /**
+     * Converte a linha tokenizada para as colunas
+     * @return índice da linha inserida
+     */
+    public int append(LogLineTokenizer line) {
+        byte[] buffer = line.buffer();
+
+        long ipv4 = IpCodec.parseIpv4(buffer,
+            line.start(LogLineTokenizer.IP), line.length(LogLineTokenizer.IP));
+        int flag = LogType.of(line).ordinal();
+        int ip;
+        if (ipv4 != IpCodec.NOT_IPV4) {
+            ip = (int) ipv4;
+        } else {
+            ip = ipDictionary.intern(buffer,
+                line.start(LogLineTokenizer.IP), line.length(LogLineTokenizer.IP));
+            flag |= NON_IPV4_BIT;
+        }
+
+        int timestampStart = line.start(LogLineTokenizer.TIMESTAMP);
+        int timestampLength = line.length(LogLineTokenizer.TIMESTAMP);
+        long timestamp = TimestampCodec.parse(buffer, timestampStart, timestampLength);
+        if (timestamp == TimestampCodec.NO_TIMESTAMP) {
+            timestamp = rawTimestampDictionary.intern(buffer, timestampStart, timestampLength);
+            flag |= RAW_TIMESTAMP_BIT;
+        }
+
+        return add((byte) flag, ip, timestamp,
+            userDictionary.intern(buffer,
+                line.start(LogLineTokenizer.USUARIO), line.length(LogLineTokenizer.USUARIO)),
+            messageDictionary.intern(buffer,
+                line.start(LogLineTokenizer.MENSAGEM), line.length(LogLineTokenizer.MENSAGEM)));
+    }
+
+    private int add(byte flag, int ip, long timestamp, int user, int message) {
+        if (size == flags.length) {
+            int capacity = size * 2;
+            flags = Arrays.copyOf(flags, capacity);
+            ips = Arrays.copyOf(ips, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            users = Arrays.copyOf(users, capacity);
+            messages = Arrays.copyOf(messages, capacity);
+        }
+        flags[size] = flag;
+        ips[size] = ip;
+        timestamps[size] = timestamp;
+        users[size] = user;
+        messages[size] = message;
+        return size++;
+    }
+
+    /**
+     * Descarta as linhas do lote, mantendo os dicionários de IP e usuário
+     * (as chaves dos agregadores continuam válidas). O dicionário de
+     * mensagens (e o de usuários, se transientUsers) é zerado para não
+     * crescer com o arquivo. O de datas inválidas também.
+     */
+    public void clear() {
+        size = 0;
+        messageDictionary.clear();
+        rawTimestampDictionary.clear();
+        if (transientUsers) {
+            userDictionary.clear();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Colunas
+    public LogType type(int row) {
+        return LogType.ofOrdinal(flags[row] & TYPE_MASK);
+    }
+
+    /**
+     * Chave de IP no formato do IpCodec
+     */
+    public long ipKey(int row) {
+        return (flags[row] & NON_IPV4_BIT) == 0
+            ? IpCodec.ipv4Key(ips[row])
+            : IpCodec.dictionaryKey(ips[row]);
+    }
+
+    /**
+     * @return TimestampCodec.NO_TIMESTAMP se a data da linha era inválida
+     */
+    public long timestamp(int row) {
+        return (flags[row] & RAW_TIMESTAMP_BIT) == 0 ? timestamps[row] : TimestampCodec.NO_TIMESTAMP;
+    }
+
+    /**
+     * Data como estava na linha, se inválida, ou reformatada
+     */
+    public String timestampText(int row) {
+        return (flags[row] & RAW_TIMESTAMP_BIT) == 0
+            ? TimestampCodec.format(timestamps[row])
+            : rawTimestampDictionary.get((int) timestamps[row]);
+    }
+
+    public int userId(int row) {
+        return users[row];
+    }
+
+    public int messageId(int row) {
+        return messages[row];
+    }
+
+    // Decodificação
+    public String ipName(long ipKey) {
+        return IpCodec.isIpv4Key(ipKey)
+            ? IpCodec.formatIpv4((int) ipKey)
+            : ipDictionary.get(IpCodec.dictionaryId(ipKey));
+    }
+
+    public String userName(int userId) {
+        return userDictionary.get(userId);
+    }
+
+    public String message(int messageId) {
+        return messageDictionary.get(messageId);
+    }
+
+    public byte[] messageBytes(int messageId) {
+        return messageDictionary.bytes(messageId);
+    }
+
+    // Tamanho dos dicionários (ids vão de 0 a size - 1)
+    public int ipDictionarySize() {
+        return ipDictionary.size();
+    }
+
+    public int userDictionarySize() {
+        return userDictionary.size();
+    }
+
+    public int messageDictionarySize() {
+        return messageDictionary.size();
+    }
+
+    /**
+     * Bytes do IP fora do IPv4 (compartilhados, não alterar)
+     */
+    public byte[] ipBytes(long ipKey) {
+        return ipDictionary.bytes(IpCodec.dictionaryId(ipKey));
+    }
+
+    /**
+     * Bytes do nome de usuário (compartilhados, não alterar)
+     */
+    public byte[] userBytes(int userId) {
+        return userDictionary.bytes(userId);
+    }
+
+    /**
+     * Traduz uma chave de IP de outro store para este
+     */
+    public long importIpKey(LogStore other, long ipKey) {
+        if (IpCodec.isIpv4Key(ipKey)) {
+            return ipKey;
+        }
+        return IpCodec.dictionaryKey(
+            ipDictionary.intern(other.ipDictionary.bytes(IpCodec.dictionaryId(ipKey))));
+    }
+
+    /**
+     * Traduz um id de usuário de outro store para este
+     */
+    public int importUserId(LogStore other, int userId) {
+        return userDictionary.intern(other.userDictionary.bytes(userId));
+    }
+
+    /**
+     * Materializa a linha como LogEntry (só para exibição)
+     */
+    public LogAnalyzer.LogEntry toEntry(int row) {
+        return new LogAnalyzer.LogEntry(
+            timestampText(row),
+            type(row).name(),
+            ipName(ipKey(row)),
+            userName(users[row]),
+            message(messages[row]));
+    }
+}
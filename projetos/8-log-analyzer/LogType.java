@@ -0,0 +1,30 @@
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tipos de evento do log, guardados como ordinal nas colunas do LogStore
+ */
+public enum LogType {
+    SUCESSO,
+    FALHA,
+    BLOQUEADO,
+    OUTRO;
+
+    private static final LogType[] VALUES = values();
+    private final byte[] name = name().getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Identifica o tipo do campo [TIPO] sem criar String
+     */
+    public static LogType of(LogLineTokenizer line) {
+        for (LogType type : VALUES) {
+            if (type != OUTRO && line.fieldEquals(LogLineTokenizer.TIPO, type.name)) {
+                return type;
+            }
+        }
+        return OUTRO;
+    }
+
+    public static LogType ofOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
@@ -0,0 +1,186 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Leitor de vários arquivos de log (ex.: um diretório de logs rotacionados)
+ *
+ * Cada arquivo é lido por um worker de um pool limitado, com seu próprio
+ * LogAggregator parcial; arquivos .gz são descompactados com o
+ * GZIPInputStream do JDK. Os bytes descompactados chegam ao tokenizador em
+ * blocos grandes (BLOCK_SIZE), não linha a linha.
+ *
+ * Os parciais são mesclados na ordem dos arquivos, com no máximo
+ * 2 x paralelismo em voo, então o resultado é o mesmo de ler os arquivos
+ * um depois do outro (inclusive a ordem das falhas vista pelo detector de
+ * brute force).
+ */
+public class MultiFileLogReader {
+    private static final int BLOCK_SIZE = 4 * 1024 * 1024;
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final int parallelism;
+
+    public MultiFileLogReader() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public MultiFileLogReader(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Paralelismo inválido: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Lê os arquivos em paralelo e mescla os parciais em target, na ordem da lista
+     */
+    public void read(List<Path> files, LogAggregator target) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        try {
+            int maxInFlight = parallelism * 2;
+            Deque<Future<LogAggregator>> inFlight = new ArrayDeque<>();
+            for (Path file : files) {
+                if (inFlight.size() == maxInFlight) {
+                    target.merge(join(inFlight.removeFirst()));
+                }
+                inFlight.addLast(pool.submit(() -> readFile(file, target.newPartial())));
+            }
+            while (!inFlight.isEmpty()) {
+                target.merge(join(inFlight.removeFirst()));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static LogAggregator join(Future<LogAggregator> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Leitura interrompida", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Lê um arquivo inteiro (descompactando se for .gz) no parcial
+     */
+    static LogAggregator readFile(Path file, LogAggregator partial) throws IOException {
+        LogStore batch = partial.getStore();
+        LogLineTokenizer tokenizer = new LogLineTokenizer();
+        try (InputStream in = open(file)) {
+            byte[] block = new byte[BLOCK_SIZE];
+            int pending = 0;
+            while (true) {
+                if (pending == block.length) {
+                    block = Arrays.copyOf(block, block.length * 2); // linha maior que o bloco
+                }
+                int read = in.readNBytes(block, pending, block.length - pending);
+                if (read == 0) {
+                    break;
+                }
+                int filled = pending + read;
+
+                int lineStart = 0;
+                for (int i = pending; i < filled; i++) {
+                    if (block[i] == '\n') {
+                        ChunkedLogReader.acceptLine(partial, batch, tokenizer, block, lineStart, i);
+                        lineStart = i + 1;
+                    }
+                }
+                pending = filled - lineStart;
+                System.arraycopy(block, lineStart, block, 0, pending);
+            }
+            if (pending > 0) {
+                ChunkedLogReader.acceptLine(partial, batch, tokenizer, block, 0, pending);
+            }
+        } catch (NoSuchFileException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new IOException(file + ": " + e.getMessage(), e); // ex.: .gz corrompido
+        }
+        partial.acceptAll(batch);
+        batch.clear();
+        return partial;
+    }
+
+    static InputStream open(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        if (isGzip(file)) {
+            try {
+                return new GZIPInputStream(in, GZIP_BUFFER_SIZE);
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+        }
+        return in;
+    }
+
+    public static boolean isGzip(Path file) {
+        return file.getFileName().toString().endsWith(".gz");
+    }
+
+    /**
+     * Expande os argumentos em arquivos
+     * Um argumento com *, ?, [ ou { é um glob sobre os nomes do seu
+     * diretório (ex.: "logs/auth.log*"); as correspondências vêm da mais
+     * antiga para a mais recente (data de modificação), como logs
+     * rotacionados devem ser lidos. Os demais são caminhos usados como estão.
+     * @throws NoSuchFileException se um glob não encontrar nenhum arquivo
+     */
+    public static List<Path> expand(List<String> arguments) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (String argument : arguments) {
+            if (!isGlob(argument)) {
+                files.add(Paths.get(argument));
+                continue;
+            }
+            Path pattern = Paths.get(argument);
+            Path directory = pattern.getParent() != null ? pattern.getParent() : Paths.get(".");
+            PathMatcher matcher = directory.getFileSystem()
+                .getPathMatcher("glob:" + pattern.getFileName());
+
+            List<Path> matches = new ArrayList<>();
+            try (Stream<Path> entries = Files.list(directory)) {
+                entries.filter(p -> Files.isRegularFile(p) && matcher.matches(p.getFileName()))
+                    .forEach(matches::add);
+            }
+            if (matches.isEmpty()) {
+                throw new NoSuchFileException(argument);
+            }
+            Map<Path, Long> modified = new HashMap<>();
+            for (Path match : matches) {
+                modified.put(match, Files.getLastModifiedTime(match).toMillis());
+            }
+            matches.sort(Comparator.comparing((Path p) -> modified.get(p))
+                .thenComparing(Comparator.reverseOrder()));
+            files.addAll(matches);
+        }
+        return files;
+    }
+
+    private static boolean isGlob(String argument) {
+        for (char c : "*?[{".toCharArray()) {
+            if (argument.indexOf(c) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,167 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Codifica um grupo de linhas do arquivo colunar (ver ColumnarLogFile)
+ *
+ * Cada coluna cresce no seu próprio array de bytes, já no formato final:
+ * - flags: ordinal do LogType, bit de IP fora do IPv4 e bit de sem timestamp
+ * - ips: IPv4 empacotado ou id no dicionário de IPs do grupo (int)
+ * - timestamps: diferença para a linha anterior, zigzag + varint (logs em
+ *   ordem de tempo gastam ~1 byte por linha)
+ * - usuários e mensagens: ids nos dicionários do grupo, em varint
+ *
+ * Os dicionários são do grupo, então workers diferentes codificam grupos
+ * sem coordenação e o escritor só concatena (ColumnarExport).
+ */
+public class RowGroupEncoder {
+    public static final int MAX_ROWS = 1 << 20;
+
+    private final Bytes flags = new Bytes();
+    private final Bytes ips = new Bytes();
+    private final Bytes timestamps = new Bytes();
+    private final Bytes users = new Bytes();
+    private final Bytes messages = new Bytes();
+    private final StringDictionary ipDictionary = new StringDictionary();
+    private final StringDictionary userDictionary = new StringDictionary();
+    private final StringDictionary messageDictionary = new StringDictionary();
+
+    private int rows;
+    private long baseTimestamp = TimestampCodec.NO_TIMESTAMP;
+    private long previousTimestamp;
+    private long minTimestamp = Long.MAX_VALUE;
+    private long maxTimestamp = Long.MIN_VALUE;
+
+    /**
+     * Acrescenta uma linha do store (os ids são traduzidos para os
+     * dicionários do grupo)
+     */
+    public void add(LogStore store, int row) {
+        int flag = store.type(row).ordinal();
+        long ipKey = store.ipKey(row);
+        if (IpCodec.isIpv4Key(ipKey)) {
+            ips.putInt((int) ipKey);
+        } else {
+            ips.putInt(ipDictionary.intern(store.ipBytes(ipKey)));
+            flag |= ColumnarLogFile.NON_IPV4_BIT;
+        }
+
+        long timestamp = store.timestamp(row);
+        if (timestamp == TimestampCodec.NO_TIMESTAMP) {
+            flag |= ColumnarLogFile.NO_TIMESTAMP_BIT;
+        } else {
+            if (baseTimestamp == TimestampCodec.NO_TIMESTAMP) {
+                baseTimestamp = timestamp;
+                previousTimestamp = timestamp;
+            }
+            long delta = timestamp - previousTimestamp;
+            timestamps.putVarLong((delta << 1) ^ (delta >> 63));
+            previousTimestamp = timestamp;
+            minTimestamp = Math.min(minTimestamp, timestamp);
+            maxTimestamp = Math.max(maxTimestamp, timestamp);
+        }
+        flags.put((byte) flag);
+        users.putVarLong(userDictionary.intern(store.userBytes(store.userId(row))));
+        messages.putVarLong(messageDictionary.intern(store.messageBytes(store.messageId(row))));
+        rows++;
+    }
+
+    public int size() {
+        return rows;
+    }
+
+    public long getMinTimestamp() {
+        return rows == 0 || minTimestamp == Long.MAX_VALUE ? TimestampCodec.NO_TIMESTAMP : minTimestamp;
+    }
+
+    public long getMaxTimestamp() {
+        return rows == 0 || maxTimestamp == Long.MIN_VALUE ? TimestampCodec.NO_TIMESTAMP : maxTimestamp;
+    }
+
+    /**
+     * O grupo pronto para gravação, como uma sequência de buffers que
+     * apontam direto para os arrays das colunas (escrita com gathering,
+     * sem juntar tudo numa cópia)
+     */
+    public ByteBuffer[] toBuffers() {
+        ByteBuffer[] dictionaries = {
+            dictionary(ipDictionary), dictionary(userDictionary), dictionary(messageDictionary)
+        };
+        ByteBuffer header = ByteBuffer.allocate(ColumnarLogFile.GROUP_HEADER_SIZE);
+        header.putInt(rows).putLong(baseTimestamp)
+            .putInt(flags.size).putInt(ips.size).putInt(timestamps.size)
+            .putInt(users.size).putInt(messages.size);
+        for (ByteBuffer dictionary : dictionaries) {
+            header.putInt(dictionary.remaining());
+        }
+        header.flip();
+        return new ByteBuffer[] {
+            header, flags.wrap(), ips.wrap(), timestamps.wrap(), users.wrap(), messages.wrap(),
+            dictionaries[0], dictionaries[1], dictionaries[2]
+        };
+    }
+
+    /**
+     * Dicionário: quantidade, offsets relativos (quantidade + 1) e os bytes
+     */
+    private static ByteBuffer dictionary(StringDictionary dictionary) {
+        int count = dictionary.size();
+        int bytes = 0;
+        for (int id = 0; id < count; id++) {
+            bytes += dictionary.bytes(id).length;
+        }
+        ByteBuffer out = ByteBuffer.allocate(4 + (count + 1) * 4 + bytes);
+        out.putInt(count);
+        int offset = 0;
+        for (int id = 0; id < count; id++) {
+            out.putInt(offset);
+            offset += dictionary.bytes(id).length;
+        }
+        out.putInt(offset);
+        for (int id = 0; id < count; id++) {
+            out.put(dictionary.bytes(id));
+        }
+        return out.flip();
+    }
+
+    /**
+     * Array de bytes que cresce, com escrita big-endian e varint
+     */
+    private static final class Bytes {
+        private byte[] data = new byte[1024];
+        private int size;
+
+        void put(byte value) {
+            ensure(1);
+            data[size++] = value;
+        }
+
+        void putInt(int value) {
+            ensure(4);
+            data[size] = (byte) (value >>> 24);
+            data[size + 1] = (byte) (value >>> 16);
+            data[size + 2] = (byte) (value >>> 8);
+            data[size + 3] = (byte) value;
+            size += 4;
+        }
+
+        void putVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                data[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[size++] = (byte) value;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+            }
+        }
+
+        ByteBuffer wrap() {
+            return ByteBuffer.wrap(data, 0, size);
+        }
+    }
+}
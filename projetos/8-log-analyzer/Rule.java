@@ -0,0 +1,246 @@
+import java.util.*;
+import java.util.function.LongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Regra de detecção declarada no arquivo de regras
+ *
+ * Sintaxe (uma por linha):
+ *   [nome:] TIPOS count by CAMPO [over DURAÇÃO] > LIMIAR
+ * - TIPOS: FALHA, FALHA|BLOQUEADO ou * (todos)
+ * - CAMPO: ip ou usuario
+ * - over: janela deslizante (ex.: 60s, 5m, 1h); sem over, conta o total
+ * Ex.: "brute-force: FALHA count by ip over 60s > 5"
+ *
+ * Com janela, cada chave é acompanhada por um BruteForceDetector próprio
+ * (o mesmo anel de buckets do detector padrão) e o alerta sai quando a
+ * contagem na janela passa do limiar; sem janela, um contador primitivo
+ * dispara uma única vez, quando o total passa do limiar.
+ */
+public class Rule {
+    public static final int MAX_TRACKED_KEYS = BruteForceDetector.DEFAULT_MAX_TRACKED_IPS;
+
+    private static final Pattern SYNTAX = Pattern.compile(
+        "(?:([\\w.-]+)\\s*:\\s*)?([A-Za-z|*]+)\\s+count\\s+by\\s+(ip|usuario)"
+            + "(?:\\s+over\\s+(\\d+)([smhd]))?\\s*>\\s*(\\d+)",
+        Pattern.CASE_INSENSITIVE);
+
+    private final String name;
+    private final String definition;
+    private final int typeMask;
+    private final Field field;
+    private final long windowSeconds;
+    private final int threshold;
+
+    // Estado (um dos dois, conforme a regra tenha janela ou não)
+    private final BruteForceDetector window;
+    private final IpCounter totals;
+    private long alerts;
+    private AlertListener listener;
+
+    private Rule(String name, String definition, int typeMask, Field field,
+                 long windowSeconds, int threshold) {
+        this.name = name;
+        this.definition = definition;
+        this.typeMask = typeMask;
+        this.field = field;
+        this.windowSeconds = windowSeconds;
+        this.threshold = threshold;
+        if (windowSeconds > 0) {
+            this.window = new BruteForceDetector(windowSeconds, threshold, MAX_TRACKED_KEYS);
+            this.window.setListener((attack, windowCount) -> fire(attack.getIpKey(), windowCount,
+                attack.getStart()));
+            this.totals = null;
+        } else {
+            this.window = null;
+            this.totals = new IpCounter();
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException se a linha não seguir a sintaxe
+     */
+    public static Rule parse(String line) {
+        Matcher matcher = SYNTAX.matcher(line.trim());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("regra inválida: " + line.trim());
+        }
+
+        int typeMask = 0;
+        for (String type : matcher.group(2).split("\\|")) {
+            if (type.equals("*")) {
+                typeMask = (1 << LogType.values().length) - 1;
+            } else {
+                try {
+                    typeMask |= 1 << LogType.valueOf(type.toUpperCase(Locale.ROOT)).ordinal();
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("tipo desconhecido: " + type);
+                }
+            }
+        }
+        Field field = Field.valueOf(matcher.group(3).toUpperCase(Locale.ROOT));
+        long windowSeconds = 0;
+        if (matcher.group(4) != null) {
+            windowSeconds = Long.parseLong(matcher.group(4))
+                * unitSeconds(matcher.group(5).toLowerCase(Locale.ROOT).charAt(0));
+            if (windowSeconds <= 0) {
+                throw new IllegalArgumentException("janela inválida: " + line.trim());
+            }
+            // A definição mostra a janela efetiva (arredondada pelo detector)
+            windowSeconds = BruteForceDetector.effectiveWindowSeconds(windowSeconds);
+        }
+        int threshold = Integer.parseInt(matcher.group(6));
+
+        String definition = matcher.group(2).toUpperCase(Locale.ROOT) + " count by "
+            + field.name().toLowerCase(Locale.ROOT)
+            + (windowSeconds > 0 ? " over " + windowSeconds + "s" : "") + " > " + threshold;
+        String name = matcher.group(1) != null ? matcher.group(1) : definition;
+        return new Rule(name, definition, typeMask, field, windowSeconds, threshold);
+    }
+
+    private static long unitSeconds(char unit) {
+        switch (unit) {
+            case 'm':
+                return 60;
+            case 'h':
+                return 3600;
+            case 'd':
+                return 86400;
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * Conta um evento já filtrado pelo tipo
+     * @param key chave do campo da regra (IP do IpCodec ou id de usuário)
+     */
+    void accept(long key, long timestamp) {
+        if (window != null) {
+            window.accept(key, timestamp);
+        } else {
+            long count = totals.increment(key);
+            if (count == threshold + 1L) {
+                fire(key, count, timestamp);
+            }
+        }
+    }
+
+    private void fire(long key, long count, long timestamp) {
+        alerts++;
+        if (listener != null) {
+            listener.onAlert(this, key, count, timestamp);
+        }
+    }
+
+    void finish() {
+        if (window != null) {
+            window.finish();
+        }
+    }
+
+    /**
+     * Chaves que dispararam, da maior contagem para a menor
+     * (pico na janela para regras com over, total para as demais)
+     * @return pares {chave, contagem}
+     */
+    public List<long[]> top(int limit) {
+        return top(limit, null);
+    }
+
+    /**
+     * Igual a top(limit), com empates pelo nome de cada chave (names),
+     * que não depende da ordem em que blocos e arquivos foram mesclados
+     * @param names nome da chave, ou null para desempatar pela própria chave
+     */
+    public List<long[]> top(int limit, LongFunction<String> names) {
+        // O pior fica no topo: menor contagem e, no empate, o maior nome
+        Comparator<long[]> order = Comparator.comparingLong(e -> e[1]);
+        order = names == null
+            ? order.thenComparing(Comparator.<long[]>comparingLong(e -> e[0]).reversed())
+            : order.thenComparing(e -> names.apply(e[0]), Comparator.reverseOrder());
+        PriorityQueue<long[]> heap = new PriorityQueue<>(limit + 1, order);
+        if (window != null) {
+            Map<Long, Long> peaks = new HashMap<>();
+            for (BruteForceDetector.Attack attack : window.getAttacks()) {
+                peaks.merge(attack.getIpKey(), (long) attack.getPeak(), Math::max);
+            }
+            peaks.forEach((key, peak) -> offer(heap, limit, key, peak));
+        } else {
+            totals.forEach((key, count) -> {
+                if (count > threshold) {
+                    offer(heap, limit, key, count);
+                }
+            });
+        }
+        List<long[]> result = new ArrayList<>();
+        while (!heap.isEmpty()) {
+            result.add(0, heap.poll());
+        }
+        return result;
+    }
+
+    private static void offer(PriorityQueue<long[]> heap, int limit, long key, long count) {
+        heap.add(new long[] {key, count});
+        if (heap.size() > limit) {
+            heap.poll();
+        }
+    }
+
+    void setListener(AlertListener listener) {
+        this.listener = listener;
+    }
+
+    public boolean matches(LogType type) {
+        return (typeMask & (1 << type.ordinal())) != 0;
+    }
+
+    // Getters
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Definição normalizada (sem o nome); regras com a mesma definição
+     * mantêm o estado ao recarregar o arquivo
+     */
+    public String getDefinition() {
+        return definition;
+    }
+
+    public int getTypeMask() {
+        return typeMask;
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    public long getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public long getAlerts() {
+        return alerts;
+    }
+
+    /**
+     * Campo que agrupa a contagem
+     */
+    public enum Field {
+        IP,
+        USUARIO
+    }
+
+    /**
+     * Callback chamado quando uma chave passa do limiar da regra
+     */
+    public interface AlertListener {
+        void onAlert(Rule rule, long key, long count, long timestamp);
+    }
+}
@@ -0,0 +1,200 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+
+/**
+ * Motor de regras: o arquivo de regras (ver Rule) compilado numa tabela
+ * de despacho por tipo de evento
+ *
+ * Cada evento é entregue só às regras do seu tipo, na mesma passada que
+ * alimenta os demais agregadores: acrescentar regras não acrescenta
+ * leituras do log, só trabalho por evento nas regras interessadas.
+ *
+ * O arquivo é recarregado quando muda (verificado no máximo uma vez por
+ * segundo, pelo dono do motor). Regras com o mesmo nome e definição
+ * mantêm o estado, regras novas começam a contar a partir da recarga, e
+ * um arquivo com erro é ignorado (as regras atuais continuam).
+ *
+ * Formato do arquivo: uma regra por linha; linhas em branco e a partir
+ * de # são ignoradas.
+ */
+public class RuleEngine {
+    private static final long RELOAD_CHECK_NANOS = 1_000_000_000L;
+    private static final Rule[] NO_RULES = new Rule[0];
+
+    private final Path file;
+    private List<Rule> rules;
+    private Rule[][] byType;
+    private int typeMask;
+    private FileTime lastModified;
+    private long lastCheck;
+    private int reloads;
+    private Rule.AlertListener listener;
+
+    private RuleEngine(Path file, List<Rule> rules, FileTime lastModified) {
+        this.file = file;
+        this.lastModified = lastModified;
+        this.lastCheck = System.nanoTime();
+        compile(rules);
+    }
+
+    /**
+     * Regras fixas, sem arquivo (não recarrega)
+     */
+    public RuleEngine(List<Rule> rules) {
+        this(null, rules, null);
+    }
+
+    /**
+     * @throws IllegalArgumentException com a linha do erro se alguma regra for inválida
+     */
+    public static RuleEngine load(Path file) throws IOException {
+        FileTime modified = Files.getLastModifiedTime(file);
+        return new RuleEngine(file, parse(Files.readAllLines(file, StandardCharsets.UTF_8)), modified);
+    }
+
+    static List<Rule> parse(List<String> lines) {
+        List<Rule> rules = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                Rule rule = Rule.parse(line);
+                if (!names.add(rule.getName())) {
+                    throw new IllegalArgumentException("nome repetido: " + rule.getName());
+                }
+                rules.add(rule);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("linha " + (i + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        return rules;
+    }
+
+    private void compile(List<Rule> compiled) {
+        LogType[] types = LogType.values();
+        Rule[][] table = new Rule[types.length][];
+        int mask = 0;
+        for (LogType type : types) {
+            List<Rule> matching = new ArrayList<>();
+            for (Rule rule : compiled) {
+                if (rule.matches(type)) {
+                    matching.add(rule);
+                }
+            }
+            table[type.ordinal()] = matching.isEmpty() ? NO_RULES : matching.toArray(NO_RULES);
+            if (!matching.isEmpty()) {
+                mask |= 1 << type.ordinal();
+            }
+        }
+        for (Rule rule : compiled) {
+            rule.setListener(listener);
+        }
+        this.rules = Collections.unmodifiableList(new ArrayList<>(compiled));
+        this.byType = table;
+        this.typeMask = mask;
+    }
+
+    /**
+     * Entrega um evento às regras do seu tipo
+     * @param ipKey chave de IP do IpCodec
+     * @param userId id do usuário no dicionário do agregador
+     */
+    public void accept(LogType type, long ipKey, int userId, long timestamp) {
+        for (Rule rule : byType[type.ordinal()]) {
+            rule.accept(rule.getField() == Rule.Field.IP ? ipKey : userId, timestamp);
+        }
+    }
+
+    /**
+     * Alguma regra se interessa por eventos deste tipo?
+     */
+    public boolean matches(LogType type) {
+        return (typeMask & (1 << type.ordinal())) != 0;
+    }
+
+    /**
+     * Relê o arquivo se ele mudou desde a última leitura
+     * @return true se as regras foram trocadas
+     */
+    public boolean reloadIfChanged() {
+        long now = System.nanoTime();
+        if (file == null || now - lastCheck < RELOAD_CHECK_NANOS) {
+            return false;
+        }
+        lastCheck = now;
+        try {
+            FileTime modified = Files.getLastModifiedTime(file);
+            if (modified.equals(lastModified)) {
+                return false;
+            }
+            lastModified = modified;
+            List<Rule> loaded = parse(Files.readAllLines(file, StandardCharsets.UTF_8));
+
+            // Mantém o estado das regras que não mudaram
+            Map<String, Rule> current = new HashMap<>();
+            for (Rule rule : rules) {
+                current.put(rule.getName() + '\n' + rule.getDefinition(), rule);
+            }
+            List<Rule> merged = new ArrayList<>(loaded.size());
+            for (Rule rule : loaded) {
+                merged.add(current.getOrDefault(rule.getName() + '\n' + rule.getDefinition(), rule));
+            }
+            compile(merged);
+            reloads++;
+            System.out.println("🔁 Regras recarregadas: " + rules.size() + " ativas");
+            return true;
+        } catch (NoSuchFileException e) {
+            System.out.println("⚠️  Arquivo de regras removido, mantendo as regras atuais");
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("⚠️  Regras não recarregadas (" + e.getMessage() + "), mantendo as atuais");
+        }
+        return false;
+    }
+
+    /**
+     * Encerra as janelas ainda abertas (fim da entrada)
+     */
+    public void finish() {
+        for (Rule rule : rules) {
+            rule.finish();
+        }
+    }
+
+    /**
+     * Recebe os alertas das regras assim que disparam (ex.: modo --follow)
+     */
+    public void setListener(Rule.AlertListener listener) {
+        this.listener = listener;
+        for (Rule rule : rules) {
+            rule.setListener(listener);
+        }
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    public int getTypeMask() {
+        return typeMask;
+    }
+
+    public int getReloads() {
+        return reloads;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,199 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Arrays;
+
+/**
+ * Grava um LogStore como segmento binário do índice (formato em LogSegment)
+ *
+ * As colunas e os dicionários vão como estão; as listas de postings por IP
+ * e por usuário saem de uma ordenação de longs (chave << 24 | linha), sem
+ * mapas nem boxing. O arquivo é escrito num temporário e renomeado no fim,
+ * então um leitor nunca vê um segmento pela metade.
+ */
+public final class SegmentWriter {
+    private static final int ROW_BITS = 24;
+
+    private SegmentWriter() {
+    }
+
+    /**
+     * @param store linhas do segmento (no máximo LogSegment.MAX_ROWS)
+     * @param source caminho real do log de origem
+     * @param run identificador da ingestão
+     */
+    public static void write(LogStore store, Path file, String source, long run) throws IOException {
+        int rows = store.size();
+        if (rows == 0 || rows > LogSegment.MAX_ROWS) {
+            throw new IllegalArgumentException("Segmento com " + rows + " linhas");
+        }
+
+        long minTimestamp = Long.MAX_VALUE;
+        long maxTimestamp = Long.MIN_VALUE;
+        long[] ipPairs = new long[rows];
+        long[] userPairs = new long[rows];
+        for (int row = 0; row < rows; row++) {
+            long timestamp = store.timestamp(row);
+            if (timestamp != TimestampCodec.NO_TIMESTAMP) {
+                minTimestamp = Math.min(minTimestamp, timestamp);
+                maxTimestamp = Math.max(maxTimestamp, timestamp);
+            }
+            ipPairs[row] = (store.ipKey(row) << ROW_BITS) | row;
+            userPairs[row] = ((long) store.userId(row) << ROW_BITS) | row;
+        }
+        Arrays.sort(ipPairs);
+        Arrays.sort(userPairs);
+
+        int ipKeys = distinctKeys(ipPairs);
+        int userKeys = distinctKeys(userPairs);
+        byte[] sourceBytes = source.getBytes(StandardCharsets.UTF_8);
+        long size = LogSegment.HEADER_SIZE + sourceBytes.length
+            + rows * (1L + 4 + 8 + 4 + 4)
+            + dictionarySize(store, LogSegment.IP_DICTIONARY)
+            + dictionarySize(store, LogSegment.USER_DICTIONARY)
+            + dictionarySize(store, LogSegment.MESSAGE_DICTIONARY)
+            + 4 + ipKeys * 8L + (ipKeys + 1) * 4L + rows * 4L
+            + 4 + userKeys * 4L + (userKeys + 1) * 4L + rows * 4L
+            + LogSegment.FOOTER_SIZE;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segmento maior que 2 GB");
+        }
+
+        ByteBuffer out = ByteBuffer.allocate((int) size);
+        out.putInt(LogSegment.MAGIC).putInt(LogSegment.VERSION)
+            .putLong(run).putInt(sourceBytes.length).put(sourceBytes);
+
+        long rowsOffset = out.position();
+        for (int row = 0; row < rows; row++) {
+            long ip = store.ipKey(row);
+            out.put((byte) (store.type(row).ordinal()
+                | (IpCodec.isIpv4Key(ip) ? 0 : LogSegment.NON_IPV4_BIT)));
+        }
+        for (int row = 0; row < rows; row++) {
+            out.putInt((int) store.ipKey(row));
+        }
+        for (int row = 0; row < rows; row++) {
+            out.putLong(store.timestamp(row));
+        }
+        for (int row = 0; row < rows; row++) {
+            out.putInt(store.userId(row));
+        }
+        for (int row = 0; row < rows; row++) {
+            out.putInt(store.messageId(row));
+        }
+
+        long ipDictionaryOffset = out.position();
+        writeDictionary(out, store, LogSegment.IP_DICTIONARY);
+        long userDictionaryOffset = out.position();
+        writeDictionary(out, store, LogSegment.USER_DICTIONARY);
+        long messageDictionaryOffset = out.position();
+        writeDictionary(out, store, LogSegment.MESSAGE_DICTIONARY);
+
+        long ipPostingsOffset = out.position();
+        writePostings(out, ipPairs, ipKeys, true);
+        long userPostingsOffset = out.position();
+        writePostings(out, userPairs, userKeys, false);
+
+        out.putLong(minTimestamp).putLong(maxTimestamp).putInt(rows)
+            .putLong(rowsOffset).putLong(ipDictionaryOffset).putLong(userDictionaryOffset)
+            .putLong(messageDictionaryOffset).putLong(ipPostingsOffset).putLong(userPostingsOffset)
+            .putInt(LogSegment.MAGIC);
+        out.flip();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int distinctKeys(long[] pairs) {
+        int count = 0;
+        for (int i = 0; i < pairs.length; i++) {
+            if (i == 0 || (pairs[i] >>> ROW_BITS) != (pairs[i - 1] >>> ROW_BITS)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Postings: quantidade de chaves, chaves ordenadas, início de cada lista
+     * (quantidade + 1 posições) e as linhas, em ordem crescente por chave
+     */
+    private static void writePostings(ByteBuffer out, long[] pairs, int keys, boolean longKeys) {
+        out.putInt(keys);
+        for (int i = 0; i < pairs.length; i++) {
+            if (i == 0 || (pairs[i] >>> ROW_BITS) != (pairs[i - 1] >>> ROW_BITS)) {
+                if (longKeys) {
+                    out.putLong(pairs[i] >>> ROW_BITS);
+                } else {
+                    out.putInt((int) (pairs[i] >>> ROW_BITS));
+                }
+            }
+        }
+        for (int i = 0; i < pairs.length; i++) {
+            if (i == 0 || (pairs[i] >>> ROW_BITS) != (pairs[i - 1] >>> ROW_BITS)) {
+                out.putInt(i);
+            }
+        }
+        out.putInt(pairs.length);
+        for (long pair : pairs) {
+            out.putInt((int) (pair & ((1 << ROW_BITS) - 1)));
+        }
+    }
+
+    /**
+     * Dicionário: quantidade, offsets relativos (quantidade + 1) e os bytes
+     */
+    private static void writeDictionary(ByteBuffer out, LogStore store, int dictionary) {
+        int count = dictionaryCount(store, dictionary);
+        out.putInt(count);
+        int offset = 0;
+        for (int id = 0; id < count; id++) {
+            out.putInt(offset);
+            offset += entry(store, dictionary, id).length;
+        }
+        out.putInt(offset);
+        for (int id = 0; id < count; id++) {
+            out.put(entry(store, dictionary, id));
+        }
+    }
+
+    private static long dictionarySize(LogStore store, int dictionary) {
+        int count = dictionaryCount(store, dictionary);
+        long size = 4 + (count + 1) * 4L;
+        for (int id = 0; id < count; id++) {
+            size += entry(store, dictionary, id).length;
+        }
+        return size;
+    }
+
+    private static int dictionaryCount(LogStore store, int dictionary) {
+        switch (dictionary) {
+            case LogSegment.IP_DICTIONARY:
+                return store.ipDictionarySize();
+            case LogSegment.USER_DICTIONARY:
+                return store.userDictionarySize();
+            default:
+                return store.messageDictionarySize();
+        }
+    }
+
+    private static byte[] entry(LogStore store, int dictionary, int id) {
+        switch (dictionary) {
+            case LogSegment.IP_DICTIONARY:
+                return store.ipBytes(IpCodec.dictionaryKey(id));
+            case LogSegment.USER_DICTIONARY:
+                return store.userBytes(id);
+            default:
+                return store.messageBytes(id);
+        }
+    }
+}
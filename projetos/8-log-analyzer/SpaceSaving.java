@@ -0,0 +1,284 @@
+import java.util.*;
+
+/**
+ * Top-K aproximado pelo algoritmo Space-Saving (Metwally et al.)
+ * Mantém no máximo k chaves monitoradas. Uma chave nova, com a tabela
+ * cheia, toma o lugar da de menor contagem e herda essa contagem como erro.
+ *
+ * Garantias, com N = soma de todas as contagens:
+ * - count(x) - error(x) <= real(x) <= count(x)
+ * - error(x) <= N / k
+ * - toda chave com real(x) > N / k está entre as monitoradas
+ *
+ * Memória fixa: arrays de tamanho k e um índice chave → posição no heap.
+ * Cada chave monitorada pode carregar um rótulo (bytes do nome).
+ */
+public class SpaceSaving {
+    private final int capacity;
+    private final long[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private final byte[][] labels;
+    private int size;
+
+    // Índice chave → posição no heap (endereçamento aberto)
+    private final long[] indexKeys;
+    private final int[] indexSlots; // posição + 1, 0 = vazio
+    private final int indexMask;
+
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacidade inválida: " + capacity);
+        }
+        this.capacity = capacity;
+        this.keys = new long[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.labels = new byte[capacity][];
+        int indexSize = Integer.highestOneBit(capacity * 4 - 1) << 1;
+        this.indexKeys = new long[indexSize];
+        this.indexSlots = new int[indexSize];
+        this.indexMask = indexSize - 1;
+    }
+
+    public void offer(long key, long delta) {
+        offer(key, delta, null);
+    }
+
+    /**
+     * Soma delta à chave, substituindo a menor se necessário
+     * @param label rótulo guardado se a chave passar a ser monitorada
+     * @return contagem atual da chave (limite superior)
+     */
+    public long offer(long key, long delta, byte[] label) {
+        int position = find(key);
+        if (position >= 0) {
+            long count = counts[position] += delta;
+            siftDown(position);
+            return count;
+        } else if (size < capacity) {
+            keys[size] = key;
+            counts[size] = delta;
+            errors[size] = 0;
+            labels[size] = label;
+            indexPut(key, size);
+            siftUp(size++);
+            return delta;
+        } else {
+            // Substitui a raiz (menor contagem)
+            indexRemove(keys[0]);
+            long min = counts[0];
+            keys[0] = key;
+            errors[0] = min;
+            counts[0] = min + delta;
+            labels[0] = label;
+            indexPut(key, 0);
+            siftDown(0);
+            return min + delta;
+        }
+    }
+
+    /**
+     * Contagem (limite superior) de uma chave monitorada, ou 0
+     */
+    public long count(long key) {
+        int position = find(key);
+        return position >= 0 ? counts[position] : 0;
+    }
+
+    /**
+     * Mescla outro Space-Saving (mesma regra do algoritmo paralelo de
+     * Agarwal et al.): chaves ausentes de um lado contam com o mínimo
+     * daquele lado, se ele estiver cheio
+     */
+    public void merge(SpaceSaving other) {
+        long minThis = size == capacity ? counts[0] : 0;
+        long minOther = other.size == other.capacity ? other.counts[0] : 0;
+
+        Map<Long, Entry> union = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            union.put(keys[i], new Entry(keys[i], counts[i] + minOther, errors[i] + minOther, labels[i]));
+        }
+        for (int i = 0; i < other.size; i++) {
+            Entry mine = union.get(other.keys[i]);
+            if (mine == null) {
+                union.put(other.keys[i], new Entry(other.keys[i], other.counts[i] + minThis,
+                    other.errors[i] + minThis, other.labels[i]));
+            } else {
+                union.put(other.keys[i], new Entry(other.keys[i],
+                    mine.count + other.counts[i] - minOther,
+                    mine.error + other.errors[i] - minOther,
+                    mine.label != null ? mine.label : other.labels[i]));
+            }
+        }
+
+        List<Entry> entries = new ArrayList<>(union.values());
+        entries.sort((a, b) -> Long.compare(b.count, a.count));
+
+        Arrays.fill(indexSlots, 0);
+        Arrays.fill(labels, null);
+        size = 0;
+        for (Entry e : entries) {
+            if (size == capacity) {
+                break;
+            }
+            keys[size] = e.key;
+            counts[size] = e.count;
+            errors[size] = e.error;
+            labels[size] = e.label;
+            indexPut(keys[size], size);
+            siftUp(size++);
+        }
+    }
+
+    /**
+     * Chaves monitoradas, da maior para a menor contagem
+     */
+    public List<Entry> top() {
+        List<Entry> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(new Entry(keys[i], counts[i], errors[i], labels[i]));
+        }
+        result.sort((a, b) -> Long.compare(b.count, a.count));
+        return result;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getMemoryBytes() {
+        return capacity * 32L + indexKeys.length * 12L;
+    }
+
+    // ==================== HEAP ====================
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (counts[parent] <= counts[position]) {
+                break;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == position) {
+                return;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        long count = counts[a];
+        counts[a] = counts[b];
+        counts[b] = count;
+        long error = errors[a];
+        errors[a] = errors[b];
+        errors[b] = error;
+        byte[] label = labels[a];
+        labels[a] = labels[b];
+        labels[b] = label;
+        indexPut(keys[a], a);
+        indexPut(keys[b], b);
+    }
+
+    // ==================== ÍNDICE ====================
+
+    private int find(long key) {
+        for (int slot = indexSlot(key); indexSlots[slot] != 0; slot = (slot + 1) & indexMask) {
+            if (indexKeys[slot] == key) {
+                return indexSlots[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    private void indexPut(long key, int position) {
+        int slot = indexSlot(key);
+        while (indexSlots[slot] != 0 && indexKeys[slot] != key) {
+            slot = (slot + 1) & indexMask;
+        }
+        indexKeys[slot] = key;
+        indexSlots[slot] = position + 1;
+    }
+
+    /**
+     * Remoção com deslocamento para trás (mantém a sondagem linear válida)
+     */
+    private void indexRemove(long key) {
+        int slot = indexSlot(key);
+        while (indexKeys[slot] != key) {
+            slot = (slot + 1) & indexMask;
+        }
+        int hole = slot;
+        for (int next = (hole + 1) & indexMask; indexSlots[next] != 0; next = (next + 1) & indexMask) {
+            int home = indexSlot(indexKeys[next]);
+            // next pode ir para o buraco se home não estiver entre (hole, next]
+            boolean movable = hole <= next
+                ? home <= hole || home > next
+                : home <= hole && home > next;
+            if (movable) {
+                indexKeys[hole] = indexKeys[next];
+                indexSlots[hole] = indexSlots[next];
+                hole = next;
+            }
+        }
+        indexSlots[hole] = 0;
+    }
+
+    private int indexSlot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & indexMask;
+    }
+
+    /**
+     * Chave monitorada: contagem (limite superior) e erro máximo
+     */
+    public static class Entry {
+        private final long key;
+        private final long count;
+        private final long error;
+        private final byte[] label;
+
+        Entry(long key, long count, long error, byte[] label) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+            this.label = label;
+        }
+
+        public long getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+
+        public byte[] getLabel() {
+            return label;
+        }
+    }
+}
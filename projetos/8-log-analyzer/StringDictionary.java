@@ -0,0 +1,111 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Dicionário de strings para codificação por id
+ * Cada valor distinto (em bytes UTF-8) recebe um id sequencial; procurar um
+ * valor já conhecido não aloca nada. A String só é criada na primeira vez
+ * que o id é decodificado.
+ *
+ * Não é thread-safe: cada worker usa o seu e os ids são remapeados no merge.
+ */
+public class StringDictionary {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private byte[][] values;
+    private int[] hashes;
+    private String[] strings;
+    private int[] table; // id + 1, 0 = vazio
+    private int size;
+
+    public StringDictionary() {
+        clear();
+    }
+
+    /**
+     * Retorna o id de buffer[offset, offset + length), criando se necessário
+     */
+    public int intern(byte[] buffer, int offset, int length) {
+        int hash = hash(buffer, offset, length);
+        int mask = table.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int id = table[slot] - 1;
+            if (id < 0) {
+                return insert(slot, hash, Arrays.copyOfRange(buffer, offset, offset + length));
+            }
+            if (hashes[id] == hash
+                    && Arrays.equals(values[id], 0, values[id].length, buffer, offset, offset + length)) {
+                return id;
+            }
+        }
+    }
+
+    public int intern(byte[] value) {
+        return intern(value, 0, value.length);
+    }
+
+    public int intern(String value) {
+        return intern(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private int insert(int slot, int hash, byte[] value) {
+        int id = size++;
+        if (id == values.length) {
+            values = Arrays.copyOf(values, id * 2);
+            hashes = Arrays.copyOf(hashes, id * 2);
+            strings = Arrays.copyOf(strings, id * 2);
+        }
+        values[id] = value;
+        hashes[id] = hash;
+        table[slot] = id + 1;
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private void rehash() {
+        table = new int[table.length * 2];
+        int mask = table.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id + 1;
+        }
+    }
+
+    private static int hash(byte[] buffer, int offset, int length) {
+        int h = 1;
+        for (int i = offset; i < offset + length; i++) {
+            h = 31 * h + buffer[i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    public String get(int id) {
+        String value = strings[id];
+        if (value == null) {
+            value = new String(values[id], StandardCharsets.UTF_8);
+            strings[id] = value;
+        }
+        return value;
+    }
+
+    public byte[] bytes(int id) {
+        return values[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        values = new byte[INITIAL_CAPACITY][];
+        hashes = new int[INITIAL_CAPACITY];
+        strings = new String[INITIAL_CAPACITY];
+        table = new int[INITIAL_CAPACITY * 2];
+        size = 0;
+    }
+}
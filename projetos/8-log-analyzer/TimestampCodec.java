@@ -0,0 +1,74 @@
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Conversão do timestamp "yyyy-MM-dd HH:mm:ss" para segundos desde a época
+ * Os logs não trazem fuso, então o horário local é tratado como se fosse
+ * UTC: o valor só serve para ordenar, medir intervalos e reformatar.
+ */
+public final class TimestampCodec {
+    public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private static final int LENGTH = 19;
+    private static final DateTimeFormatter FORMATTER =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private TimestampCodec() {
+    }
+
+    /**
+     * Parse direto dos bytes, sem alocação
+     * @return NO_TIMESTAMP se o campo não estiver no formato esperado
+     */
+    public static long parse(byte[] buffer, int offset, int length) {
+        if (length != LENGTH
+                || buffer[offset + 4] != '-' || buffer[offset + 7] != '-'
+                || buffer[offset + 10] != ' '
+                || buffer[offset + 13] != ':' || buffer[offset + 16] != ':') {
+            return NO_TIMESTAMP;
+        }
+        int year = digits(buffer, offset, 4);
+        int month = digits(buffer, offset + 5, 2);
+        int day = digits(buffer, offset + 8, 2);
+        int hour = digits(buffer, offset + 11, 2);
+        int minute = digits(buffer, offset + 14, 2);
+        int second = digits(buffer, offset + 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return NO_TIMESTAMP;
+        }
+        return epochDay(year, month, day) * 86400L + hour * 3600L + minute * 60L + second;
+    }
+
+    private static int digits(byte[] buffer, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Dias desde 1970-01-01 no calendário gregoriano proléptico
+     */
+    private static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    public static String format(long epochSeconds) {
+        if (epochSeconds == NO_TIMESTAMP) {
+            return "?";
+        }
+        return LocalDateTime.ofEpochSecond(epochSeconds, 0, ZoneOffset.UTC).format(FORMATTER);
+    }
+}
@@ -0,0 +1,162 @@
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Benchmark do parsing de linhas: regex x LogLineTokenizer
+ *
+ * Compara três caminhos sobre as mesmas linhas em memória:
+ * - regex compilado a cada linha (comportamento antigo do parseLogLine)
+ * - regex pré-compilado (LogAnalyzer.parseLogLine atual)
+ * - tokenizador de bytes, criando Strings só para IP e usuário das falhas
+ *
+ * Antes de medir, confere que o tokenizador aceita/rejeita as mesmas
+ * linhas e extrai os mesmos campos que o regex.
+ *
+ * Como executar:
+ * javac *.java
+ * java TokenizerBenchmark [linhas] [rodadas]
+ */
+public class TokenizerBenchmark {
+    private static final String REGEX =
+        "\\[(.*?)\\]\\s\\[(.*?)\\]\\s\\[(.*?)\\]\\s\\[(.*?)\\]\\s(.*)";
+    private static final byte[] FALHA = "FALHA".getBytes(StandardCharsets.US_ASCII);
+
+    public static void main(String[] args) {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        String[] text = generateLines(lines);
+        byte[][] bytes = new byte[text.length][];
+        for (int i = 0; i < text.length; i++) {
+            bytes[i] = text[i].getBytes(StandardCharsets.UTF_8);
+        }
+
+        checkEquivalence();
+        checkEquivalence(text, bytes);
+
+        System.out.printf("📊 %d linhas x %d rodadas%n", lines, rounds);
+        measure("regex compilado por linha", rounds, lines, () -> regexPerLine(text));
+        measure("regex pré-compilado", rounds, lines, () -> regexPrecompiled(text));
+        measure("tokenizador de bytes", rounds, lines, () -> tokenizer(bytes));
+    }
+
+    private static long regexPerLine(String[] text) {
+        long failures = 0;
+        for (String line : text) {
+            Matcher matcher = Pattern.compile(REGEX).matcher(line);
+            if (matcher.find() && "FALHA".equals(matcher.group(2))) {
+                failures += matcher.group(3).length() + matcher.group(4).length();
+            }
+        }
+        return failures;
+    }
+
+    private static long regexPrecompiled(String[] text) {
+        long failures = 0;
+        for (String line : text) {
+            LogAnalyzer.LogEntry entry = LogAnalyzer.parseLogLine(line);
+            if (entry != null && "FALHA".equals(entry.tipo)) {
+                failures += entry.ip.length() + entry.usuario.length();
+            }
+        }
+        return failures;
+    }
+
+    private static long tokenizer(byte[][] bytes) {
+        LogLineTokenizer tokenizer = new LogLineTokenizer();
+        long failures = 0;
+        for (byte[] line : bytes) {
+            if (tokenizer.tokenize(line, 0, line.length)
+                    && tokenizer.fieldEquals(LogLineTokenizer.TIPO, FALHA)) {
+                failures += tokenizer.field(LogLineTokenizer.IP).length()
+                    + tokenizer.field(LogLineTokenizer.USUARIO).length();
+            }
+        }
+        return failures;
+    }
+
+    private static void measure(String name, int rounds, int lines, LongSupplierTask task) {
+        long sink = 0;
+        for (int i = 0; i < rounds; i++) { // aquecimento do JIT
+            sink += task.run();
+        }
+        long begin = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += task.run();
+        }
+        double nsPerLine = (System.nanoTime() - begin) / (double) rounds / lines;
+        System.out.printf("  %-28s %8.1f ns/linha  (checksum %d)%n", name, nsPerLine, sink);
+    }
+
+    private interface LongSupplierTask {
+        long run();
+    }
+
+    /**
+     * Linhas no formato real, mais algumas malformadas
+     */
+    private static String[] generateLines(int count) {
+        String[] tipos = {"SUCESSO", "FALHA", "BLOQUEADO"};
+        String[] usuarios = {"admin", "user1", "user2", "guest"};
+        Random rand = new Random(42);
+        String[] lines = new String[count];
+        for (int i = 0; i < count; i++) {
+            if (i % 100 == 99) {
+                lines[i] = "linha sem formato " + i;
+                continue;
+            }
+            lines[i] = String.format("[2026-01-%02d %02d:%02d:%02d] [%s] [10.%d.%d.%d] [%s] Mensagem %d",
+                1 + rand.nextInt(28), rand.nextInt(24), rand.nextInt(60), rand.nextInt(60),
+                tipos[rand.nextInt(tipos.length)],
+                rand.nextInt(256), rand.nextInt(256), rand.nextInt(256),
+                usuarios[rand.nextInt(usuarios.length)], i);
+        }
+        return lines;
+    }
+
+    /**
+     * Casos de borda do regex preguiçoso
+     */
+    private static void checkEquivalence() {
+        String[] tricky = {
+            "[a] [b] [c] [d] msg",
+            "lixo antes [a] [b] [c] [d] msg",
+            "[a]] [b] [c] [d] ",
+            "[a] x] [b] [c] [d] msg",
+            "[a] [b [c] [d] [e] msg",
+            "[a] [b] [c] [d]",
+            "[a][b] [c] [d] msg",
+            "[] [] [] [] ",
+            "[[a] [b] [c] [d] msg",
+            "[a]\t[b]\t[c]\t[d]\tmsg",
+            ""
+        };
+        String[] text = tricky;
+        byte[][] bytes = new byte[text.length][];
+        for (int i = 0; i < text.length; i++) {
+            bytes[i] = text[i].getBytes(StandardCharsets.UTF_8);
+        }
+        checkEquivalence(text, bytes);
+    }
+
+    private static void checkEquivalence(String[] text, byte[][] bytes) {
+        LogLineTokenizer tokenizer = new LogLineTokenizer();
+        for (int i = 0; i < text.length; i++) {
+            LogAnalyzer.LogEntry expected = LogAnalyzer.parseLogLine(text[i]);
+            boolean matched = tokenizer.tokenize(bytes[i], 0, bytes[i].length);
+            boolean same = expected == null
+                ? !matched
+                : matched
+                    && expected.timestamp.equals(tokenizer.field(LogLineTokenizer.TIMESTAMP))
+                    && expected.tipo.equals(tokenizer.field(LogLineTokenizer.TIPO))
+                    && expected.ip.equals(tokenizer.field(LogLineTokenizer.IP))
+                    && expected.usuario.equals(tokenizer.field(LogLineTokenizer.USUARIO))
+                    && expected.mensagem.equals(tokenizer.field(LogLineTokenizer.MENSAGEM));
+            if (!same) {
+                throw new IllegalStateException("Tokenizador diverge do regex em: " + text[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+import java.util.SplittableRandom;
+
+/**
+ * Amostragem de uma distribuição de Zipf sobre 1..n
+ * P(k) proporcional a 1 / k^skew: poucos valores concentram a maior parte
+ * das amostras (IPs e usuários de logs reais se comportam assim).
+ *
+ * Usa rejection-inversion (Hörmann e Derflinger, 1996): custo O(1) por
+ * amostra e memória constante, sem tabela de probabilidades, então n pode
+ * ter dezenas de milhões de valores. skew = 0 vira distribuição uniforme.
+ */
+public class ZipfSampler {
+    private final long n;
+    private final double skew;
+    private final double hIntegralX1;
+    private final double hIntegralN;
+    private final double s;
+
+    /**
+     * @param n quantidade de valores (1..n)
+     * @param skew expoente (0 = uniforme; ~1 = típico de tráfego real)
+     */
+    public ZipfSampler(long n, double skew) {
+        if (n <= 0 || skew < 0 || Double.isNaN(skew)) {
+            throw new IllegalArgumentException("Zipf inválido: n=" + n + ", skew=" + skew);
+        }
+        this.n = n;
+        this.skew = skew;
+        this.hIntegralX1 = hIntegral(1.5) - 1;
+        this.hIntegralN = hIntegral(n + 0.5);
+        this.s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+    }
+
+    /**
+     * @return valor em 1..n (1 é o mais frequente)
+     */
+    public long sample(SplittableRandom random) {
+        if (skew == 0) {
+            return 1 + random.nextLong(n);
+        }
+        while (true) {
+            double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+            double x = hIntegralInverse(u);
+            long k = (long) (x + 0.5);
+            if (k < 1) {
+                k = 1;
+            } else if (k > n) {
+                k = n;
+            }
+            if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                return k;
+            }
+        }
+    }
+
+    public long getN() {
+        return n;
+    }
+
+    public double getSkew() {
+        return skew;
+    }
+
+    // H(x): integral de h(x) = x^-skew, com os casos skew ~ 1 tratados por série
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return expm1OverX((1 - skew) * logX) * logX;
+    }
+
+    private double h(double x) {
+        return Math.exp(-skew * Math.log(x));
+    }
+
+    private double hIntegralInverse(double x) {
+        double t = x * (1 - skew);
+        if (t < -1) {
+            t = -1; // erro de arredondamento perto do limite
+        }
+        return Math.exp(log1pOverX(t) * x);
+    }
+
+    private static double log1pOverX(double x) {
+        if (Math.abs(x) > 1e-8) {
+            return Math.log1p(x) / x;
+        }
+        return 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+    }
+
+    private static double expm1OverX(double x) {
+        if (Math.abs(x) > 1e-8) {
+            return Math.expm1(x) / x;
+        }
+        return 1 + x * 0.5 * (1 + x / 3 * (1 + 0.25 * x));
+    }
+}
@@ -349,12 +349,4 @@ public class TaskManager {
     private boolean userExists(int id) {
         return users.stream().anyMatch(u -> u.getId() == id);
     }
-
-    private void showWelcome() {
-        System.out.println("\n" +
-                "╔════════════════════════════════════════╗\n" +
-                "║   📋 GERENCIADOR DE TAREFAS            ║\n" +
-                "║   Com Controle de Acesso por Papel     ║\n" +
-                "╚════════════════════════════════════════╝\n");
-    }
 }
@@ -0,0 +1,118 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * 8-log-analyzer: contagem de falhas por IP e por usuário
+ *
+ * - hashMapIps/hashMapUsers: o caminho antigo, HashMap<String, Long> com
+ *   put(chave, getOrDefault(chave, 0) + 1) sobre o texto da linha
+ * - ipCounter/intLongCounter: os contadores primitivos sobre as chaves
+ *   já codificadas pelo LogStore (IPv4 empacotado e id do dicionário)
+ *
+ * Os contadores já recebem todas as chaves no setup, como num log grande
+ * em que os IPs/usuários se repetem: cada chamada conta EVENTS eventos sem
+ * crescer a tabela. Rode com -prof gc para ver a alocação por evento
+ * (gc.alloc.rate.norm já vem dividido por EVENTS).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CounterBenchmark {
+    private static final ProjectClassLoader PROJECT = new ProjectClassLoader("log-analyzer");
+
+    private static final MethodHandle IPV4_KEY = PROJECT.method("IpCodec", "ipv4Key", int.class);
+    private static final MethodHandle NEW_IP_COUNTER = PROJECT.constructor("IpCounter");
+    private static final MethodHandle IP_INCREMENT = PROJECT.method("IpCounter", "increment", long.class);
+    private static final MethodHandle IP_SIZE = PROJECT.method("IpCounter", "size");
+    private static final MethodHandle NEW_INT_COUNTER = PROJECT.constructor("IntLongCounter");
+    private static final MethodHandle INT_INCREMENT =
+        PROJECT.method("IntLongCounter", "increment", int.class);
+    private static final MethodHandle INT_SIZE = PROJECT.method("IntLongCounter", "size");
+
+    private static final int EVENTS = 65536;
+
+    @Param({"1000", "50000"})
+    public int distinct;
+
+    private String[] ips;
+    private String[] users;
+    private long[] ipKeys;
+    private int[] userIds;
+    private Map<String, Long> ipMap;
+    private Map<String, Long> userMap;
+    private Object ipCounter;
+    private Object userCounter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        // Poucos IPs/usuários concentram a maior parte das falhas, como num ataque
+        Random random = new Random(42);
+        ips = new String[EVENTS];
+        users = new String[EVENTS];
+        ipKeys = new long[EVENTS];
+        userIds = new int[EVENTS];
+        for (int i = 0; i < EVENTS; i++) {
+            int rank = (int) (distinct * Math.pow(random.nextDouble(), 3));
+            int packed = 0x0A000000 | rank;
+            ips[i] = "10." + (rank >>> 16 & 0xFF) + "." + (rank >>> 8 & 0xFF) + "." + (rank & 0xFF);
+            users[i] = "user" + rank;
+            ipKeys[i] = (long) IPV4_KEY.invokeExact(packed);
+            userIds[i] = rank;
+        }
+        ipMap = new HashMap<>();
+        userMap = new HashMap<>();
+        ipCounter = (Object) NEW_IP_COUNTER.invokeExact();
+        userCounter = (Object) NEW_INT_COUNTER.invokeExact();
+        hashMapIps();
+        hashMapUsers();
+        ipCounter();
+        intLongCounter();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public int hashMapIps() {
+        return count(ipMap, ips);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public int ipCounter() throws Throwable {
+        for (long key : ipKeys) {
+            long count = (long) IP_INCREMENT.invokeExact(ipCounter, key);
+        }
+        return (int) IP_SIZE.invokeExact(ipCounter);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public int hashMapUsers() {
+        return count(userMap, users);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public int intLongCounter() throws Throwable {
+        for (int id : userIds) {
+            long count = (long) INT_INCREMENT.invokeExact(userCounter, id);
+        }
+        return (int) INT_SIZE.invokeExact(userCounter);
+    }
+
+    private static int count(Map<String, Long> counts, String[] keys) {
+        for (String key : keys) {
+            counts.put(key, counts.getOrDefault(key, 0L) + 1);
+        }
+        return counts.size();
+    }
+}
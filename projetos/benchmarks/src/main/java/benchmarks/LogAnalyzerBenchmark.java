@@ -0,0 +1,147 @@
+package benchmarks;
+
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * 8-log-analyzer: parsing de linha e montagem/exibição do relatório
+ *
+ * - parseLogLine: o parser de referência por regex (LogAnalyzer.parseLogLine)
+ * - tokenize: o tokenizador de bytes usado na leitura dos arquivos
+ * - analyze: agregação de um LogStore em memória até o LogReport
+ * - report: analyzeAndReport, com a saída do console descartada
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LogAnalyzerBenchmark {
+    private static final ProjectClassLoader PROJECT = new ProjectClassLoader("log-analyzer");
+    private static final Class<?> TOKENIZER = PROJECT.type("LogLineTokenizer");
+    private static final Class<?> STORE = PROJECT.type("LogStore");
+    private static final Class<?> DETECTOR = PROJECT.type("BruteForceDetector");
+
+    private static final MethodHandle PARSE_LOG_LINE =
+        PROJECT.method("LogAnalyzer", "parseLogLine", String.class);
+    private static final MethodHandle NEW_TOKENIZER = PROJECT.constructor("LogLineTokenizer");
+    private static final MethodHandle TOKENIZE =
+        PROJECT.method("LogLineTokenizer", "tokenize", byte[].class, int.class, int.class);
+    private static final MethodHandle NEW_STORE = PROJECT.constructor("LogStore");
+    private static final MethodHandle APPEND = PROJECT.method("LogStore", "append", TOKENIZER);
+    private static final MethodHandle NEW_DETECTOR = PROJECT.constructor("BruteForceDetector");
+    private static final MethodHandle ANALYZE =
+        PROJECT.method("LogAggregator", "analyze", STORE, DETECTOR);
+    private static final MethodHandle NEW_AGGREGATOR =
+        PROJECT.constructor("LogAggregator", STORE, DETECTOR);
+    private static final MethodHandle ACCEPT_ALL = PROJECT.method("LogAggregator", "acceptAll", STORE);
+    private static final MethodHandle FINISH = PROJECT.method("LogAggregator", "finish");
+    private static final MethodHandle NEW_ANALYZER =
+        PROJECT.constructor("LogAnalyzer", java.nio.file.Path.class, DETECTOR);
+    private static final MethodHandle SET_AGGREGATOR = PROJECT.fieldSetter("LogAnalyzer", "aggregator");
+    private static final MethodHandle ANALYZE_AND_REPORT = PROJECT.method("LogAnalyzer", "analyzeAndReport");
+
+    private static final int SAMPLE_LINES = 1024; // potência de 2 (máscara)
+
+    @Param({"10000", "100000"})
+    public int events;
+
+    private String[] lines;
+    private byte[][] lineBytes;
+    private Object tokenizer;
+    private Object store;
+    private Object analyzer;
+    private PrintStream console;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        lines = SampleLogs.lines(SAMPLE_LINES, 42);
+        lineBytes = new byte[SAMPLE_LINES][];
+        for (int i = 0; i < SAMPLE_LINES; i++) {
+            lineBytes[i] = lines[i].getBytes(StandardCharsets.UTF_8);
+        }
+        tokenizer = (Object) NEW_TOKENIZER.invokeExact();
+
+        // Dataset do relatório: events linhas num LogStore em memória
+        store = (Object) NEW_STORE.invokeExact();
+        Object loader = (Object) NEW_TOKENIZER.invokeExact();
+        for (String line : SampleLogs.lines(events, 7)) {
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            if ((boolean) TOKENIZE.invokeExact(loader, (Object) bytes, 0, bytes.length)) {
+                int row = (int) APPEND.invokeExact(store, loader);
+            }
+        }
+
+        Object detector = (Object) NEW_DETECTOR.invokeExact();
+        Object aggregator = (Object) NEW_AGGREGATOR.invokeExact(store, detector);
+        ACCEPT_ALL.invokeExact(aggregator, store);
+        FINISH.invokeExact(aggregator);
+        analyzer = (Object) NEW_ANALYZER.invokeExact((Object) Paths.get("bench.log"),
+            (Object) NEW_DETECTOR.invokeExact());
+        SET_AGGREGATOR.invoke(analyzer, aggregator);
+
+        console = System.out;
+        System.setOut(ProjectClassLoader.nullOutput());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public Object parseLogLine() throws Throwable {
+        return (Object) PARSE_LOG_LINE.invokeExact((Object) lines[next++ & (SAMPLE_LINES - 1)]);
+    }
+
+    @Benchmark
+    public boolean tokenize() throws Throwable {
+        byte[] line = lineBytes[next++ & (SAMPLE_LINES - 1)];
+        return (boolean) TOKENIZE.invokeExact(tokenizer, (Object) line, 0, line.length);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object analyze() throws Throwable {
+        return (Object) ANALYZE.invokeExact(store, (Object) NEW_DETECTOR.invokeExact());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void report() throws Throwable {
+        ANALYZE_AND_REPORT.invokeExact(analyzer);
+    }
+
+    /**
+     * Linhas sintéticas no formato do LogAnalyzer, com IPs e usuários
+     * repetidos como num log real
+     */
+    static final class SampleLogs {
+        private static final String[] TYPES = {"SUCESSO", "FALHA", "FALHA", "BLOQUEADO"};
+
+        private SampleLogs() {
+        }
+
+        static String[] lines(int count, long seed) {
+            Random random = new Random(seed);
+            String[] lines = new String[count];
+            for (int i = 0; i < count; i++) {
+                int second = i / 10;
+                lines[i] = String.format("[2026-10-17 %02d:%02d:%02d] [%s] [10.0.%d.%d] [user%d] %s",
+                    (second / 3600) % 24, (second / 60) % 60, second % 60,
+                    TYPES[random.nextInt(TYPES.length)],
+                    random.nextInt(4), random.nextInt(50), random.nextInt(40),
+                    "Tentativa de login via SSH");
+            }
+            return lines;
+        }
+    }
+}
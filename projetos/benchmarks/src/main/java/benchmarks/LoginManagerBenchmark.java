@@ -0,0 +1,88 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * 1-login-system: LoginManager.login
+ *
+ * - success: senha correta (hash no pool de verificação + log)
+ * - wrongPassword: senha errada num usuário que nunca chega ao bloqueio
+ * - lockedOut: usuário já bloqueado (sai antes do hash)
+ *
+ * Cada iteração usa um LoginManager novo, com o AuditLog num arquivo
+ * temporário (sem eco no console). No fim da iteração o manager é fechado,
+ * o que fecha o arquivo, e só então o arquivo é apagado: apagar um arquivo
+ * ainda aberto só tiraria o nome, e o log continuaria crescendo no disco.
+ * O PBKDF2 roda com poucas iterações para o tempo medido ser o do
+ * LoginManager, não o do hash.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoginManagerBenchmark {
+    private static final ProjectClassLoader PROJECT = new ProjectClassLoader("login-system");
+    private static final Class<?> AUDIT_LOG = PROJECT.type("AuditLog");
+    private static final MethodHandle NEW_AUDIT_LOG = PROJECT.constructor("AuditLog", Path.class);
+    private static final MethodHandle NEW_LOGIN_MANAGER =
+        PROJECT.constructor("LoginManager", AUDIT_LOG, boolean.class);
+    private static final MethodHandle REGISTER =
+        PROJECT.method("LoginManager", "register", String.class, String.class, String.class);
+    private static final MethodHandle LOGIN =
+        PROJECT.method("LoginManager", "login", String.class, String.class);
+    private static final MethodHandle CLOSE = PROJECT.method("LoginManager", "close");
+    private static final MethodHandle SET_PASSWORD_HASHER =
+        PROJECT.method("LoginManager", "setPasswordHasher", PROJECT.type("PasswordHasher"));
+    private static final MethodHandle NEW_PBKDF2_HASHER = PROJECT.constructor("Pbkdf2Hasher", int.class);
+    private static final int PBKDF2_ITERATIONS = 1000;
+
+    private Path logFile;
+    private Object manager;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Throwable {
+        logFile = Files.createTempFile("login-manager-benchmark", ".log");
+        manager = (Object) NEW_LOGIN_MANAGER.invokeExact((Object) NEW_AUDIT_LOG.invokeExact((Object) logFile), false);
+        SET_PASSWORD_HASHER.invokeExact(manager, (Object) NEW_PBKDF2_HASHER.invokeExact(PBKDF2_ITERATIONS));
+        boolean registered = (boolean) REGISTER.invokeExact(manager,
+            (Object) "alice", (Object) "alice@exemplo.com", (Object) "senha-forte-123");
+        registered &= (boolean) REGISTER.invokeExact(manager,
+            (Object) "mallory", (Object) "mallory@exemplo.com", (Object) "senha-forte-456");
+        if (!registered) {
+            throw new IllegalStateException("Cadastro dos usuários do benchmark falhou");
+        }
+        for (int i = 0; i < 3; i++) {
+            boolean ok = (boolean) LOGIN.invokeExact(manager, (Object) "mallory", (Object) "errada");
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws Throwable {
+        CLOSE.invokeExact(manager);
+        Files.deleteIfExists(logFile);
+    }
+
+    @Benchmark
+    public boolean success() throws Throwable {
+        return (boolean) LOGIN.invokeExact(manager, (Object) "alice", (Object) "senha-forte-123");
+    }
+
+    @Benchmark
+    public boolean wrongPassword() throws Throwable {
+        // Um acerto antes zera o contador, então o usuário nunca é bloqueado
+        boolean ok = (boolean) LOGIN.invokeExact(manager, (Object) "alice", (Object) "senha-forte-123");
+        return (boolean) LOGIN.invokeExact(manager, (Object) "alice", (Object) "errada") | ok;
+    }
+
+    @Benchmark
+    public boolean lockedOut() throws Throwable {
+        return (boolean) LOGIN.invokeExact(manager, (Object) "mallory", (Object) "senha-forte-456");
+    }
+}
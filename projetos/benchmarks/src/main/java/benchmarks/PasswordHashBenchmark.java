@@ -0,0 +1,92 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Hash de senha:
+ * - 1-login-system: Sha256Hasher (formato antigo, SHA-256 com sal),
+ *   Pbkdf2Hasher com poucas iterações (o custo cresce linearmente) e
+ *   HashUtils.sha256Base64
+ * - 3-password-manager: PasswordManager.hashPassword (hexadecimal)
+ * - legacyHex/legacyBase64: o código anterior ao HashUtils (getInstance,
+ *   getBytes e Integer.toHexString/Base64 a cada chamada), como referência
+ *
+ * Com -prof gc, gc.alloc.rate.norm mostra os bytes alocados por chamada.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordHashBenchmark {
+    private static final ProjectClassLoader LOGIN_SYSTEM = new ProjectClassLoader("login-system");
+    private static final MethodHandle NEW_SHA256_HASHER = LOGIN_SYSTEM.constructor("Sha256Hasher");
+    private static final MethodHandle NEW_PBKDF2_HASHER = LOGIN_SYSTEM.constructor("Pbkdf2Hasher", int.class);
+    private static final MethodHandle SHA256_HASH =
+        LOGIN_SYSTEM.method("Sha256Hasher", "hash", String.class, byte[].class, int.class);
+    private static final MethodHandle PBKDF2_HASH =
+        LOGIN_SYSTEM.method("Pbkdf2Hasher", "hash", String.class, byte[].class, int.class);
+    private static final int PBKDF2_ITERATIONS = 1000;
+    private static final MethodHandle SHA256_BASE64 = LOGIN_SYSTEM.method("HashUtils", "sha256Base64", String.class);
+    private static final MethodHandle PASSWORD_MANAGER_HASH = new ProjectClassLoader("password-manager")
+        .method("PasswordManager", "hashPassword", String.class);
+
+    @Param({"senha1", "uma-senha-bem-mais-longa-com-64-caracteres-para-medir-o-digest!"})
+    public String password;
+
+    private final Object salt = new byte[16];
+    private Object sha256;
+    private Object pbkdf2;
+
+    @Setup
+    public void setUp() throws Throwable {
+        sha256 = (Object) NEW_SHA256_HASHER.invokeExact();
+        pbkdf2 = (Object) NEW_PBKDF2_HASHER.invokeExact(PBKDF2_ITERATIONS);
+    }
+
+    @Benchmark
+    public Object loginSystemSha256() throws Throwable {
+        return (Object) SHA256_HASH.invokeExact(sha256, (Object) password, salt, 1);
+    }
+
+    @Benchmark
+    public Object loginSystemPbkdf2() throws Throwable {
+        return (Object) PBKDF2_HASH.invokeExact(pbkdf2, (Object) password, salt, PBKDF2_ITERATIONS);
+    }
+
+    @Benchmark
+    public Object loginSystemSha256Base64() throws Throwable {
+        return (Object) SHA256_BASE64.invokeExact((Object) password);
+    }
+
+    @Benchmark
+    public Object passwordManagerHash() throws Throwable {
+        return (Object) PASSWORD_MANAGER_HASH.invokeExact((Object) password);
+    }
+
+    @Benchmark
+    public String legacyHex() throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] hash = digest.digest(password.getBytes());
+        StringBuilder hexString = new StringBuilder();
+        for (byte b : hash) {
+            String hex = Integer.toHexString(0xff & b);
+            if (hex.length() == 1) hexString.append('0');
+            hexString.append(hex);
+        }
+        return hexString.toString();
+    }
+
+    @Benchmark
+    public String legacyBase64() throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] hash = digest.digest(password.getBytes());
+        return Base64.getEncoder().encodeToString(hash);
+    }
+}
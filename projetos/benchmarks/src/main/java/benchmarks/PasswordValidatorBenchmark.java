@@ -0,0 +1,36 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * 2-safe-simulator: classificação de força e entropia de senha
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordValidatorBenchmark {
+    private static final ProjectClassLoader PROJECT = new ProjectClassLoader("safe-simulator");
+    private static final MethodHandle VALIDATE_PASSWORD =
+        PROJECT.method("PasswordValidator", "validatePassword", String.class);
+    private static final MethodHandle CALCULATE_ENTROPY =
+        PROJECT.method("PasswordValidator", "calculateEntropy", String.class);
+
+    @Param({"123456", "Senha123", "c0rr3t0-C4v4l0-B4t3r1a!"})
+    public String password;
+
+    @Benchmark
+    public Object validatePassword() throws Throwable {
+        return (Object) VALIDATE_PASSWORD.invokeExact((Object) password);
+    }
+
+    @Benchmark
+    public double calculateEntropy() throws Throwable {
+        return (double) CALCULATE_ENTROPY.invokeExact((Object) password);
+    }
+}
@@ -0,0 +1,114 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Carrega as classes de um projeto (pacote padrão) copiadas pelo build
+ * para projects/<nome>/ no classpath dos benchmarks
+ *
+ * Cada projeto ganha seu próprio loader, então as duas classes User
+ * (1-login-system e 9-task-manager) não se misturam. Os métodos são
+ * acessados por MethodHandle; guardados em campos static final, o JIT os
+ * trata como constantes e a chamada custa o mesmo que uma chamada direta.
+ */
+public final class ProjectClassLoader extends ClassLoader {
+    private final String project;
+
+    public ProjectClassLoader(String project) {
+        super(ProjectClassLoader.class.getClassLoader());
+        this.project = project;
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        String resource = "projects/" + project + "/" + name.replace('.', '/') + ".class";
+        try (InputStream in = getParent().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new ClassNotFoundException(name + " (projeto " + project + ")");
+            }
+            byte[] bytes = in.readAllBytes();
+            return defineClass(name, bytes, 0, bytes.length);
+        } catch (IOException e) {
+            throw new ClassNotFoundException(name, e);
+        }
+    }
+
+    public Class<?> type(String name) {
+        try {
+            return loadClass(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Classe não encontrada: " + name
+                + " (rode o build pelo pom da pasta projetos)", e);
+        }
+    }
+
+    /**
+     * Método estático ou de instância (inclusive privado)
+     * Os tipos por referência viram Object (o alvo, se houver, é o primeiro
+     * parâmetro) e os primitivos são mantidos, para chamar com invokeExact
+     * sem boxing.
+     */
+    public MethodHandle method(String className, String method, Class<?>... params) {
+        try {
+            Class<?> owner = type(className);
+            MethodHandle handle = lookup(owner).unreflect(owner.getDeclaredMethod(method, params));
+            return handle.asType(handle.type().erase());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(className + "." + method, e);
+        }
+    }
+
+    public MethodHandle constructor(String className, Class<?>... params) {
+        try {
+            Class<?> owner = type(className);
+            MethodHandle handle = lookup(owner).findConstructor(owner,
+                MethodType.methodType(void.class, params));
+            return handle.asType(handle.type().erase());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("new " + className, e);
+        }
+    }
+
+    /**
+     * Leitura de um campo (inclusive privado): (Object alvo) -> Object
+     */
+    public MethodHandle fieldGetter(String className, String field) {
+        try {
+            Class<?> owner = type(className);
+            MethodHandle handle = lookup(owner).unreflectGetter(owner.getDeclaredField(field));
+            return handle.asType(handle.type().generic());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(className + "." + field, e);
+        }
+    }
+
+    /**
+     * Escrita em um campo (inclusive privado): (Object alvo, Object valor)
+     */
+    public MethodHandle fieldSetter(String className, String field) {
+        try {
+            Class<?> owner = type(className);
+            MethodHandle handle = lookup(owner).unreflectSetter(owner.getDeclaredField(field));
+            return handle.asType(handle.type().generic());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(className + "." + field, e);
+        }
+    }
+
+    private static MethodHandles.Lookup lookup(Class<?> owner) throws IllegalAccessException {
+        return MethodHandles.privateLookupIn(owner, MethodHandles.lookup());
+    }
+
+    /**
+     * Saída descartada para métodos que imprimem no console
+     */
+    public static PrintStream nullOutput() {
+        return new PrintStream(OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,64 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * 9-task-manager: buscas por id (findTask e userExists)
+ * As duas percorrem a lista inteira; a busca pela última tarefa mede o
+ * pior caso com tasks tarefas cadastradas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskManagerBenchmark {
+    private static final ProjectClassLoader PROJECT = new ProjectClassLoader("task-manager");
+    private static final MethodHandle NEW_TASK_MANAGER = PROJECT.constructor("TaskManager");
+    private static final MethodHandle NEW_TASK =
+        PROJECT.constructor("Task", int.class, String.class, String.class, int.class);
+    private static final MethodHandle GET_TASKS = PROJECT.fieldGetter("TaskManager", "tasks");
+    private static final MethodHandle FIND_TASK = PROJECT.method("TaskManager", "findTask", int.class);
+    private static final MethodHandle USER_EXISTS = PROJECT.method("TaskManager", "userExists", int.class);
+
+    @Param({"10", "1000", "100000"})
+    public int tasks;
+
+    private Object manager;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Throwable {
+        manager = (Object) NEW_TASK_MANAGER.invokeExact();
+        List<Object> list = (List<Object>) (Object) GET_TASKS.invokeExact(manager);
+        for (int id = 1; id <= tasks; id++) {
+            list.add((Object) NEW_TASK.invokeExact(id, (Object) ("Tarefa " + id),
+                (Object) "Descrição", 1 + id % 3));
+        }
+    }
+
+    @Benchmark
+    public Object findFirstTask() throws Throwable {
+        return (Object) FIND_TASK.invokeExact(manager, 1);
+    }
+
+    @Benchmark
+    public Object findLastTask() throws Throwable {
+        return (Object) FIND_TASK.invokeExact(manager, tasks);
+    }
+
+    @Benchmark
+    public Object findMissingTask() throws Throwable {
+        return (Object) FIND_TASK.invokeExact(manager, -1);
+    }
+
+    @Benchmark
+    public boolean userExists() throws Throwable {
+        return (boolean) USER_EXISTS.invokeExact(manager, 3);
+    }
+}